@@ -1,281 +1,497 @@
-package com.example.csvactivityplugin;
-
-import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableCellRenderer;
-
-import com.nomagic.uml2.impl.PropertyNames;
-
-import javax.swing.table.TableCellEditor;
-import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-
-/**
- * Dialog that allows users to choose the action type for each imported activity.
- * Users can select between:
- * - Structured Activity Node (default)
- * - Call Behavior Action
- */
-public class ActionTypeChooser extends JDialog {
-    
-    public enum ActionType {
-        STRUCTURED_ACTIVITY("Structured Activity Node"),
-        CALL_BEHAVIOR("Call Behavior Action");
-        
-        private final String displayName;
-        
-        ActionType(String displayName) {
-            this.displayName = displayName;
-        }
-        
-        public String getDisplayName() {
-            return displayName;
-        }
-        
-        @Override
-        public String toString() {
-            return displayName;
-        }
-    }
-    
-    private JTable actionTable;
-    private DefaultTableModel tableModel;
-    private Map<String, ActionType> actionTypeMap;
-    private boolean userConfirmed = false;
-    
-    /**
-     * Creates a new ActionTypeChooser dialog.
-     * 
-     * @param parent The parent frame for this dialog
-     * @param activities List of activities to choose types for
-     */
-    public ActionTypeChooser(Frame parent, List<ActivityData> activities) {
-        super(parent, "Choose Action Types", true);
-        this.actionTypeMap = new HashMap<>();
-        
-        // Initialize all actions to structured activity (default)
-        for (ActivityData activity : activities) {
-            actionTypeMap.put(activity.getName(), ActionType.STRUCTURED_ACTIVITY);
-        }
-        
-        initializeUI(activities);
-        setupDialog();
-    }
-    
-    /**
-     * Initializes the user interface components.
-     */
-    private void initializeUI(List<ActivityData> activities) {
-        setLayout(new BorderLayout());
-        
-        // Create header panel
-        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JLabel headerLabel = new JLabel("Choose the action type for each imported activity:");
-        headerLabel.setFont(headerLabel.getFont().deriveFont(Font.BOLD));
-        headerPanel.add(headerLabel);
-        add(headerPanel, BorderLayout.NORTH);
-        
-        // Create table
-        createTable(activities);
-        
-        // Create button panel (this now includes info panel)
-        createButtonPanel();
-    }
-    
-    /**
-     * Creates the main table for action type selection.
-     */
-    private void createTable(List<ActivityData> activities) {
-        // Define column names
-        String[] columnNames = {"Action Name", "Input Pins", "Output Pins", "Action Type"};
-        
-        // Create table model
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                // Only the Action Type column is editable
-                return column == 3;
-            }
-        };
-        
-        // Populate table with activity data
-        for (ActivityData activity : activities) {
-            String displayName = activity.getName();
-            if (activity.isSubAction()) {
-                displayName = "    └─ " + displayName; // Indent sub-actions
-            }
-            
-            Object[] row = {
-                displayName,
-                String.join(", ", activity.getInputs()),
-                String.join(", ", activity.getOutputs()),
-                ActionType.STRUCTURED_ACTIVITY // Default selection
-            };
-            tableModel.addRow(row);
-        }
-        
-        // Create table
-        actionTable = new JTable(tableModel);
-        actionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        actionTable.getTableHeader().setReorderingAllowed(false);
-        
-        // Set up custom cell renderer and editor for the Action Type column
-        JComboBox<ActionType> comboBox = new JComboBox<>(ActionType.values());
-        actionTable.getColumnModel().getColumn(3).setCellEditor(new DefaultCellEditor(comboBox));
-        actionTable.getColumnModel().getColumn(3).setCellRenderer(new ComboBoxRenderer());
-        
-        // Set column widths
-        actionTable.getColumnModel().getColumn(0).setPreferredWidth(200); // Action Name
-        actionTable.getColumnModel().getColumn(1).setPreferredWidth(150); // Input Pins
-        actionTable.getColumnModel().getColumn(2).setPreferredWidth(150); // Output Pins
-        actionTable.getColumnModel().getColumn(3).setPreferredWidth(200); // Action Type
-        
-        // Add table change listener to update our map
-        tableModel.addTableModelListener(e -> {
-            if (e.getColumn() == 3) { // Action Type column changed
-                int row = e.getFirstRow();
-                String cell = (String) tableModel.getValueAt(row, 0);
-                String rawName = cell.replaceAll("^\\s*└─\\s*", "");
-                ActionType actionType = (ActionType) tableModel.getValueAt(row, 3);
-                actionTypeMap.put(rawName, actionType);
-            }
-        });
-        
-        // Put table in scroll pane
-        JScrollPane scrollPane = new JScrollPane(actionTable);
-        scrollPane.setPreferredSize(new Dimension(700, 300));
-        add(scrollPane, BorderLayout.CENTER);
-    }
-    
-    /**
-     * Creates the button panel at the bottom of the dialog.
-     */
-    private void createButtonPanel() {
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        
-        // Bulk action buttons
-        JButton setAllStructuredBtn = new JButton("Set All to Structured Activity");
-        setAllStructuredBtn.addActionListener(e -> setAllActionTypes(ActionType.STRUCTURED_ACTIVITY));
-        
-        JButton setAllCallBehaviorBtn = new JButton("Set All to Call Behavior");
-        setAllCallBehaviorBtn.addActionListener(e -> setAllActionTypes(ActionType.CALL_BEHAVIOR));
-        
-        // Dialog control buttons
-        JButton okButton = new JButton("OK");
-        okButton.addActionListener(e -> {
-            userConfirmed = true;
-            dispose();
-        });
-        
-        JButton cancelButton = new JButton("Cancel");
-        cancelButton.addActionListener(e -> {
-            userConfirmed = false;
-            dispose();
-        });
-        
-        // Add buttons to panel
-        buttonPanel.add(setAllStructuredBtn);
-        buttonPanel.add(setAllCallBehaviorBtn);
-        buttonPanel.add(Box.createHorizontalStrut(20)); // Spacer
-        buttonPanel.add(cancelButton);
-        buttonPanel.add(okButton);
-        
-        // Create a combined panel for info and buttons
-        JPanel bottomPanel = new JPanel(new BorderLayout());
-        
-        // Create info panel first
-        JPanel infoPanel = new JPanel(new BorderLayout());
-        infoPanel.setBorder(BorderFactory.createTitledBorder("Action Type Information"));
-        
-        JTextArea infoText = new JTextArea();
-        infoText.setEditable(false);
-        infoText.setBackground(getBackground());
-        infoText.setFont(infoText.getFont().deriveFont(Font.PLAIN, 11f));
-        infoText.setText(
-            "• Structured Activity Node: Creates a nested activity that can contain other activities\n" +
-            "• Call Behavior Action: Creates an action that calls an existing behavior/activity"
-        );
-        
-        infoPanel.add(infoText, BorderLayout.CENTER);
-        infoPanel.setPreferredSize(new Dimension(700, 80));
-        
-        bottomPanel.add(infoPanel, BorderLayout.CENTER);
-        bottomPanel.add(buttonPanel, BorderLayout.SOUTH);
-        
-        add(bottomPanel, BorderLayout.SOUTH);
-    }
-    
-    /**
-     * Sets all actions to the specified type.
-     */
-    private void setAllActionTypes(ActionType actionType) {
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            tableModel.setValueAt(actionType, i, 3);
-        }
-    }
-    
-    /**
-     * Custom renderer for the combo box column.
-     */
-    private static class ComboBoxRenderer implements TableCellRenderer {
-        private JComboBox<ActionType> comboBox = new JComboBox<>(ActionType.values());
-        
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value,
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            comboBox.setSelectedItem(value);
-            
-            if (isSelected) {
-                comboBox.setBackground(table.getSelectionBackground());
-                comboBox.setForeground(table.getSelectionForeground());
-            } else {
-                comboBox.setBackground(table.getBackground());
-                comboBox.setForeground(table.getForeground());
-            }
-            
-            return comboBox;
-        }
-    }
-    
-    /**
-     * Sets up the dialog properties.
-     */
-    private void setupDialog() {
-        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
-        setSize(750, 500);
-        setLocationRelativeTo(getParent());
-        setResizable(true);
-    }
-    
-    /**
-     * Shows the dialog and waits for user input.
-     * 
-     * @return Map of action names to their selected types, or null if cancelled
-     */
-    public Map<String, ActionType> showDialog() {
-        setVisible(true);
-        
-        if (userConfirmed) {
-            return new HashMap<>(actionTypeMap);
-        } else {
-            return null;
-        }
-    }
-    
-    /**
-     * Static convenience method to show the dialog and get results.
-     * 
-     * @param parent The parent frame
-     * @param activities List of activities to choose types for
-     * @return Map of action names to their selected types, or null if cancelled
-     */
-    public static Map<String, ActionType> chooseActionTypes(Frame parent, List<ActivityData> activities) {
-        ActionTypeChooser chooser = new ActionTypeChooser(parent, activities);
-        return chooser.showDialog();
-    }
+package com.example.csvactivityplugin;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableCellRenderer;
+
+import javax.swing.table.TableCellEditor;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dialog that allows users to choose the action type for each imported activity.
+ * Users can select between:
+ * - Structured Activity Node (default)
+ * - Call Behavior Action
+ *
+ * The table reads the parsed rows directly and formats a cell only when it
+ * is painted, so the dialog opens at once however large the sheet is. A
+ * filter narrows the rows shown; "Set All" applies to the shown rows.
+ *
+ * Types can also be assigned by {@link ActionTypeRules}, saved as a preset
+ * for the workbook or the project; a preset can skip this dialog.
+ */
+public class ActionTypeChooser extends JDialog {
+    
+    public enum ActionType {
+        STRUCTURED_ACTIVITY("Structured Activity Node"),
+        CALL_BEHAVIOR("Call Behavior Action");
+        
+        private final String displayName;
+        
+        ActionType(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
+    private JTable actionTable;
+    private ActionTableModel tableModel;
+    private ActionType[] actionTypes;        // indexed by row ID
+    private boolean userConfirmed = false;
+    
+    private final List<ActivityData> activities;
+    private final String workbook;           // preset names (null ⇒ that scope is not offered)
+    private final String project;
+    private ActionTypeRules rules;           // last rules applied, null if none
+    
+    /**
+     * Creates a new ActionTypeChooser dialog.
+     * 
+     * @param parent The parent frame for this dialog
+     * @param activities List of activities to choose types for
+     */
+    public ActionTypeChooser(Frame parent, List<ActivityData> activities) {
+        this(parent, activities, null, null, null);
+    }
+    
+    /**
+     * @param workbook workbook name a preset can be saved for, or null
+     * @param project  project name a preset can be saved for, or null
+     * @param preset   rules to start from (e.g. a saved preset), or null
+     */
+    public ActionTypeChooser(Frame parent, List<ActivityData> activities,
+                             String workbook, String project, ActionTypeRules preset) {
+        super(parent, "Choose Action Types", true);
+        this.activities = activities;
+        this.workbook = workbook;
+        this.project = project;
+        this.rules = preset;
+        
+        // Initialize all actions to structured activity (default), or to the preset
+        if (preset != null) {
+            this.actionTypes = preset.apply(activities);
+        } else {
+            this.actionTypes = new ActionType[ActivityData.idLimit(activities)];
+            Arrays.fill(actionTypes, ActionType.STRUCTURED_ACTIVITY);
+        }
+        
+        initializeUI(activities);
+        setupDialog();
+    }
+    
+    /**
+     * Initializes the user interface components.
+     */
+    private void initializeUI(List<ActivityData> activities) {
+        setLayout(new BorderLayout());
+        
+        // Create table
+        createTable(activities);
+        
+        // Create header panel with the filter
+        JPanel headerPanel = new JPanel(new BorderLayout(10, 0));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+        JLabel headerLabel = new JLabel("Choose the action type for each imported activity:");
+        headerLabel.setFont(headerLabel.getFont().deriveFont(Font.BOLD));
+        headerPanel.add(headerLabel, BorderLayout.WEST);
+        headerPanel.add(createFilterPanel(), BorderLayout.EAST);
+        add(headerPanel, BorderLayout.NORTH);
+        
+        // Create button panel (this now includes info panel)
+        createButtonPanel();
+    }
+    
+    /**
+     * Creates the main table for action type selection.
+     */
+    private void createTable(List<ActivityData> activities) {
+        // Create table model straight on the rows; nothing is copied
+        tableModel = new ActionTableModel(activities, actionTypes);
+        
+        // Create table
+        actionTable = new JTable(tableModel);
+        actionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        actionTable.getTableHeader().setReorderingAllowed(false);
+        
+        // Set up custom cell renderer and editor for the Action Type column
+        JComboBox<ActionType> comboBox = new JComboBox<>(ActionType.values());
+        actionTable.getColumnModel().getColumn(3).setCellEditor(new DefaultCellEditor(comboBox));
+        actionTable.getColumnModel().getColumn(3).setCellRenderer(new ComboBoxRenderer());
+        
+        // Set column widths
+        actionTable.getColumnModel().getColumn(0).setPreferredWidth(200); // Action Name
+        actionTable.getColumnModel().getColumn(1).setPreferredWidth(150); // Input Pins
+        actionTable.getColumnModel().getColumn(2).setPreferredWidth(150); // Output Pins
+        actionTable.getColumnModel().getColumn(3).setPreferredWidth(200); // Action Type
+        
+        // Put table in scroll pane
+        JScrollPane scrollPane = new JScrollPane(actionTable);
+        scrollPane.setPreferredSize(new Dimension(700, 300));
+        add(scrollPane, BorderLayout.CENTER);
+    }
+    
+    /**
+     * Creates the filter field; rows whose name or actor contain its text stay shown.
+     */
+    private JPanel createFilterPanel() {
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        JTextField filterField = new JTextField(18);
+        JLabel countLabel = new JLabel(tableModel.getRowCount() + " rows");
+        
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e)  { apply(); }
+            @Override public void removeUpdate(DocumentEvent e)  { apply(); }
+            @Override public void changedUpdate(DocumentEvent e) { apply(); }
+            
+            private void apply() {
+                if (actionTable.isEditing()) actionTable.getCellEditor().stopCellEditing();
+                tableModel.setFilter(filterField.getText());
+                countLabel.setText(tableModel.getRowCount() + " rows");
+            }
+        });
+        
+        filterPanel.add(new JLabel("Filter:"));
+        filterPanel.add(filterField);
+        filterPanel.add(countLabel);
+        return filterPanel;
+    }
+    
+    /**
+     * Creates the button panel at the bottom of the dialog.
+     */
+    private void createButtonPanel() {
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        
+        // Bulk action buttons
+        JButton setAllStructuredBtn = new JButton("Set All to Structured Activity");
+        setAllStructuredBtn.setToolTipText("Applies to the rows shown by the filter");
+        setAllStructuredBtn.addActionListener(e -> setAllActionTypes(ActionType.STRUCTURED_ACTIVITY));
+        
+        JButton setAllCallBehaviorBtn = new JButton("Set All to Call Behavior");
+        setAllCallBehaviorBtn.setToolTipText("Applies to the rows shown by the filter");
+        setAllCallBehaviorBtn.addActionListener(e -> setAllActionTypes(ActionType.CALL_BEHAVIOR));
+        
+        JButton rulesBtn = new JButton("Rules...");
+        rulesBtn.setToolTipText("Assign types by rules on name, level, actor or sub-actions");
+        rulesBtn.addActionListener(e -> editRules());
+        
+        // Dialog control buttons
+        JButton okButton = new JButton("OK");
+        okButton.addActionListener(e -> {
+            userConfirmed = true;
+            dispose();
+        });
+        
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            userConfirmed = false;
+            dispose();
+        });
+        
+        // Add buttons to panel
+        buttonPanel.add(rulesBtn);
+        buttonPanel.add(setAllStructuredBtn);
+        buttonPanel.add(setAllCallBehaviorBtn);
+        buttonPanel.add(Box.createHorizontalStrut(20)); // Spacer
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(okButton);
+        
+        // Create a combined panel for info and buttons
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        
+        // Create info panel first
+        JPanel infoPanel = new JPanel(new BorderLayout());
+        infoPanel.setBorder(BorderFactory.createTitledBorder("Action Type Information"));
+        
+        JTextArea infoText = new JTextArea();
+        infoText.setEditable(false);
+        infoText.setBackground(getBackground());
+        infoText.setFont(infoText.getFont().deriveFont(Font.PLAIN, 11f));
+        infoText.setText(
+            "• Structured Activity Node: Creates a nested activity that can contain other activities\n" +
+            "• Call Behavior Action: Creates an action that calls an existing behavior/activity"
+        );
+        
+        infoPanel.add(infoText, BorderLayout.CENTER);
+        infoPanel.setPreferredSize(new Dimension(700, 80));
+        
+        bottomPanel.add(infoPanel, BorderLayout.CENTER);
+        bottomPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        add(bottomPanel, BorderLayout.SOUTH);
+    }
+    
+    /**
+     * Lets the user edit rules, applies them to every row and optionally
+     * saves them as a preset.
+     */
+    private void editRules() {
+        if (actionTable.isEditing()) actionTable.getCellEditor().stopCellEditing();
+        
+        JTextArea text = new JTextArea(rules != null ? rules.getText()
+                : "# conditions -> type, first match wins; unmatched rows stay structured\n"
+                + "# name: <regex>   actor: <regex>   level: 2 | 2+   subs: yes | no\n"
+                + "# e.g.  level: 2 & actor: Pilot -> call\n"
+                + "# a regex may contain ->; write & in one as \\&\n", 12, 50);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        
+        JComboBox<Object> saveFor = new JComboBox<>();
+        saveFor.addItem("(do not save)");
+        if (workbook != null) saveFor.addItem(ActionTypeRules.Scope.WORKBOOK);
+        if (project != null)  saveFor.addItem(ActionTypeRules.Scope.PROJECT);
+        JCheckBox skip = new JCheckBox("Use the preset without showing this dialog next time");
+        
+        // clears the preset saved for the chosen scope, so its dialog shows again
+        JButton forget = new JButton("Forget Saved Preset");
+        forget.setEnabled(false);
+        saveFor.addItemListener(e -> forget.setEnabled(saveFor.getSelectedItem() instanceof ActionTypeRules.Scope));
+        forget.addActionListener(e -> {
+            if (!(saveFor.getSelectedItem() instanceof ActionTypeRules.Scope scope)) return;
+            ActionTypeRules.forget(scope, scope == ActionTypeRules.Scope.WORKBOOK ? workbook : project);
+            saveFor.setSelectedIndex(0);
+            JOptionPane.showMessageDialog(this, "The preset for " + scope + " was removed.",
+                                          "Action Type Rules", JOptionPane.INFORMATION_MESSAGE);
+        });
+        
+        JPanel savePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        savePanel.add(new JLabel("Save as preset for:"));
+        savePanel.add(saveFor);
+        savePanel.add(forget);
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(savePanel, BorderLayout.NORTH);
+        south.add(skip, BorderLayout.SOUTH);
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        panel.add(new JScrollPane(text), BorderLayout.CENTER);
+        panel.add(south, BorderLayout.SOUTH);
+        
+        while (true) {
+            int answer = JOptionPane.showConfirmDialog(this, panel, "Action Type Rules",
+                    JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            if (answer != JOptionPane.OK_OPTION) return;
+            try {
+                ActionTypeRules compiled = ActionTypeRules.compile(text.getText());
+                
+                // all rows, filtered or not, in one pass and one table event
+                ActionType[] assigned = compiled.apply(activities);
+                System.arraycopy(assigned, 0, actionTypes, 0, assigned.length);
+                tableModel.fireTableDataChanged();
+                rules = compiled;
+                
+                if (saveFor.getSelectedItem() instanceof ActionTypeRules.Scope scope) {
+                    compiled.save(scope, scope == ActionTypeRules.Scope.WORKBOOK ? workbook : project,
+                                  skip.isSelected());
+                }
+                return;
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Invalid Rules",
+                                              JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Sets all shown actions to the specified type, with a single table event.
+     */
+    private void setAllActionTypes(ActionType actionType) {
+        if (actionTable.isEditing()) actionTable.getCellEditor().stopCellEditing();
+        tableModel.setAll(actionType);
+    }
+    
+    /**
+     * Table model over the parsed rows and their types. Cells are formatted
+     * when asked for; the filter keeps the indices of the rows it shows.
+     */
+    private static class ActionTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Action Name", "Input Pins", "Output Pins", "Action Type"};
+        
+        private final List<ActivityData> rows;
+        private final ActionType[] types;    // indexed by row ID
+        private int[] shown;                 // table row → index into rows
+        
+        ActionTableModel(List<ActivityData> rows, ActionType[] types) {
+            this.rows = rows;
+            this.types = types;
+            this.shown = null;               // null ⇒ every row, in order
+        }
+        
+        /** Shows only rows whose name or actor contain {@code text} (case-insensitive). */
+        void setFilter(String text) {
+            String needle = text.trim().toLowerCase();
+            if (needle.isEmpty()) {
+                shown = null;
+            } else {
+                int[] hits = new int[rows.size()];
+                int n = 0;
+                for (int i = 0; i < rows.size(); i++) {
+                    ActivityData d = rows.get(i);
+                    if (d.getName().toLowerCase().contains(needle)
+                            || d.getActor().toLowerCase().contains(needle)) {
+                        hits[n++] = i;
+                    }
+                }
+                shown = Arrays.copyOf(hits, n);
+            }
+            fireTableDataChanged();
+        }
+        
+        /** Sets every shown row to {@code type}; one event for all of them. */
+        void setAll(ActionType type) {
+            for (int r = 0; r < getRowCount(); r++) {
+                types[row(r).getRowId()] = type;
+            }
+            if (getRowCount() > 0) fireTableRowsUpdated(0, getRowCount() - 1);
+        }
+        
+        private ActivityData row(int tableRow) {
+            return rows.get(shown == null ? tableRow : shown[tableRow]);
+        }
+        
+        @Override
+        public int getRowCount() {
+            return (shown == null) ? rows.size() : shown.length;
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            // Only the Action Type column is editable
+            return column == 3;
+        }
+        
+        @Override
+        public Object getValueAt(int tableRow, int column) {
+            ActivityData d = row(tableRow);
+            switch (column) {
+                case 0:  return d.isSubAction() ? "    └─ " + d.getName() : d.getName(); // Indent sub-actions
+                case 1:  return String.join(", ", d.getInputs());
+                case 2:  return String.join(", ", d.getOutputs());
+                default: return types[d.getRowId()];
+            }
+        }
+        
+        @Override
+        public void setValueAt(Object value, int tableRow, int column) {
+            if (column != 3 || !(value instanceof ActionType)) return;
+            types[row(tableRow).getRowId()] = (ActionType) value;
+            fireTableCellUpdated(tableRow, column);
+        }
+    }
+    
+    /**
+     * Custom renderer for the combo box column.
+     */
+    private static class ComboBoxRenderer implements TableCellRenderer {
+        private JComboBox<ActionType> comboBox = new JComboBox<>(ActionType.values());
+        
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            comboBox.setSelectedItem(value);
+            
+            if (isSelected) {
+                comboBox.setBackground(table.getSelectionBackground());
+                comboBox.setForeground(table.getSelectionForeground());
+            } else {
+                comboBox.setBackground(table.getBackground());
+                comboBox.setForeground(table.getForeground());
+            }
+            
+            return comboBox;
+        }
+    }
+    
+    /**
+     * Sets up the dialog properties.
+     */
+    private void setupDialog() {
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        setSize(750, 500);
+        setLocationRelativeTo(getParent());
+        setResizable(true);
+    }
+    
+    /**
+     * Shows the dialog and waits for user input.
+     * 
+     * @return selected types indexed by row ID, or null if cancelled
+     */
+    public ActionType[] showDialog() {
+        setVisible(true);
+        
+        if (userConfirmed) {
+            return actionTypes.clone();
+        } else {
+            return null;
+        }
+    }
+    
+    /**
+     * Static convenience method to show the dialog and get results.
+     * 
+     * @param parent The parent frame
+     * @param activities List of activities to choose types for
+     * @return selected types indexed by row ID, or null if cancelled
+     */
+    public static ActionType[] chooseActionTypes(Frame parent, List<ActivityData> activities) {
+        ActionTypeChooser chooser = new ActionTypeChooser(parent, activities);
+        return chooser.showDialog();
+    }
+    
+    /**
+     * As above, starting from the preset saved for the workbook or the
+     * project; a preset marked to skip the dialog is applied without it.
+     * 
+     * @param workbook workbook name, or null
+     * @param project project name, or null
+     * @param allowSkip false ⇒ show the dialog even if the preset would skip it
+     * @param report gets a preset that was ignored or applied without the dialog
+     * @return selected types indexed by row ID, or null if cancelled
+     */
+    public static ActionType[] chooseActionTypes(Frame parent, List<ActivityData> activities,
+                                                 String workbook, String project, boolean allowSkip,
+                                                 ImportReport report) {
+        ActionTypeRules.Preset preset = ActionTypeRules.load(workbook, project, report);
+        if (preset != null && preset.skipDialog && allowSkip) {
+            report.result("Action types: rules of the preset for " + preset.scope
+                          + " applied without the dialog");
+            return preset.rules.apply(activities);
+        }
+        ActionTypeChooser chooser = new ActionTypeChooser(parent, activities, workbook, project,
+                                                          preset == null ? null : preset.rules);
+        return chooser.showDialog();
+    }
+    
+    /**
+     * The type chosen for a row; Structured Activity Node for rows the
+     * choice does not cover (e.g. a dry run, which chooses nothing).
+     */
+    public static ActionType typeOf(ActionType[] actionTypes, ActivityData row) {
+        int id = row.getRowId();
+        ActionType t = (id >= 0 && id < actionTypes.length) ? actionTypes[id] : null;
+        return (t != null) ? t : ActionType.STRUCTURED_ACTIVITY;
+    }
 }
\ No newline at end of file
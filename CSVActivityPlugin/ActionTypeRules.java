@@ -0,0 +1,264 @@
+package com.example.csvactivityplugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.prefs.Preferences;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Assigns action types by rules instead of row by row.
+ *
+ * One rule per line, conditions joined with {@code &}, first match wins;
+ * rows no rule matches stay Structured Activity Nodes:
+ * <pre>
+ *   # comment
+ *   name: ^Call\b          -> call
+ *   level: 2 &amp; actor: Pilot -> call
+ *   level: 3+              -> call
+ *   subs: yes              -> structured
+ * </pre>
+ * {@code name} and {@code actor} take a regular expression (found anywhere,
+ * case‑insensitive), {@code level} the depth of the outline number ("3" is 1,
+ * "3.2" is 2; "N+" for N and deeper) and {@code subs} whether the row has
+ * sub‑actions. The type follows the last {@code ->} of the line, so a
+ * regular expression may contain {@code ->}; an {@code &} in one is written
+ * {@code \&}, which the expression then matches as a plain {@code &}. The
+ * text is compiled once; {@link #apply} then types every row in a single
+ * pass.
+ *
+ * Rules can be saved as a preset per workbook or per project, in the user
+ * preferences; a preset may also skip the chooser dialog altogether.
+ */
+public final class ActionTypeRules {
+
+    private static final Pattern RULE      = Pattern.compile("^(.+)->\\s*(\\S.*?)\\s*$");
+    private static final Pattern CONDITION = Pattern.compile("^\\s*(name|actor|level|subs)\\s*:\\s*(.*?)\\s*$",
+                                                             Pattern.CASE_INSENSITIVE);
+    private static final Pattern OUTLINE   = Pattern.compile("^(\\d+(?:\\.\\d+)*)");
+    private static final Pattern AND       = Pattern.compile("(?<!\\\\)&");      // \\& is a literal &
+
+    /** one compiled condition on a row */
+    private interface Condition {
+        boolean test(ActivityData d, int level, boolean hasSubs);
+    }
+
+    private static final class Rule {
+        final Condition[]                  conditions;
+        final ActionTypeChooser.ActionType type;
+
+        Rule(Condition[] conditions, ActionTypeChooser.ActionType type) {
+            this.conditions = conditions;
+            this.type       = type;
+        }
+    }
+
+    private final String     text;
+    private final List<Rule> rules;
+    private final boolean    usesSubs;   // only then is the has‑sub‑actions table built
+
+    private ActionTypeRules(String text, List<Rule> rules, boolean usesSubs) {
+        this.text     = text;
+        this.rules    = rules;
+        this.usesSubs = usesSubs;
+    }
+
+    /**
+     * Compiles rule text.
+     *
+     * @throws IllegalArgumentException naming the line that does not parse
+     */
+    public static ActionTypeRules compile(String text) {
+        List<Rule> rules = new ArrayList<>();
+        boolean usesSubs = false;
+        String[] lines = text.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                Matcher m = RULE.matcher(line);
+                if (!m.matches()) throw new IllegalArgumentException("expected \"conditions -> type\"");
+
+                String[] parts = AND.split(m.group(1));
+                Condition[] conditions = new Condition[parts.length];
+                for (int c = 0; c < parts.length; c++) {
+                    conditions[c] = condition(parts[c]);
+                    usesSubs |= parts[c].trim().toLowerCase().startsWith("subs");
+                }
+                rules.add(new Rule(conditions, type(m.group(2))));
+            } catch (IllegalArgumentException ex) {          // PatternSyntaxException included
+                String why = (ex instanceof PatternSyntaxException pse) ? pse.getDescription() : ex.getMessage();
+                throw new IllegalArgumentException("Rule line " + (i + 1) + ": " + why, ex);
+            }
+        }
+        return new ActionTypeRules(text, rules, usesSubs);
+    }
+
+    public String getText()  { return text; }
+    public boolean isEmpty() { return rules.isEmpty(); }
+
+    /** Types of {@code rows}, indexed by row ID, in one pass over the rows. */
+    public ActionTypeChooser.ActionType[] apply(List<ActivityData> rows) {
+        ActionTypeChooser.ActionType[] types = new ActionTypeChooser.ActionType[ActivityData.idLimit(rows)];
+        Arrays.fill(types, ActionTypeChooser.ActionType.STRUCTURED_ACTIVITY);
+
+        boolean[] hasSubs = new boolean[types.length];
+        if (usesSubs)
+            for (ActivityData d : rows)
+                if (d.isSubAction() && d.getParentRow() >= 0 && d.getParentRow() < hasSubs.length)
+                    hasSubs[d.getParentRow()] = true;
+
+        for (ActivityData d : rows) {
+            int level = level(d);
+            boolean subs = hasSubs[d.getRowId()];
+            for (Rule r : rules) {
+                if (matches(r, d, level, subs)) {
+                    types[d.getRowId()] = r.type;
+                    break;
+                }
+            }
+        }
+        return types;
+    }
+
+    private static boolean matches(Rule r, ActivityData d, int level, boolean hasSubs) {
+        for (Condition c : r.conditions)
+            if (!c.test(d, level, hasSubs)) return false;
+        return true;
+    }
+
+    /** depth of the outline number; 1 or 2 for un‑numbered main and sub rows */
+    private static int level(ActivityData d) {
+        Matcher m = OUTLINE.matcher(d.getName());
+        if (!m.find()) return d.isSubAction() ? 2 : 1;
+        int level = 1;
+        String number = m.group(1);
+        for (int i = 0; i < number.length(); i++)
+            if (number.charAt(i) == '.') level++;
+        return level;
+    }
+
+    /* -------- parsing -------- */
+
+    private static Condition condition(String s) {
+        Matcher m = CONDITION.matcher(s);
+        if (!m.matches())
+            throw new IllegalArgumentException("unknown condition \"" + s.trim()
+                                               + "\" (use name:, actor:, level: or subs:)");
+        String arg = m.group(2);
+        switch (m.group(1).toLowerCase()) {
+            case "name": {
+                Pattern p = Pattern.compile(arg, Pattern.CASE_INSENSITIVE);
+                return (d, level, subs) -> p.matcher(d.getName()).find();
+            }
+            case "actor": {
+                Pattern p = Pattern.compile(arg, Pattern.CASE_INSENSITIVE);
+                return (d, level, subs) -> p.matcher(d.getActor()).find();
+            }
+            case "level": {
+                boolean deeper = arg.endsWith("+");
+                int n;
+                try {
+                    n = Integer.parseInt(deeper ? arg.substring(0, arg.length() - 1).trim() : arg);
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("level takes a number, e.g. 2 or 2+");
+                }
+                return deeper ? (d, level, subs) -> level >= n
+                              : (d, level, subs) -> level == n;
+            }
+            default: {                                            // subs
+                boolean want;
+                if (arg.equalsIgnoreCase("yes") || arg.equalsIgnoreCase("true"))     want = true;
+                else if (arg.equalsIgnoreCase("no") || arg.equalsIgnoreCase("false")) want = false;
+                else throw new IllegalArgumentException("subs takes yes or no");
+                return (d, level, subs) -> subs == want;
+            }
+        }
+    }
+
+    private static ActionTypeChooser.ActionType type(String s) {
+        String t = s.toLowerCase().replaceAll("[\\s_]+", " ");
+        if (t.startsWith("call"))       return ActionTypeChooser.ActionType.CALL_BEHAVIOR;
+        if (t.startsWith("structured")) return ActionTypeChooser.ActionType.STRUCTURED_ACTIVITY;
+        throw new IllegalArgumentException("unknown action type \"" + s + "\" (use call or structured)");
+    }
+
+    /* =============================================================
+                                 PRESETS
+       ============================================================= */
+
+    /** where a preset applies */
+    public enum Scope {
+        WORKBOOK("this workbook"),
+        PROJECT("this project");
+
+        private final String displayName;
+        Scope(String displayName) { this.displayName = displayName; }
+        @Override public String toString() { return displayName; }
+    }
+
+    /** saved rules, and whether the chooser dialog is skipped when they exist */
+    public static final class Preset {
+        public final ActionTypeRules rules;
+        public final Scope           scope;
+        public final boolean         skipDialog;
+
+        Preset(ActionTypeRules rules, Scope scope, boolean skipDialog) {
+            this.rules      = rules;
+            this.scope      = scope;
+            this.skipDialog = skipDialog;
+        }
+    }
+
+    /**
+     * The preset for {@code workbook}, else the one for {@code project};
+     * {@code null} if neither has one (or it no longer compiles). A preset
+     * that no longer compiles is reported as a warning.
+     */
+    public static Preset load(String workbook, String project, ImportReport report) {
+        Preset p = load(Scope.WORKBOOK, workbook, report);
+        return (p != null) ? p : load(Scope.PROJECT, project, report);
+    }
+
+    private static Preset load(Scope scope, String name, ImportReport report) {
+        if (name == null) return null;
+        String text = prefs().get(key(scope, name), null);
+        if (text == null) return null;
+        try {
+            return new Preset(compile(text), scope,
+                              prefs().getBoolean(key(scope, name) + "#skip", false));
+        } catch (IllegalArgumentException ex) {
+            report.warning("Action type preset for " + scope + " ignored: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /** Saves these rules as the preset for {@code name} (a workbook or project name). */
+    public void save(Scope scope, String name, boolean skipDialog) {
+        if (name == null) return;
+        if (text.length() > Preferences.MAX_VALUE_LENGTH)
+            throw new IllegalArgumentException("The rules are too long to save as a preset.");
+        prefs().put(key(scope, name), text);
+        prefs().putBoolean(key(scope, name) + "#skip", skipDialog);
+    }
+
+    /** Removes the preset for {@code name}. */
+    public static void forget(Scope scope, String name) {
+        if (name == null) return;
+        prefs().remove(key(scope, name));
+        prefs().remove(key(scope, name) + "#skip");
+    }
+
+    /** preference keys are at most 80 characters; long names are hashed */
+    private static String key(Scope scope, String name) {
+        String key = scope.name().toLowerCase() + ":" + name;
+        return key.length() <= 70 ? key
+             : key.substring(0, 60) + "~" + Integer.toHexString(name.hashCode());
+    }
+
+    private static Preferences prefs() {
+        return Preferences.userNodeForPackage(ActionTypeRules.class).node("actionTypePresets");
+    }
+}
@@ -0,0 +1,758 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Builds an imported Activity from its {@link ImportPlan}: partitions,
+ * nodes and flows, the main diagram (paged, planned or grid) and the
+ * sub‑diagrams. Every element, diagram and symbol is made through a
+ * {@link ModelApi}; {@link ActivityDiagramCreator} runs it against Cameo
+ * with the project's resolvers as its {@link Decorations}.
+ *
+ * @param <S> a symbol on a diagram
+ * @param <D> a diagram
+ */
+public class ActivityBuilder<S, D extends S> {
+
+    /**
+     * What the build leaves to the project it runs in. The defaults do
+     * without: pins keep the cell text, call actions stay unbound, lanes
+     * get no stereotype, every sub‑diagram is built from scratch.
+     */
+    public interface Decorations<D> {
+
+        /** Names a pin from its cell value and may set its type. */
+        default void namePin(Pin p, String raw) throws ReadOnlyElementException {
+            p.setName(raw);
+        }
+
+        /** Binds a new call action to its behavior. */
+        default void bindBehavior(CallBehaviorAction action) throws ReadOnlyElementException {}
+
+        /**
+         * Finishes a new partition of {@code activity}.
+         *
+         * @param main a lane of the main diagram rather than of a sub‑diagram
+         */
+        default void decoratePartition(ActivityPartition p, Activity activity,
+                                       String actor, boolean main) {}
+
+        /**
+         * A sub‑diagram for {@code parent} with its lanes already in place,
+         * their partitions put in {@code partitions}.
+         *
+         * @return the diagram, or {@code null} to build it from scratch
+         */
+        default D instantiate(StructuredActivityNode parent, DiagramGeometry geometry,
+                              Map<String,ActivityPartition> partitions)
+                throws ReadOnlyElementException {
+            return null;
+        }
+
+        /** Records a sub‑diagram that is built when it is first opened. */
+        default void defer(StructuredActivityNode parent, DiagramGeometry geometry) {}
+    }
+
+    private final ModelApi<S,D>  api;
+    private final Decorations<D> decorations;
+
+    public ActivityBuilder(ModelApi<S,D> api, Decorations<D> decorations) {
+        this.api         = api;
+        this.decorations = decorations;
+    }
+
+    public ModelApi<S,D> getApi() {
+        return api;
+    }
+
+    /* =============================================================
+                                 ACTIVITY
+       ============================================================= */
+
+    /** An empty Activity named {@code name}, owned by {@code owner}. */
+    public Activity createActivity(String name, Element owner) throws ReadOnlyElementException {
+        Activity act = api.createActivity();
+        act.setName(name);
+        api.addElement(act, owner);
+        return act;
+    }
+
+    /**
+     * Builds {@code plan} into {@code activity}, one progress phase at a
+     * time.
+     *
+     * @param rowNodes   filled with the node built for each row, by row ID
+     * @param openable   whether the main diagram may be opened right away
+     * @param checkpoint run between batches of a bulk import (null ⇒ one batch)
+     * @return its main diagram (the first page)
+     */
+    public D build(Activity activity,
+                   ImportPlan plan,
+                   ImportOptions options,
+                   ActivityNode[] rowNodes,
+                   boolean openable,
+                   ImportProgress progress,
+                   Runnable checkpoint,
+                   ImportReport report)
+            throws ReadOnlyElementException {
+
+        /* -------- partitions (lanes) for the main diagram -------- */
+        progress.phase("Partitions", plan.getMainLanes().size());
+        Map<String,ActivityPartition> partitions = createPartitions(activity, plan.getMainLanes());
+
+        /* large flows are split over several page diagrams */
+        boolean paged = plan.isPaged();
+
+        /* layered / serpentine geometry was planned with the nodes */
+        DiagramGeometry planned = plan.getMainDiagram().getGeometry();
+
+        /* -------- main activity diagram -------- */
+        D mainDpe = null;
+        Map<ActivityPartition,S> laneShapes = new HashMap<>();
+
+        if (!paged) {
+            // deferred: build it closed so no shape change triggers a repaint
+            mainDpe = createDiagram(activity, activity.getName(),
+                                    openable && !options.isDeferDiagramOpen());
+        }
+        if (!paged && planned == null) {
+            int centerX = (DIAGRAM_WIDTH - LANE_WIDTH * partitions.size()) / 2;
+
+            /* one diagram ⇒ its own laneShapes map */
+            buildAndPlaceSwimlanes(mainDpe, partitions,
+                                   countActionsPerActor(activity),
+                                   centerX, START_Y - 50,
+                                   laneShapes);
+        }
+
+        /* -------- model nodes & edges -------- */
+        progress.phase("Nodes", plan.getNodes().size() + plan.getFlows().size());
+        ImportPlanExecutor<S,D> executor = new ImportPlanExecutor<>(this);
+        executor.setProgress(progress);
+        executor.setCheckpoint(checkpoint);
+        ActivityNode[] made = executor.createModel(plan, activity, partitions, rowNodes);
+        if (checkpoint != null) checkpoint.run();
+
+        /* data flow between pins of the same name, sub‑actions included */
+        if (options.isAutoObjectFlows()) {
+            progress.phase("Object flows", 1);
+            int flows = ObjectFlowBuilder.connect(api, activity);
+            report.result(activity.getName() + ": " + flows + " object flows created");
+        }
+
+        if (paged) {
+            progress.phase("Pages", 1);
+            mainDpe = createPagedDiagrams(activity,
+                                          ImportPlanExecutor.nodesOf(plan.getMainDiagram(), made),
+                                          partitions,
+                                          options.getPageSize(), openable && !options.isDeferDiagramOpen());
+        } else if (planned != null) {
+            progress.phase("Shapes", 1);
+            placePlannedSwimlanes(mainDpe, partitions, planned, laneShapes);
+            populateDiagramNodes(activity, mainDpe, laneShapes, null);
+            progress.phase("Layout", 1);
+            SubdiagramGridLayouter.applyGeometry(api,
+                    ImportPlanExecutor.nodesOf(plan.getMainDiagram(), made), planned, mainDpe);
+            progress.phase("Paths", 1);
+            populateDiagramPaths(activity, mainDpe);
+        } else {
+            progress.phase("Shapes", 1);
+            populateDiagramNodes(activity, mainDpe, laneShapes, null);
+
+            progress.phase("Layout", 1);
+            DiagramGridLayouter.layout(api, activity, mainDpe,
+                                       partitions, START_Y, Y_STEP);
+
+            progress.phase("Paths", 1);
+            populateDiagramPaths(activity, mainDpe);
+        }
+
+        if (checkpoint != null) checkpoint.run();
+
+        /* -------- sub‑action diagrams -------- */
+        progress.phase("Sub-diagrams", plan.getSubDiagrams().size());
+        executor.createSubDiagrams(plan, made, options.isLazySubDiagrams());
+        return mainDpe;
+    }
+
+    /* =============================================================
+                                PARTITIONS
+       ============================================================= */
+
+    /** top‑level partitions: the planned main lanes, in order */
+    Map<String,ActivityPartition> createPartitions(Activity activity, List<String> actors)
+            throws ReadOnlyElementException {
+
+        Map<String,ActivityPartition> parts = new LinkedHashMap<>();
+        for (String actor : actors) parts.put(actor, addPartition(activity, actor));
+        return parts;
+    }
+
+    /** One more top‑level partition, e.g. for an actor first seen on re‑import. */
+    ActivityPartition addPartition(Activity activity, String actor)
+            throws ReadOnlyElementException {
+        return newPartition(activity, actor, true);
+    }
+
+    /**
+     * Create brand‑new partitions for the sub‑diagram **in the same order**
+     * as they appear in the parent Activity (main diagram), then append any
+     * extra actors found only in the sub‑rows. The order itself is decided
+     * by {@link SubdiagramLayoutPlanner#laneOrder} when the geometry is planned.
+     *
+     * @param parentActivity  the Activity that owns the parent SAN
+     * @param finalOrder      planned lane order for this sub‑diagram
+     * @return LinkedHashMap <actorName , new ActivityPartition>
+     */
+    Map<String,ActivityPartition> createPartitionsInMainOrder(Activity parentActivity,
+                                                              List<String> finalOrder)
+            throws ReadOnlyElementException {
+
+        Map<String,ActivityPartition> out = new LinkedHashMap<>();
+        for (String actor : finalOrder) out.put(actor, newPartition(parentActivity, actor, false));
+        return out;
+    }
+
+    private ActivityPartition newPartition(Activity activity, String actor, boolean main)
+            throws ReadOnlyElementException {
+
+        ActivityPartition p = api.createPartition();
+        p.setName(actor);
+        p.setDimension(true);               // vertical swim‑lane
+
+        api.addElement(p, activity);        // model ownership
+        activity.getPartition().add(p);
+        decorations.decoratePartition(p, activity, actor, main);
+        return p;
+    }
+
+    /* -------- per‑diagram counting helper -------- */
+    private static Map<String,Integer> countActionsPerActor(Element ctx) {
+        Map<String,Integer> map = new HashMap<>();
+        for (ActivityNode n : getNodesOfContext(ctx)) {
+            if (!n.getInPartition().isEmpty()) {
+                String actor = n.getInPartition().iterator().next().getName();
+                map.merge(actor, 1, Integer::sum);
+            }
+        }
+        return map;
+    }
+
+    /* =============================================================
+                        SUB‑DIAGRAM GENERATION
+       ============================================================= */
+
+    /**
+     * Model half of a sub‑diagram: Start, the sub‑actions, End and the control
+     * flows between them.
+     *
+     * @param subNodes the sub‑actions, already created, one per sub‑row
+     * @return nodes in layout order (Start, one slot per sub‑row, End); a row
+     *         without a node keeps a null slot so the geometry stays aligned
+     */
+    List<ActivityNode> createSubactionFlow(StructuredActivityNode parentNode,
+                                           List<ActivityNode> subNodes)
+            throws ReadOnlyElementException {
+
+        /* Build the list of nodes to layout */
+        List<ActivityNode> nodesToLayout = new ArrayList<>();
+
+        /* 1. Create Initial Node if it doesn't exist */
+        InitialNode startNode = null;
+        for (Element child : parentNode.getOwnedElement()) {
+            if (child instanceof InitialNode) {
+                startNode = (InitialNode) child;
+                break;
+            }
+        }
+        if (startNode == null) {
+            startNode = (InitialNode) api.createControlNode(ImportPlan.Kind.INITIAL);
+            startNode.setName("Start");
+            api.addElement(startNode, parentNode);
+        }
+        nodesToLayout.add(startNode);
+
+        /* 2. The sub-action nodes, in row order (names may repeat) */
+        List<ActivityNode> subActionNodes = new ArrayList<>();
+        for (ActivityNode node : subNodes) {
+            nodesToLayout.add(node);
+            if (node != null) subActionNodes.add(node);
+        }
+
+        /* 3. Create Activity Final Node if it doesn't exist */
+        ActivityFinalNode endNode = null;
+        for (Element child : parentNode.getOwnedElement()) {
+            if (child instanceof ActivityFinalNode) {
+                endNode = (ActivityFinalNode) child;
+                break;
+            }
+        }
+        if (endNode == null) {
+            endNode = (ActivityFinalNode) api.createControlNode(ImportPlan.Kind.FINAL);
+            endNode.setName("End");
+            api.addElement(endNode, parentNode);
+        }
+        nodesToLayout.add(endNode);
+
+        /* Create control flows if they don't exist */
+        createControlFlowsIfNeeded(parentNode, startNode, subActionNodes, endNode);
+        return nodesToLayout;
+    }
+
+    /**
+     * Diagram half of a sub‑diagram: lanes, the diagram itself, one shape per
+     * node reshaped to the planned geometry, and the control‑flow paths.
+     * Also used by {@link SubdiagramMaterializer} to build a lazy diagram.
+     *
+     * @param nodesToLayout nodes index‑aligned with {@code geometry.getNodes()}
+     */
+    D buildSubactionDiagram(StructuredActivityNode parentNode,
+                            List<ActivityNode> nodesToLayout,
+                            DiagramGeometry geometry)
+            throws ReadOnlyElementException {
+
+        /* a copy of the prototype for these lanes, if there is one */
+        Map<String,ActivityPartition> subpartitions = new LinkedHashMap<>();
+        D subDpe = decorations.instantiate(parentNode, geometry, subpartitions);
+
+        if (subDpe == null) {
+            Activity parentAct = findOwningActivity(parentNode);
+            subpartitions = createPartitionsInMainOrder(parentAct, geometry.getLaneOrder());
+        }
+
+        /* Start / End sit in the first lane */
+        if (!subpartitions.isEmpty()) {
+            ActivityPartition first = subpartitions.values().iterator().next();
+            for (ActivityNode node : nodesToLayout)
+                if ((node instanceof InitialNode || node instanceof ActivityFinalNode)
+                        && node.getInPartition().isEmpty())
+                    first.getNode().add(node);
+        }
+
+        if (subDpe == null) {
+            subDpe = api.createDiagram(parentNode, parentNode.getName());
+
+            /* Setup swimlanes from the planned bounds */
+            placePlannedSwimlanes(subDpe, subpartitions, geometry, new HashMap<>());
+        }
+
+        for (ActivityNode node : nodesToLayout) {
+            if (node == null) continue;
+            if (api.find(subDpe, node) == null) {
+                // ALWAYS create the shape directly in the diagram, never in the lane
+                api.createShape(node, subDpe);
+            }
+        }
+
+        /* Layout the nodes – geometry was planned before the session */
+        SubdiagramGridLayouter.applyGeometry(api, nodesToLayout, geometry, subDpe);
+
+        /* Create control flow presentations */
+        populateDiagramPaths(parentNode, subDpe);
+
+        // We leave the diagram closed; user can open it from the browser
+        return subDpe;
+    }
+
+    /** Leaves the sub‑diagram of {@code parent} to be built on first open. */
+    void deferSubactionDiagram(StructuredActivityNode parent, DiagramGeometry geometry) {
+        decorations.defer(parent, geometry);
+    }
+
+    static Activity findOwningActivity(Element e) {
+        Element cur = e;
+        while (cur != null && !(cur instanceof Activity)) cur = cur.getOwner();
+        return (cur instanceof Activity act) ? act : null;
+    }
+
+    private void createControlFlowsIfNeeded(StructuredActivityNode parentNode,
+                                            InitialNode startNode,
+                                            List<ActivityNode> subActionNodes,
+                                            ActivityFinalNode endNode)
+            throws ReadOnlyElementException {
+
+        // Check if flows already exist, by the nodes they join (names may repeat)
+        Set<String> existingFlows = new HashSet<>();
+        for (Element child : parentNode.getOwnedElement()) {
+            if (child instanceof ControlFlow cf && cf.getSource() != null && cf.getTarget() != null)
+                existingFlows.add(flowKey(cf.getSource(), cf.getTarget()));
+        }
+
+        ActivityNode prev = startNode;
+
+        // Create flows: start -> first subaction -> ... -> last subaction -> end
+        for (ActivityNode subAction : subActionNodes) {
+            if (!existingFlows.contains(flowKey(prev, subAction))) {
+                ControlFlow cf = api.createControlFlow();
+                cf.setSource(prev);
+                cf.setTarget(subAction);
+                api.addElement(cf, parentNode);
+            }
+            prev = subAction;
+        }
+
+        // Final flow to end node
+        if (prev != null && endNode != null) {
+            if (!existingFlows.contains(flowKey(prev, endNode))) {
+                ControlFlow cf = api.createControlFlow();
+                cf.setSource(prev);
+                cf.setTarget(endNode);
+                api.addElement(cf, parentNode);
+            }
+        }
+    }
+
+    /** a control flow's ends by element ID */
+    static String flowKey(ActivityNode src, ActivityNode tgt) {
+        return src.getID() + "->" + tgt.getID();
+    }
+
+    /* =============================================================
+                         DIAGRAM POPULATION
+       ============================================================= */
+
+    /** one shape per node (or per node in {@code only}), placed inside its swim‑lane column */
+    private void populateDiagramNodes(Element context,
+                                      D dpe,
+                                      Map<ActivityPartition,S> laneShapes,
+                                      Set<ActivityNode> only)
+            throws ReadOnlyElementException {
+
+        for (ActivityNode node : (only != null) ? only : getNodesOfContext(context)) {
+            // Skip the context node itself (don't show parent in its own diagram)
+            if (node.equals(context)) continue;
+
+            S parentShape = null;
+            for (var e : laneShapes.entrySet())
+                if (e.getKey().getNode().contains(node)) {
+                    parentShape = e.getValue(); break;
+                }
+
+            if (api.find(dpe, node) != null) continue;
+
+            api.createShape(node, (parentShape != null) ? parentShape : dpe);
+        }
+    }
+
+    private void populateDiagramPaths(Element context, D dpe)
+            throws ReadOnlyElementException {
+
+        for (ControlFlow cf : getFlowsOfContext(context)) {
+            S src = api.find(dpe, cf.getSource());
+            S tgt = api.find(dpe, cf.getTarget());
+            if (src != null && tgt != null)
+                api.createPath(cf, src, tgt);
+        }
+        populateObjectFlowPaths(context, dpe);
+    }
+
+    /**
+     * Paths of one page: the control and object flows leaving a node of
+     * {@code shown} whose other end is shown too. Walks the page's own
+     * outgoing edges, so a page costs its size, not the Activity's.
+     */
+    private void populatePagePaths(Set<ActivityNode> shown, D dpe)
+            throws ReadOnlyElementException {
+
+        for (ActivityNode node : shown) {
+            for (ActivityEdge e : node.getOutgoing())
+                if (e instanceof ControlFlow cf && shown.contains(cf.getTarget()))
+                    drawPath(cf, dpe);
+
+            List<InputPin>  ins  = new ArrayList<>();
+            List<OutputPin> outs = new ArrayList<>();
+            ObjectFlowBuilder.collectPins(node, ins, outs);
+            for (OutputPin out : outs)
+                for (ActivityEdge e : out.getOutgoing())
+                    if (e instanceof ObjectFlow of && shown.contains(of.getTarget().getOwner()))
+                        drawPath(of, dpe);
+        }
+    }
+
+    private void drawPath(ActivityEdge edge, D dpe) throws ReadOnlyElementException {
+        S src = api.find(dpe, edge.getSource());
+        S tgt = api.find(dpe, edge.getTarget());
+        if (src != null && tgt != null)
+            api.createPath(edge, src, tgt);
+    }
+
+    /** pin‑to‑pin paths for the context's object flows that are not drawn yet */
+    void populateObjectFlowPaths(Element context, D dpe)
+            throws ReadOnlyElementException {
+
+        for (ObjectFlow of : ObjectFlowBuilder.flowsOf(context)) {
+            if (api.find(dpe, of) != null) continue;
+            S src = api.find(dpe, of.getSource());
+            S tgt = api.find(dpe, of.getTarget());
+            if (src != null && tgt != null)
+                api.createPath(of, src, tgt);
+        }
+    }
+
+    /* =============================================================
+                             PAGED MAIN DIAGRAM
+       ============================================================= */
+
+    /**
+     * Splits the planned main nodes – Start → actions → End, in flow order –
+     * over pages of {@code pageSize} actions, one diagram each. Every page
+     * also shows the last node of the previous page at the top and the first
+     * node of the next page at the bottom, so the control flow visibly
+     * continues across pages.
+     *
+     * @return the first page
+     */
+    private D createPagedDiagrams(Activity activity,
+                                  List<ActivityNode> chain,
+                                  Map<String,ActivityPartition> partitions,
+                                  int pageSize,
+                                  boolean openFirst)
+            throws ReadOnlyElementException {
+
+        List<List<ActivityNode>> pages = new ArrayList<>();
+        List<ActivityNode> page = new ArrayList<>();
+        int actions = 0;
+        for (ActivityNode n : chain) {
+            if (n == null) continue;
+            boolean action = n instanceof StructuredActivityNode || n instanceof CallBehaviorAction;
+            if (action && actions == pageSize) {       // page full ⇒ start the next one
+                pages.add(page);
+                page = new ArrayList<>();
+                actions = 0;
+            }
+            page.add(n);
+            if (action) actions++;
+        }
+        pages.add(page);
+
+        int centerX = (DIAGRAM_WIDTH - LANE_WIDTH * partitions.size()) / 2;
+        D first = null;
+
+        for (int p = 0; p < pages.size(); p++) {
+            Set<ActivityNode> shown = new LinkedHashSet<>();
+            if (p > 0) {
+                List<ActivityNode> prev = pages.get(p - 1);
+                shown.add(prev.get(prev.size() - 1));         // continued from
+            }
+            shown.addAll(pages.get(p));
+            if (p < pages.size() - 1) shown.add(pages.get(p + 1).get(0));   // continues at
+
+            D dpe = createDiagram(activity,
+                                  activity.getName() + " (" + (p + 1) + "/" + pages.size() + ")",
+                                  openFirst && p == 0);
+            if (first == null) first = dpe;
+
+            /* lanes just tall enough for this page */
+            int height = 0;
+            for (ActivityNode n : shown) height += DiagramGridLayouter.nodeHeight(n) + Y_STEP;
+            height += 2 * Y_STEP;
+
+            List<String> order = new ArrayList<>(partitions.keySet());
+            Map<String,Rectangle> laneBounds = new LinkedHashMap<>();
+            for (int i = 0; i < order.size(); i++)
+                laneBounds.put(order.get(i),
+                        new Rectangle(centerX + i * LANE_WIDTH, START_Y - 50, LANE_WIDTH, height));
+            DiagramGeometry lanes = new DiagramGeometry(order, laneBounds,
+                    new Rectangle(centerX, START_Y - 50, LANE_WIDTH * order.size(), height),
+                    List.of());
+
+            Map<ActivityPartition,S> laneShapes = new HashMap<>();
+            placePlannedSwimlanes(dpe, partitions, lanes, laneShapes);
+
+            populateDiagramNodes(activity, dpe, laneShapes, shown);
+            DiagramGridLayouter.layout(api, shown, dpe, partitions, START_Y, Y_STEP);
+            populatePagePaths(shown, dpe);
+        }
+        return first;
+    }
+
+    /* =============================================================
+                           SHAPE BUILDERS
+       ============================================================= */
+
+    private D createDiagram(Namespace owner, String name, boolean open)
+            throws ReadOnlyElementException {
+        D dpe = api.createDiagram(owner, name);
+        if (open) api.open(dpe);
+        return dpe;
+    }
+
+    private void buildAndPlaceSwimlanes(D dpe,
+                                        Map<String,ActivityPartition> parts,
+                                        Map<String,Integer> actionsPerActor,
+                                        int startX, int startY,
+                                        Map<ActivityPartition,S> laneShapes)
+            throws ReadOnlyElementException {
+
+        List<ActivityPartition> vertical = new ArrayList<>(parts.values());
+        S wrapper = api.createSwimlanes(vertical, dpe);
+
+        int idx = 0, maxRows = 1;
+        for (String actor : parts.keySet()) {
+            S colShape = api.find(dpe, parts.get(actor));
+
+            int rows = actionsPerActor.getOrDefault(actor, 1);
+            maxRows = Math.max(maxRows, rows);
+
+            int colX = startX + idx * LANE_WIDTH;
+            int colH = rows * (3 * ROW_HEIGHT);
+
+            api.reshape(colShape, new Rectangle(colX, startY, LANE_WIDTH, colH));
+
+            laneShapes.put(parts.get(actor), colShape);
+            idx++;
+        }
+
+        api.reshape(wrapper,
+                new Rectangle(startX, startY,
+                              LANE_WIDTH * vertical.size(),
+                              maxRows * 3 * ROW_HEIGHT));
+    }
+
+    /** planned variant: lanes are reshaped to the bounds of a {@link DiagramGeometry} */
+    void placePlannedSwimlanes(D dpe,
+                               Map<String,ActivityPartition> parts,
+                               DiagramGeometry geometry,
+                               Map<ActivityPartition,S> laneShapes)
+            throws ReadOnlyElementException {
+
+        List<ActivityPartition> vertical = new ArrayList<>(parts.values());
+        S wrapper = api.createSwimlanes(vertical, dpe);
+
+        for (String actor : parts.keySet()) {
+            S colShape = api.find(dpe, parts.get(actor));
+            api.reshape(colShape, geometry.getLaneBounds().get(actor));
+            laneShapes.put(parts.get(actor), colShape);
+        }
+
+        api.reshape(wrapper, geometry.getFrameBounds());
+    }
+
+    /* =============================================================
+                        LOW‑LEVEL NODE FACTORIES
+       ============================================================= */
+    StructuredActivityNode createMainAction(Activity owner,
+                                            ActivityData d,
+                                            ActionTypeChooser.ActionType t)
+            throws ReadOnlyElementException {
+
+        StructuredActivityNode n = api.createStructuredNode();
+        n.setName(d.getName());
+        api.addElement(n, owner);
+        addPins(n, d);
+        return n;
+    }
+
+    ActivityNode createSubAction(ActivityNode parent,
+                                 ActivityData d,
+                                 ActionTypeChooser.ActionType t)
+            throws ReadOnlyElementException {
+
+        // Find the partition for this subaction's actor
+        Activity owningActivity = findOwningActivity(parent);
+        ActivityPartition partition = null;
+        if (owningActivity != null) {
+            String actorName = ActivityData.actorName(d.getActor());
+            for (ActivityPartition part : owningActivity.getPartition()) {
+                if (part.getName().equals(actorName)) {
+                    partition = part;
+                    break;
+                }
+            }
+        }
+
+        if (t == ActionTypeChooser.ActionType.CALL_BEHAVIOR) {
+            CallBehaviorAction c = api.createCallBehaviorAction();
+            c.setName(d.getName());
+            api.addElement(c, parent);
+            addPins(c, d);
+            decorations.bindBehavior(c);
+
+            // Assign to partition
+            if (partition != null) {
+                partition.getNode().add(c);
+            }
+
+            return c;
+        } else {
+            StructuredActivityNode s = api.createStructuredNode();
+            s.setName(d.getName());
+            api.addElement(s, parent);
+            addPins(s, d);
+
+            // Assign to partition
+            if (partition != null) {
+                partition.getNode().add(s);
+            }
+
+            return s;
+        }
+    }
+
+    private void addPins(StructuredActivityNode n, ActivityData d)
+            throws ReadOnlyElementException {
+
+        for (String in : d.getInputs()) {
+            InputPin p = api.createInputPin(); decorations.namePin(p, in);
+            api.addElement(p, n); n.getStructuredNodeInput().add(p);
+        }
+        for (String out : d.getOutputs()) {
+            OutputPin p = api.createOutputPin(); decorations.namePin(p, out);
+            api.addElement(p, n); n.getStructuredNodeOutput().add(p);
+        }
+    }
+
+    private void addPins(CallBehaviorAction n, ActivityData d)
+            throws ReadOnlyElementException {
+
+        for (String in : d.getInputs()) {
+            InputPin p = api.createInputPin(); decorations.namePin(p, in);
+            api.addElement(p, n); n.getArgument().add(p);
+        }
+        for (String out : d.getOutputs()) {
+            OutputPin p = api.createOutputPin(); decorations.namePin(p, out);
+            api.addElement(p, n); n.getResult().add(p);
+        }
+    }
+
+    /* =============================================================
+                       GENERIC NODE / EDGE ACCESSORS
+       ============================================================= */
+    static Collection<ActivityNode> getNodesOfContext(Element ctx) {
+        if (ctx instanceof Activity act)                return act.getNode();
+        if (ctx instanceof StructuredActivityNode san) {
+            List<ActivityNode> l = new ArrayList<>();
+            for (Element e : san.getOwnedElement())
+                if (e instanceof ActivityNode n) l.add(n);
+            return l;
+        }
+        return Collections.emptyList();
+    }
+
+    static Collection<ControlFlow> getFlowsOfContext(Element ctx) {
+        List<ControlFlow> out = new ArrayList<>();
+        if (ctx instanceof Activity act)
+            act.getEdge().stream()
+                   .filter(e -> e instanceof ControlFlow)
+                   .map(e -> (ControlFlow)e)
+                   .forEach(out::add);
+        else if (ctx instanceof StructuredActivityNode san)
+            san.getOwnedElement().stream()
+                   .filter(e -> e instanceof ControlFlow)
+                   .map(e -> (ControlFlow)e)
+                   .forEach(out::add);
+        return out;
+    }
+}
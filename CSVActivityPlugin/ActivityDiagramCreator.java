@@ -1,670 +1,401 @@
-package com.example.csvactivityplugin;
-
-import com.nomagic.magicdraw.core.Project;
-import com.nomagic.magicdraw.openapi.uml.*;
-import com.nomagic.magicdraw.ui.dialogs.MDDialogParentProvider;
-import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
-import com.nomagic.magicdraw.uml.symbols.PresentationElement;
-import com.nomagic.magicdraw.uml.symbols.shapes.ShapeElement;
-import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.*;
-import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
-import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
-import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
-import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
-import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Diagram;
-import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
-import com.nomagic.uml2.ext.magicdraw.mdprofiles.*;
-import com.nomagic.uml2.ext.jmi.helpers.StereotypesHelper;
-import com.nomagic.uml2.impl.ElementsFactory;
-
-import java.awt.Frame;
-import java.awt.Rectangle;
-import java.util.*;
-
-/**
- * CSV‑to‑Activity importer that creates a main Activity diagram
- * plus one diagram for every StructuredActivityNode that has sub‑actions.
- */
-public class ActivityDiagramCreator {
-
-    /* ------------- layout constants ------------ */
-    private static final int DIAGRAM_WIDTH = 1200;
-    private static final int START_Y       = 100;
-    private static final int LANE_WIDTH    = 480;
-    private static final int ROW_HEIGHT    = 225;
-    private static final int Y_STEP        = 60;
-
-    /* =============================================================
-                             PUBLIC ENTRY
-       ============================================================= */
-    @SuppressWarnings("deprecation")
-	public void createActivityDiagram(Project project, List<ActivityData> rows)
-            throws Exception {
-
-        /* choose action‑type mappings */
-        Frame frame = MDDialogParentProvider.getProvider().getDialogParent();
-        Map<String,ActionTypeChooser.ActionType> actionTypes =
-                ActionTypeChooser.chooseActionTypes(frame, rows);
-        if (actionTypes == null) throw new Exception("Cancelled.");
-
-        /* run inside a single MagicDraw session */
-        SessionManager sm = SessionManager.getInstance();
-        sm.createSession(project, "Import CSV as Activity Diagram");
-
-        try {
-            Element parentPkg = DiagramParentChooser.chooseParent(project);
-            if (parentPkg == null) throw new Exception("No parent chosen.");
-
-            /* -------- main model root -------- */
-            Activity rootActivity = createActivityElement(project);
-            if (rootActivity.getOwner() != parentPkg)
-                ModelElementsManager.getInstance().moveElement(rootActivity, parentPkg);
-
-            /* -------- partitions (lanes) for the main diagram -------- */
-            Map<String,ActivityPartition> partitions =
-                    createActivityPartitions(project, rootActivity, rows);
-
-            /* -------- main activity diagram -------- */
-            DiagramPresentationElement mainDpe =
-                    createAndOpenDiagram(project, rootActivity);
-
-            int centerX = (DIAGRAM_WIDTH - LANE_WIDTH * partitions.size()) / 2;
-
-            /* one diagram ⇒ its own laneShapes map */
-            Map<ActivityPartition,ShapeElement> laneShapes = new HashMap<>();
-
-            buildAndPlaceSwimlanes(mainDpe, partitions,
-                                   countActionsPerActor(rootActivity),
-                                   centerX, START_Y - 50,
-                                   laneShapes);
-
-            /* -------- model nodes & edges -------- */
-            Map<String,StructuredActivityNode> mainActionMap =
-                    createActivityNodes(project, rootActivity, rows,
-                                        actionTypes, partitions);
-
-            populateDiagramNodes(rootActivity, mainDpe, laneShapes);
-
-            DiagramGridLayouter.layout(rootActivity, mainDpe,
-                                       partitions, START_Y, Y_STEP);
-
-            populateDiagramPaths(rootActivity, mainDpe);
-
-            /* -------- sub‑action diagrams -------- */
-            createSubactionDiagrams(project, rows,
-                                    mainActionMap, actionTypes);
-
-            sm.closeSession(project);
-        } catch (Exception ex) {
-            sm.cancelSession(project);
-            throw ex;
-        }
-    }
-
-    /* =============================================================
-                         MAIN‑DIAGRAM HELPERS
-       ============================================================= */
-
-    private Activity createActivityElement(Project project)
-            throws ReadOnlyElementException {
-
-        Activity act = project.getElementsFactory().createActivityInstance();
-        act.setName("Imported Activities");
-        ModelElementsManager.getInstance().addElement(act, project.getPrimaryModel());
-        return act;
-    }
-
-    /** top‑level partitions: only actors from non‑sub rows */
-    private Map<String,ActivityPartition> createActivityPartitions(Project project,
-                                                                   Activity activity,
-                                                                   List<ActivityData> rows)
-            throws ReadOnlyElementException {
-
-        ElementsFactory f   = project.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-        Map<String,ActivityPartition> parts = new LinkedHashMap<>();
-
-        Set<String> actors = new LinkedHashSet<>();
-        for (ActivityData d : rows)
-            if (!d.isSubAction()) actors.add(actorName(d.getActor()));
-
-        /* optional SysML «allocateActivityPartition» */
-        Profile sysml  = StereotypesHelper.getProfile(project, "SysML");
-        Stereotype stereo = (sysml == null)
-                          ? null
-                          : StereotypesHelper.getStereotype(project,
-                                                            "AllocateActivityPartition", sysml);
-
-        for (String actor : actors) {
-            ActivityPartition p = f.createActivityPartitionInstance();
-            p.setName(actor);  p.setDimension(true);
-            mgr.addElement(p, activity);   activity.getPartition().add(p);
-            if (stereo != null) StereotypesHelper.addStereotype(p, stereo);
-            parts.put(actor, p);
-        }
-        return parts;
-    }
-
-    private static String actorName(String raw) {
-        return (raw == null || raw.trim().isEmpty()) ? "<Unassigned>" : raw.trim();
-    }
-
-    /* -------- per‑diagram counting helper -------- */
-    private Map<String,Integer> countActionsPerActor(Element ctx) {
-        Map<String,Integer> map = new HashMap<>();
-        for (ActivityNode n : getNodesOfContext(ctx)) {
-            if (!n.getInPartition().isEmpty()) {
-                String actor = n.getInPartition().iterator().next().getName();
-                map.merge(actor, 1, Integer::sum);
-            }
-        }
-        return map;
-    }
-
-    /* -------- model node creation (returns map main action name → SAN) */
-    private Map<String,StructuredActivityNode> createActivityNodes(Project project,
-                                         Activity activity,
-                                         List<ActivityData> rows,
-                                         Map<String,ActionTypeChooser.ActionType> actionTypes,
-                                         Map<String,ActivityPartition> partitions)
-            throws ReadOnlyElementException {
-
-        ElementsFactory f   = project.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-
-        InitialNode start = f.createInitialNodeInstance();
-        start.setName("Start");
-        mgr.addElement(start, activity);
-        partitions.values().iterator().next().getNode().add(start);
-        ActivityNode prev = start;
-
-        Map<String,StructuredActivityNode> mainMap = new HashMap<>();
-
-        for (ActivityData d : rows) {
-            ActionTypeChooser.ActionType t =
-                    actionTypes.getOrDefault(d.getName(),
-                                             ActionTypeChooser.ActionType.STRUCTURED_ACTIVITY);
-            String actor = actorName(d.getActor());
-            ActivityPartition lane = partitions.get(actor);
-
-            if (d.isSubAction()) {
-                StructuredActivityNode parent = mainMap.get(d.getParentName());
-                if (parent != null) createSubAction(project, parent, d, t);
-            } else {
-                StructuredActivityNode main =
-                        createMainAction(project, activity, d, t);
-                if (lane != null) lane.getNode().add(main);
-                mainMap.put(d.getName(), main);
-
-                ControlFlow cf = f.createControlFlowInstance();
-                cf.setSource(prev); cf.setTarget(main);
-                mgr.addElement(cf, activity);
-                prev = main;
-            }
-        }
-
-        ActivityFinalNode end = f.createActivityFinalNodeInstance();
-        end.setName("End");
-        mgr.addElement(end, activity);
-        partitions.values().iterator().next().getNode().add(end);
-
-        ControlFlow tail = f.createControlFlowInstance();
-        tail.setSource(prev); tail.setTarget(end);
-        mgr.addElement(tail, activity);
-
-        return mainMap;
-    }
-
-    /* =============================================================
-                        SUB‑DIAGRAM GENERATION
-       ============================================================= */
-
-    private void createSubactionDiagrams(Project project,
-                                         List<ActivityData> rows,
-                                         Map<String,StructuredActivityNode> mainActionMap,
-                                         Map<String,ActionTypeChooser.ActionType> actionTypes)
-            throws ReadOnlyElementException {
-
-        /* bucket subactions by their parent action name */
-        Map<String,List<ActivityData>> byParent = new HashMap<>();
-        for (ActivityData d : rows)
-            if (d.isSubAction())
-                byParent.computeIfAbsent(d.getParentName(), k -> new ArrayList<>()).add(d);
-
-        for (var e : byParent.entrySet()) {
-            StructuredActivityNode parentSAN = mainActionMap.get(e.getKey());
-            if (parentSAN == null) continue;
-
-            createSubactionDiagram(project, parentSAN,
-                                   e.getValue(), actionTypes);
-        }
-    }
-
-    private void createSubactionDiagram(Project project,
-                                        StructuredActivityNode parentNode,
-                                        List<ActivityData> subRows,
-                                        Map<String,ActionTypeChooser.ActionType> actionTypes)
-            throws ReadOnlyElementException {
-
-        ElementsFactory f = project.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-
-        Activity parentAct = findOwningActivity(parentNode);   // already in your code
-        Map<String,ActivityPartition> subpartitions =
-                createPartitionsInMainOrder(project, parentAct, subRows);
-     
-
-        Diagram subDiag =
-                ModelElementsManager.getInstance()
-                    .createDiagram("SysML Activity Diagram", parentNode);
-        subDiag.setName(parentNode.getName());
-        DiagramPresentationElement subDpe = project.getDiagram(subDiag);
-        
-        /* Setup swimlanes */
-        int centerX = (DIAGRAM_WIDTH - LANE_WIDTH * subpartitions.size()) / 2;
-        Map<ActivityPartition,ShapeElement> laneShapes = new HashMap<>();
-
-        buildAndPlaceSwimlanes(subDpe, subpartitions,
-                               countActionsPerActor(parentNode),
-                               centerX, START_Y - 50,
-                               laneShapes);
-
-        /* Build the list of nodes to layout */
-        List<ActivityNode> nodesToLayout = new ArrayList<>();
-        
-        /* 1. Create Initial Node if it doesn't exist */
-        InitialNode startNode = null;
-        for (Element child : parentNode.getOwnedElement()) {
-            if (child instanceof InitialNode) {
-                startNode = (InitialNode) child;
-                break;
-            }
-        }
-        if (startNode == null) {
-            startNode = f.createInitialNodeInstance();
-            startNode.setName("Start");
-            mgr.addElement(startNode, parentNode);
-            // Add to first partition
-            if (!subpartitions.isEmpty()) {
-                subpartitions.values().iterator().next().getNode().add(startNode);
-            }
-        }
-        nodesToLayout.add(startNode);
-        
-        /* 2. Collect all sub-action nodes (already created in createActivityNodes) */
-        List<ActivityNode> subActionNodes = new ArrayList<>();
-        for (ActivityData subData : subRows) {
-            // Find the existing sub-action node by name
-            for (Element child : parentNode.getOwnedElement()) {
-                if (child instanceof ActivityNode node && 
-                    !node.equals(parentNode) &&
-                    node.getName() != null && 
-                    node.getName().equals(subData.getName())) {
-                    subActionNodes.add(node);
-                    break;
-                }
-            }
-        }
-        nodesToLayout.addAll(subActionNodes);
-        
-        /* 3. Create Activity Final Node if it doesn't exist */
-        ActivityFinalNode endNode = null;
-        for (Element child : parentNode.getOwnedElement()) {
-            if (child instanceof ActivityFinalNode) {
-                endNode = (ActivityFinalNode) child;
-                break;
-            }
-        }
-        if (endNode == null) {
-            endNode = f.createActivityFinalNodeInstance();
-            endNode.setName("End");
-            mgr.addElement(endNode, parentNode);
-            // Add to first partition
-            if (!subpartitions.isEmpty()) {
-                subpartitions.values().iterator().next().getNode().add(endNode);
-            }
-        }
-        nodesToLayout.add(endNode);
-        
-        /* Create control flows if they don't exist */
-        createControlFlowsIfNeeded(project, parentNode, startNode, subActionNodes, endNode);
-
-
-        PresentationElementsManager pem = PresentationElementsManager.getInstance();
-
-        for (ActivityNode node : nodesToLayout) {
-            if (subDpe.findPresentationElement(node, ShapeElement.class) == null) {
-                // ALWAYS create the shape directly in the diagram, never in the lane
-                pem.createShapeElement(node, subDpe);
-            }
-        }
-
-        /* Layout the nodes */
-        SubdiagramGridLayouter.layoutNodeList(nodesToLayout, subDpe, subpartitions, START_Y, Y_STEP);
-        
-        /* Create control flow presentations */
-        populateDiagramPaths(parentNode, subDpe);
-        
-        // We leave the diagram closed; user can open it from the browser
-    }
-    
-    /**
-     * Create brand‑new partitions for the sub‑diagram **in the same order**
-     * as they appear in the parent Activity (main diagram), then append any
-     * extra actors found only in the sub‑rows.
-     *
-     * @param project         your current Project
-     * @param parentActivity  the Activity that owns the parent SAN
-     * @param subRows         CSV rows for this sub‑diagram
-     * @return LinkedHashMap <actorName , new ActivityPartition>
-     */
-    private Map<String,ActivityPartition> createPartitionsInMainOrder(
-            Project project,
-            Activity parentActivity,
-            List<ActivityData> subRows) throws ReadOnlyElementException {
-
-        ElementsFactory      factory = project.getElementsFactory();
-        ModelElementsManager mgr     = ModelElementsManager.getInstance();
-
-        /* 1 — which actors do we need in this sub‑diagram? */
-        LinkedHashSet<String> actorsNeeded = new LinkedHashSet<>();
-        for (ActivityData row : subRows)
-            actorsNeeded.add(actorName(row.getActor()));   // actorName(...) already exists in this class
-
-        /* 2 — preserve the main‑diagram order first */
-        List<String> finalOrder = new ArrayList<>();
-        for (ActivityPartition p : parentActivity.getPartition()) {
-            String name = p.getName();
-            if (actorsNeeded.contains(name)) {
-                finalOrder.add(name);
-                actorsNeeded.remove(name);    // so we don’t add twice
-            }
-        }
-
-        /* 3 — append any brand‑new actors that weren’t in the main diagram */
-        finalOrder.addAll(actorsNeeded);
-
-        /* 4 — create fresh partitions following that exact order */
-        Map<String,ActivityPartition> out = new LinkedHashMap<>();
-        for (String actor : finalOrder) {
-            ActivityPartition p = factory.createActivityPartitionInstance();  // API you already use elsewhere
-            p.setName(actor);
-            p.setDimension(true);               // vertical swim‑lane
-
-            mgr.addElement(p, parentActivity);  // model ownership
-            parentActivity.getPartition().add(p);
-
-            out.put(actor, p);
-        }
-        return out;
-    }
-
-
-    private Activity findOwningActivity(Element e) {
-        Element cur = e;
-        while (cur != null && !(cur instanceof Activity)) cur = cur.getOwner();
-        return (cur instanceof Activity act) ? act : null;
-    }
-
-    private void createControlFlowsIfNeeded(Project project,
-                                          StructuredActivityNode parentNode,
-                                          InitialNode startNode,
-                                          List<ActivityNode> subActionNodes,
-                                          ActivityFinalNode endNode)
-            throws ReadOnlyElementException {
-        
-        ElementsFactory f = project.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-        
-        // Check if flows already exist by building a set of existing connections
-        Set<String> existingFlows = new HashSet<>();
-        for (Element child : parentNode.getOwnedElement()) {
-            if (child instanceof ControlFlow cf) {
-                String flowKey = cf.getSource().getName() + "->" + cf.getTarget().getName();
-                existingFlows.add(flowKey);
-            }
-        }
-        
-        ActivityNode prev = startNode;
-        
-        // Create flows: start -> first subaction -> ... -> last subaction -> end
-        for (ActivityNode subAction : subActionNodes) {
-            String flowKey = prev.getName() + "->" + subAction.getName();
-            if (!existingFlows.contains(flowKey)) {
-                ControlFlow cf = f.createControlFlowInstance();
-                cf.setSource(prev);
-                cf.setTarget(subAction);
-                mgr.addElement(cf, parentNode);
-            }
-            prev = subAction;
-        }
-        
-        // Final flow to end node
-        if (prev != null && endNode != null) {
-            String flowKey = prev.getName() + "->" + endNode.getName();
-            if (!existingFlows.contains(flowKey)) {
-                ControlFlow cf = f.createControlFlowInstance();
-                cf.setSource(prev);
-                cf.setTarget(endNode);
-                mgr.addElement(cf, parentNode);
-            }
-        }
-    }
-
-    /* =============================================================
-                         DIAGRAM POPULATION
-       ============================================================= */
-
-    /** one shape per node, placed inside its swim‑lane column */
-    private void populateDiagramNodes(Element context,
-                                      DiagramPresentationElement dpe,
-                                      Map<ActivityPartition,ShapeElement> laneShapes)
-            throws ReadOnlyElementException {
-
-        PresentationElementsManager pem = PresentationElementsManager.getInstance();
-
-        for (ActivityNode node : getNodesOfContext(context)) {
-            // Skip the context node itself (don't show parent in its own diagram)
-            if (node.equals(context)) continue;
-
-            ShapeElement parentShape = null;
-            for (var e : laneShapes.entrySet())
-                if (e.getKey().getNode().contains(node)) {
-                    parentShape = e.getValue(); break;
-                }
-
-            if (dpe.findPresentationElement(node, ShapeElement.class) != null) continue;
-
-            pem.createShapeElement(node,
-                    (parentShape != null) ? parentShape : dpe);
-        }
-    }
-
-    private void populateDiagramPaths(Element context,
-                                      DiagramPresentationElement dpe)
-            throws ReadOnlyElementException {
-
-        PresentationElementsManager pem = PresentationElementsManager.getInstance();
-        for (ControlFlow cf : getFlowsOfContext(context)) {
-            PresentationElement src =
-                    dpe.findPresentationElement(cf.getSource(), PresentationElement.class);
-            PresentationElement tgt =
-                    dpe.findPresentationElement(cf.getTarget(), PresentationElement.class);
-            if (src != null && tgt != null)
-                pem.createPathElement(cf, src, tgt);
-        }
-    }
-
-    /* =============================================================
-                           SHAPE BUILDERS
-       ============================================================= */
-
-    private DiagramPresentationElement createAndOpenDiagram(Project project,
-                                                            Activity activity)
-            throws ReadOnlyElementException {
-
-        Diagram dgm = ModelElementsManager.getInstance()
-                          .createDiagram("SysML Activity Diagram", activity);
-        dgm.setName("Imported Activities");
-        DiagramPresentationElement dpe = project.getDiagram(dgm);
-        dpe.open();
-        return dpe;
-    }
-
-    private void buildAndPlaceSwimlanes(DiagramPresentationElement dpe,
-                                        Map<String,ActivityPartition> parts,
-                                        Map<String,Integer> actionsPerActor,
-                                        int startX, int startY,
-                                        Map<ActivityPartition,ShapeElement> laneShapes)
-            throws ReadOnlyElementException {
-
-        PresentationElementsManager pem = PresentationElementsManager.getInstance();
-        List<ActivityPartition> vertical = new ArrayList<>(parts.values());
-
-        ShapeElement wrapper = (ShapeElement)
-                pem.createSwimlane(Collections.emptyList(), vertical, dpe);
-
-        int idx = 0, maxRows = 1;
-        for (String actor : parts.keySet()) {
-            ShapeElement colShape = (ShapeElement)
-                    dpe.findPresentationElement(parts.get(actor), ShapeElement.class);
-
-            int rows = actionsPerActor.getOrDefault(actor, 1);
-            maxRows = Math.max(maxRows, rows);
-
-            int colX = startX + idx * LANE_WIDTH;
-            int colH = rows * (3 * ROW_HEIGHT);
-
-            pem.reshapeShapeElement(colShape,
-                    new Rectangle(colX, startY, LANE_WIDTH, colH));
-
-            laneShapes.put(parts.get(actor), colShape);
-            idx++;
-        }
-
-        pem.reshapeShapeElement(wrapper,
-                new Rectangle(startX, startY,
-                              LANE_WIDTH * vertical.size(),
-                              maxRows * 3 * ROW_HEIGHT));
-    }
-
-    /* =============================================================
-                        LOW‑LEVEL NODE FACTORIES
-       ============================================================= */
-    private StructuredActivityNode createMainAction(Project p, Activity owner,
-                                                    ActivityData d,
-                           ActionTypeChooser.ActionType t) throws ReadOnlyElementException {
-
-        ElementsFactory f = p.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-        StructuredActivityNode n = f.createStructuredActivityNodeInstance();
-        n.setName(d.getName());
-        mgr.addElement(n, owner);
-        addPins(n, d, mgr, f);
-        return n;
-    }
-
-    private ActivityNode createSubAction(Project p, ActivityNode parent,
-                                         ActivityData d,
-                           ActionTypeChooser.ActionType t) throws ReadOnlyElementException {
-
-        ElementsFactory f = p.getElementsFactory();
-        ModelElementsManager mgr = ModelElementsManager.getInstance();
-
-        // Find the partition for this subaction's actor
-        Activity owningActivity = findOwningActivity(parent);
-        ActivityPartition partition = null;
-        if (owningActivity != null) {
-            String actorName = actorName(d.getActor());
-            for (ActivityPartition part : owningActivity.getPartition()) {
-                if (part.getName().equals(actorName)) {
-                    partition = part;
-                    break;
-                }
-            }
-        }
-
-        if (t == ActionTypeChooser.ActionType.CALL_BEHAVIOR) {
-            CallBehaviorAction c = f.createCallBehaviorActionInstance();
-            c.setName(d.getName());
-            mgr.addElement(c, parent);
-            addPins(c, d, mgr, f);
-            
-            // Assign to partition
-            if (partition != null) {
-                partition.getNode().add(c);
-            }
-            
-            return c;
-        } else {
-            StructuredActivityNode s = f.createStructuredActivityNodeInstance();
-            s.setName(d.getName());
-            mgr.addElement(s, parent);
-            addPins(s, d, mgr, f);
-            
-            // Assign to partition
-            if (partition != null) {
-                partition.getNode().add(s);
-            }
-            
-            return s;
-        }
-    }
-
-    private void addPins(StructuredActivityNode n, ActivityData d,
-                         ModelElementsManager mgr, ElementsFactory f)
-            throws ReadOnlyElementException {
-
-        for (String in : d.getInputs()) {
-            InputPin p = f.createInputPinInstance(); p.setName(in);
-            mgr.addElement(p, n); n.getStructuredNodeInput().add(p);
-        }
-        for (String out : d.getOutputs()) {
-            OutputPin p = f.createOutputPinInstance(); p.setName(out);
-            mgr.addElement(p, n); n.getStructuredNodeOutput().add(p);
-        }
-    }
-
-    private void addPins(CallBehaviorAction n, ActivityData d,
-                         ModelElementsManager mgr, ElementsFactory f)
-            throws ReadOnlyElementException {
-
-        for (String in : d.getInputs()) {
-            InputPin p = f.createInputPinInstance(); p.setName(in);
-            mgr.addElement(p, n); n.getArgument().add(p);
-        }
-        for (String out : d.getOutputs()) {
-            OutputPin p = f.createOutputPinInstance(); p.setName(out);
-            mgr.addElement(p, n); n.getResult().add(p);
-        }
-    }
-
-    /* =============================================================
-                       GENERIC NODE / EDGE ACCESSORS
-       ============================================================= */
-    private Collection<ActivityNode> getNodesOfContext(Element ctx) {
-        if (ctx instanceof Activity act)                return act.getNode();
-        if (ctx instanceof StructuredActivityNode san) {
-            List<ActivityNode> l = new ArrayList<>();
-            for (Element e : san.getOwnedElement())
-                if (e instanceof ActivityNode n) l.add(n);
-            return l;
-        }
-        return Collections.emptyList();
-    }
-
-    private Collection<ControlFlow> getFlowsOfContext(Element ctx) {
-        List<ControlFlow> out = new ArrayList<>();
-        if (ctx instanceof Activity act)
-            act.getEdge().stream()
-                   .filter(e -> e instanceof ControlFlow)
-                   .map(e -> (ControlFlow)e)
-                   .forEach(out::add);
-        else if (ctx instanceof StructuredActivityNode san)
-            san.getOwnedElement().stream()
-                   .filter(e -> e instanceof ControlFlow)
-                   .map(e -> (ControlFlow)e)
-                   .forEach(out::add);
-        return out;
-    }
-}
\ No newline at end of file
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.*;
+import com.nomagic.magicdraw.ui.dialogs.MDDialogParentProvider;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.magicdraw.uml.symbols.PresentationElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.mdprofiles.*;
+import com.nomagic.uml2.ext.jmi.helpers.StereotypesHelper;
+
+import java.awt.Frame;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * CSV‑to‑Activity importer that creates a main Activity diagram
+ * plus one diagram for every StructuredActivityNode that has sub‑actions –
+ * or, for a sheet grouped by an Activity/Process column, one such Activity
+ * per group.
+ */
+public class ActivityDiagramCreator {
+
+    /* pin type lookup for the running import (null ⇒ pins keep the raw cell text) */
+    private PinTypeResolver pinTypes;
+
+    /* behavior lookup for call actions (null ⇒ call actions stay unbound) */
+    private BehaviorResolver behaviors;
+
+    /* lane → represented Block/Actor (null ⇒ lanes only copy it from a lane of the same name) */
+    private ActorResolver actors;
+
+    /* Activity → lane name → «represents» of its lanes, collected on first use */
+    private final Map<Activity,Map<String,Element>> represented = new HashMap<>();
+
+    /* sub‑diagram prototypes to copy (null ⇒ every sub‑diagram is built from scratch) */
+    private SubdiagramTemplates templates;
+
+    /* shared actor and pin strings of the rows being imported */
+    private NameDictionary names = new NameDictionary();
+
+    /** Uses the names of the parse the rows come from, see {@link ExcelParser#getNames()}. */
+    public void setNames(NameDictionary names) {
+        this.names = names;
+    }
+
+    /* results of the running import, for its completion message */
+    private ImportReport report = new ImportReport();
+
+    /* workbook the rows come from, for action type presets (null ⇒ project presets only) */
+    private String workbook;
+
+    public void setWorkbook(String workbook) {
+        this.workbook = workbook;
+    }
+
+    /* =============================================================
+                             PUBLIC ENTRY
+       ============================================================= */
+    public ImportReport createActivityDiagram(Project project, List<ActivityData> rows)
+            throws Exception {
+        return createActivityDiagram(project, rows, new ImportOptions());
+    }
+
+    /**
+     * @return what the import did, for the completion message
+     */
+    @SuppressWarnings("deprecation")
+	public ImportReport createActivityDiagram(Project project, List<ActivityData> rows,
+	                                          ImportOptions options)
+            throws Exception {
+
+        report = new ImportReport();
+        represented.clear();
+
+        /* choose action‑type mappings */
+        Frame frame = MDDialogParentProvider.getProvider().getDialogParent();
+        ActionTypeChooser.ActionType[] actionTypes =
+                ActionTypeChooser.chooseActionTypes(frame, rows, workbook, project.getName(),
+                                                    !options.isReviewActionTypes(), report);
+        if (actionTypes == null) throw new Exception("Cancelled.");
+        for (String w : report.getWarnings()) log("Warning: " + w);      // a preset that was ignored
+
+        /* everything that only depends on the rows – nodes, flows, lanes and
+           geometry – is compiled before the session opens (cycles in the
+           Predecessor/Successor columns are refused here); the session then
+           just applies the plan. Grouped sheets get one plan per Activity,
+           compiled in parallel */
+        Map<String,List<ActivityData>> groups = ImportGroups.of(rows, options);
+        List<ImportPlan> plans = ImportGroups.plan(groups, actionTypes, options);
+        int elements = 0;
+        for (ImportPlan plan : plans) {
+            for (String w : plan.getWarnings()) warn(w);
+            elements += ImportPreview.elementCount(plan);
+        }
+        if (groups.size() > 1)
+            log("Importing " + groups.size() + " activities: " + groups.keySet());
+
+        /* -------- every dialog comes first, so the build runs unattended -------- */
+        Element parentPkg = DiagramParentChooser.chooseParent(project);
+        if (parentPkg == null) throw new Exception("No parent chosen.");
+
+        if (options.isIncrementalUpdate()) {
+            Activity existing = IncrementalImporter.findImported(parentPkg);
+            String why = (existing != null) ? IncrementalImporter.unsupported(existing, rows, options) : null;
+            if (why != null) throw new Exception(why);
+        }
+
+        com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package typesPkg =
+                options.isTypedPins() && options.isCreateMissingTypes()
+              ? DiagramParentChooser.choosePackage(project, "Select Package for New Pin Types")
+              : null;
+        com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package actorScope =
+                options.isResolveActors() && options.isScopeActorSearch()
+              ? DiagramParentChooser.choosePackage(project, "Select Package Holding the Actors")
+              : null;
+
+        /* run inside a single MagicDraw session (or bulk batches of them),
+           under a cancellable progress dialog; cancelling rolls it back */
+        BulkImportSession session =
+                new BulkImportSession(project, "Import CSV as Activity Diagram", options.isBulkImport());
+        DiagramPresentationElement[] mainDpe = new DiagramPresentationElement[1];
+        long started = System.currentTimeMillis();
+        ImportEvents.Import event = new ImportEvents.Import();
+        event.begin();
+
+        try {
+            /* the session lives on the progress worker, with the edits made in it */
+            ImportProgress.run("Importing Activity Diagram", progress -> {
+                session.open();
+                try {
+                    mainDpe[0] = build(project, groups, actionTypes, plans, options,
+                                       parentPkg, typesPkg, actorScope, session, progress);
+                    session.close();
+                } catch (Exception ex) {
+                    session.cancel();
+                    throw ex;
+                }
+                log(progress.summary());
+            });
+        } catch (Exception ex) {
+            session.offerRollback(frame);
+            throw ex;
+        }
+        long millis = System.currentTimeMillis() - started;
+        double perSecond = elements * 1000.0 / Math.max(1, millis);
+        event.rows              = rows.size();
+        event.activities        = groups.size();
+        event.elements          = elements;
+        event.elementsPerSecond = perSecond;
+        event.bulk              = session.isBulk();
+        event.commit();
+        if (mainDpe[0] == null) return report;          // updated in place
+
+        log(String.format("Import summary: %d rows, %d elements in %.1f s (%.0f elements/s)",
+                          rows.size(), elements, millis / 1e3, perSecond));
+
+        /* calibrates the time estimate of later dry runs */
+        ImportPreview.recordRun(elements, millis);
+
+        /* fully built – open it once */
+        if (options.isDeferDiagramOpen()) mainDpe[0].open();
+        return report;
+    }
+
+    /**
+     * Builds the import inside the open session, one progress phase at a time.
+     *
+     * @return the main diagram (the first page) of the first Activity, or
+     *         {@code null} if an earlier import was updated in place
+     */
+    private DiagramPresentationElement build(Project project,
+                                             Map<String,List<ActivityData>> groups,
+                                             ActionTypeChooser.ActionType[] actionTypes,
+                                             List<ImportPlan> plans,
+                                             ImportOptions options,
+                                             Element parentPkg,
+                                             com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package typesPkg,
+                                             com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package actorScope,
+                                             BulkImportSession session,
+                                             ImportProgress progress)
+            throws Exception {
+
+        progress.phase("Indexing", 1);
+
+        /* -------- "name : Type" pins: index the project's types once -------- */
+        pinTypes = options.isTypedPins() ? new PinTypeResolver(project, typesPkg) : null;
+
+        /* -------- called behaviors: index the project's activities once -------- */
+        behaviors = options.isResolveCallBehaviors()
+                  ? new BehaviorResolver(project, parentPkg, options.isBehaviorDiagrams())
+                  : null;
+
+        /* -------- swimlane «represents»: index Blocks and Actors once -------- */
+        actors = options.isResolveActors() ? new ActorResolver(project, actorScope) : null;
+
+        /* -------- re‑import: update a previous import in place (never grouped) -------- */
+        if (options.isIncrementalUpdate()) {
+            Activity existing = IncrementalImporter.findImported(parentPkg);
+            if (existing != null) {
+                progress.phase("Updating", 1);
+                new IncrementalImporter(project, this, options, report)
+                        .update(existing, groups.values().iterator().next(), actionTypes,
+                                plans.get(0).getSubLayouts());
+                logSummaries();
+                return null;
+            }
+        }
+
+        /* bulk: a package of its own, so deleting it rolls the import back */
+        if (session.isBulk())
+            parentPkg = session.createTarget(parentPkg, "Imported Activities "
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH-mm")));
+
+        /* -------- one Activity per group; the resolvers above are shared -------- */
+        ActivityNode[] rowNodes = new ActivityNode[ImportGroups.idLimit(groups)];   // row IDs are sheet‑wide
+        DiagramPresentationElement first = null;
+        int g = 0;
+        for (Map.Entry<String,List<ActivityData>> group : groups.entrySet()) {
+            if (groups.size() > 1) progress.group(group.getKey());
+            DiagramPresentationElement dpe =
+                    buildActivity(project, group.getKey(), group.getValue(), actionTypes,
+                                  plans.get(g++), options, parentPkg, session, progress,
+                                  rowNodes, first == null);
+            if (first == null) first = dpe;
+        }
+
+        logSummaries();
+        return first;
+    }
+
+    /**
+     * One Activity named {@code name}: its partitions, nodes, main diagram,
+     * sub‑diagrams and manifest.
+     *
+     * @param rowNodes node built for each row, by row ID; shared by all groups
+     * @param openable whether its main diagram may be opened right away
+     *                 (only the first Activity of a grouped import is)
+     * @return its main diagram (the first page)
+     */
+    private DiagramPresentationElement buildActivity(Project project,
+                                                     String name,
+                                                     List<ActivityData> rows,
+                                                     ActionTypeChooser.ActionType[] actionTypes,
+                                                     ImportPlan plan,
+                                                     ImportOptions options,
+                                                     Element parentPkg,
+                                                     BulkImportSession session,
+                                                     ImportProgress progress,
+                                                     ActivityNode[] rowNodes,
+                                                     boolean openable)
+            throws Exception {
+
+        ActivityBuilder<PresentationElement,DiagramPresentationElement> builder = builder(project);
+        Activity rootActivity = builder.createActivity(name, parentPkg);
+
+        /* sub‑diagrams copied from prototypes, removed again once built */
+        templates = options.isTemplateSubDiagrams() && !options.isLazySubDiagrams()
+                  ? new SubdiagramTemplates(project, builder)
+                  : null;
+        DiagramPresentationElement mainDpe;
+        try {
+            mainDpe = builder.build(rootActivity, plan, options, rowNodes, openable, progress,
+                                    session.isBulk() ? session::checkpoint : null, report);
+        } finally {
+            if (templates != null) templates.dispose();
+            templates = null;
+        }
+
+        /* -------- row manifest for later re‑imports -------- */
+        progress.phase("Manifest", 1);
+        ImportManifest.forRows(rows, rowNodes, actionTypes)
+                      .write(project, rootActivity);
+
+        return mainDpe;
+    }
+
+    /**
+     * The build against {@code project}, with this import's resolvers and
+     * templates; also used to update or extend an earlier import.
+     */
+    ActivityBuilder<PresentationElement,DiagramPresentationElement> builder(Project project) {
+        return new ActivityBuilder<>(new CameoModelApi(project), new ProjectDecorations(project));
+    }
+
+    private void logSummaries() {
+        if (pinTypes != null)  { log(pinTypes.summary());  pinTypes.getWarnings().forEach(this::warn); }
+        if (behaviors != null)   log(behaviors.summary());
+        if (actors != null)    { log(actors.summary());    actors.getWarnings().forEach(this::warn); }
+    }
+
+    /** a line of the import log – Cameo's, where the user sees it */
+    private static void log(String line) {
+        Application.getInstance().getGUILog().log(line);
+    }
+
+    /** logged, and listed in the completion message */
+    private void warn(String warning) {
+        report.warning(warning);
+        log("Warning: " + warning);
+    }
+
+    /* =============================================================
+                          PROJECT DECORATIONS
+       ============================================================= */
+
+    /** pin types, called behaviors, lane stereotypes and templates of the running import */
+    private final class ProjectDecorations
+            implements ActivityBuilder.Decorations<DiagramPresentationElement> {
+
+        private final Project project;
+
+        /* SysML «allocateActivityPartition», looked up on the first main lane */
+        private Stereotype allocate;
+        private boolean    looked;
+
+        ProjectDecorations(Project project) {
+            this.project = project;
+        }
+
+        @Override
+        public void namePin(Pin p, String raw) throws ReadOnlyElementException {
+            ActivityDiagramCreator.this.namePin(p, raw);
+        }
+
+        @Override
+        public void bindBehavior(CallBehaviorAction action) throws ReadOnlyElementException {
+            if (behaviors != null) action.setBehavior(behaviors.resolve(action));
+        }
+
+        @Override
+        public void decoratePartition(ActivityPartition p, Activity activity,
+                                      String actor, boolean main) {
+            if (main) {
+                if (!looked) {
+                    Profile sysml = StereotypesHelper.getProfile(project, "SysML");
+                    allocate = (sysml == null)
+                             ? null
+                             : StereotypesHelper.getStereotype(project,
+                                                               "AllocateActivityPartition", sysml);
+                    looked = true;
+                }
+                if (allocate != null) StereotypesHelper.addStereotype(p, allocate);
+            }
+            setRepresents(p, activity, actor);
+        }
+
+        @Override
+        public DiagramPresentationElement instantiate(StructuredActivityNode parent,
+                                                      DiagramGeometry geometry,
+                                                      Map<String,ActivityPartition> partitions)
+                throws ReadOnlyElementException {
+            return (templates == null) ? null : templates.instantiate(parent, geometry, partitions);
+        }
+
+        @Override
+        public void defer(StructuredActivityNode parent, DiagramGeometry geometry) {
+            SubdiagramMaterializer.register(project, parent, geometry);
+        }
+    }
+
+    /**
+     * Points a lane at the Block/Actor named like its actor. Without a
+     * resolver (e.g. a sub‑diagram built on demand) it copies «represents»
+     * from another lane of the same name in the Activity; the Activity's
+     * lanes are read once, not for every new lane.
+     */
+    private void setRepresents(ActivityPartition p, Activity activity, String actor) {
+        if (actors != null) {
+            p.setRepresents(actors.resolve(actor));
+            return;
+        }
+        Map<String,Element> byName = represented.computeIfAbsent(activity, a -> {
+            Map<String,Element> m = new HashMap<>();
+            for (ActivityPartition other : a.getPartition())
+                if (other != p && other.getName() != null && other.getRepresents() != null)
+                    m.putIfAbsent(other.getName(), other.getRepresents());
+            return m;
+        });
+        Element e = byName.get(actor);
+        if (e != null) p.setRepresents(e);
+    }
+
+    /** Names a pin from its cell value and, with typed pins on, sets its type. */
+    void namePin(Pin p, String raw) throws ReadOnlyElementException {
+        if (pinTypes == null) { p.setName(raw); return; }
+        p.setName(names.pinName(raw));
+        p.setType(pinTypes.resolveType(names.typeName(raw)));
+    }
+
+    /** Name a pin created from {@code raw} gets. */
+    String pinName(String raw) {
+        return (pinTypes == null) ? raw : names.pinName(raw);
+    }
+}
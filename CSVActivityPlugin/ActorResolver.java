@@ -0,0 +1,103 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Classifier;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+import com.nomagic.uml2.ext.magicdraw.commonbehaviors.mdbasicbehaviors.Behavior;
+import com.nomagic.uml2.ext.magicdraw.mdusecases.Actor;
+
+import java.util.*;
+
+/**
+ * Maps Actor‑column values to the Block or Actor a swim‑lane represents.
+ *
+ * Blocks (and other structural classes) and Actors are indexed once, by
+ * case‑insensitive name, so each lane is a single map lookup however big the
+ * project is. With a scope package only that package is searched; otherwise
+ * the primary model comes first and used projects only fill in names it
+ * does not have. A name that still matches more than one element is left
+ * unresolved and reported, rather than guessed.
+ */
+public class ActorResolver {
+
+    private final Map<String,Classifier> byName    = new HashMap<>();
+    private final Set<String>            ambiguous = new HashSet<>();
+    private final Set<String>            reported  = new HashSet<>();
+    private final List<String>           warnings  = new ArrayList<>();
+
+    private int resolved, unresolved;
+
+    /**
+     * @param scope package to search, or {@code null} for the whole project
+     */
+    public ActorResolver(Project project, Package scope) {
+        if (scope != null) {
+            indexTree(scope, Set.of());
+            return;
+        }
+        indexTree(project.getPrimaryModel(), Set.of());
+
+        Set<String> primary = new HashSet<>(byName.keySet());
+        primary.addAll(ambiguous);
+        for (Package m : project.getModels())
+            if (m != project.getPrimaryModel()) indexTree(m, primary);
+    }
+
+    /** Classifier a lane called {@code actor} represents, or {@code null}. */
+    public Classifier resolve(String actor) {
+        String k = key(actor);
+        if (k == null) return null;
+
+        if (ambiguous.contains(k)) {
+            if (reported.add(k))
+                warnings.add("Actor '" + actor + "' matches several elements; "
+                             + "the lane is left without «represents»");
+            unresolved++;
+            return null;
+        }
+        Classifier c = byName.get(k);
+        if (c != null) resolved++; else unresolved++;
+        return c;
+    }
+
+    /** one line for the import log */
+    public String summary() {
+        return "Swimlane actors: " + resolved + " resolved, " + unresolved + " not found";
+    }
+
+    /** names left unresolved because they match several elements, once each */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    /** indexes everything below {@code root}, ignoring names in {@code shadowed} */
+    private void indexTree(Package root, Set<String> shadowed) {
+        Deque<Element> todo = new ArrayDeque<>();
+        todo.add(root);
+        while (!todo.isEmpty()) {
+            Element e = todo.poll();
+            if (isCandidate(e)) {
+                String k = key(((Classifier) e).getName());
+                if (k != null && !shadowed.contains(k)
+                        && byName.putIfAbsent(k, (Classifier) e) != null)
+                    ambiguous.add(k);
+            }
+            for (Element child : e.getOwnedElement())
+                if (child instanceof Package || child instanceof Classifier) todo.add(child);
+        }
+    }
+
+    private static boolean isCandidate(Element e) {
+        return e instanceof Actor
+            || (e instanceof Class && !(e instanceof Behavior));
+    }
+
+    private static String key(String name) {
+        if (name == null || name.trim().isEmpty()) return null;
+        return name.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.PresentationElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ActivityParameterNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Classifier;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Diagram;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Parameter;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.ParameterDirectionKindEnum;
+import com.nomagic.uml2.impl.ElementsFactory;
+
+import java.util.*;
+
+/**
+ * Finds (or creates) the Activity a Call Behavior Action calls.
+ *
+ * Existing Activities are indexed once per import by qualified and simple
+ * name, so each action costs a map lookup; Activities made by earlier
+ * imports are left out. Actions are matched by their name without the
+ * outline number, so {@code 1.2 Pkg::Name} or {@code 1.2 Name} gets that
+ * Activity as its behavior; if there is none, a new Activity is created in
+ * a "Called Behaviors" package next to the import, with one parameter (and
+ * parameter node) per pin of the action, and optionally its own diagram.
+ * Later actions with the same name call the same Activity.
+ */
+public class BehaviorResolver {
+
+    static final String PACKAGE_NAME = "Called Behaviors";
+
+    private final Project project;
+    private final Element importParent;
+    private final boolean createDiagrams;
+
+    private final Map<String,Activity> byQualified = new HashMap<>();
+    private final Map<String,Activity> bySimple    = new HashMap<>();
+
+    private Package target;                 // created on first use
+    private int resolved, created;
+
+    /**
+     * @param importParent   element the import goes into; new behaviors are
+     *                       put in a package beside it
+     * @param createDiagrams give every created behavior its own diagram
+     */
+    public BehaviorResolver(Project project, Element importParent, boolean createDiagrams) {
+        this.project        = project;
+        this.importParent   = importParent;
+        this.createDiagrams = createDiagrams;
+        buildIndex();
+    }
+
+    /** Behavior for a call action, resolved by the action's name. */
+    public Activity resolve(CallBehaviorAction action) throws ReadOnlyElementException {
+        String name = action.getName() == null ? "" : ExcelParser.withoutOutline(action.getName());
+        if (name.isEmpty()) return null;
+
+        Activity a = byQualified.get(name);
+        if (a == null && !name.contains("::")) a = bySimple.get(name);
+        if (a != null) {
+            resolved++;
+            return a;
+        }
+
+        a = create(name.contains("::") ? name.substring(name.lastIndexOf("::") + 2) : name,
+                   action);
+        created++;
+        return a;
+    }
+
+    /** one line for the import log */
+    public String summary() {
+        return "Called behaviors: " + resolved + " resolved, " + created + " created";
+    }
+
+    /* =============================================================
+                               CREATION
+       ============================================================= */
+
+    private Activity create(String name, CallBehaviorAction action)
+            throws ReadOnlyElementException {
+
+        ElementsFactory f = project.getElementsFactory();
+        ModelElementsManager mgr = ModelElementsManager.getInstance();
+
+        Activity act = f.createActivityInstance();
+        act.setName(name);
+        mgr.addElement(act, targetPackage());
+
+        /* parameters in pin order: arguments, then results */
+        List<ActivityParameterNode> nodes = new ArrayList<>();
+        for (InputPin p : action.getArgument())
+            nodes.add(addParameter(act, p, ParameterDirectionKindEnum.IN, f, mgr));
+        for (OutputPin p : action.getResult())
+            nodes.add(addParameter(act, p, ParameterDirectionKindEnum.OUT, f, mgr));
+
+        if (createDiagrams) {
+            Diagram dgm = mgr.createDiagram("SysML Activity Diagram", act);
+            dgm.setName(name);
+            DiagramPresentationElement dpe = project.getDiagram(dgm);
+            PresentationElementsManager pem = PresentationElementsManager.getInstance();
+            for (ActivityParameterNode n : nodes) pem.createShapeElement(n, dpe);
+        }
+
+        index(act);
+        return act;
+    }
+
+    private ActivityParameterNode addParameter(Activity act, Pin pin,
+                                               ParameterDirectionKindEnum dir,
+                                               ElementsFactory f,
+                                               ModelElementsManager mgr)
+            throws ReadOnlyElementException {
+
+        Parameter par = f.createParameterInstance();
+        par.setName(pin.getName());
+        par.setType(pin.getType());
+        par.setDirection(dir);
+        mgr.addElement(par, act);
+
+        ActivityParameterNode n = f.createActivityParameterNodeInstance();
+        n.setName(pin.getName());
+        n.setType(pin.getType());
+        n.setParameter(par);
+        mgr.addElement(n, act);
+        return n;
+    }
+
+    /** "Called Behaviors" in the package that holds the import */
+    private Package targetPackage() throws ReadOnlyElementException {
+        if (target != null) return target;
+
+        Element cur = importParent;
+        while (cur != null && !(cur instanceof Package)) cur = cur.getOwner();
+        Package owner = (cur instanceof Package pkg) ? pkg : project.getPrimaryModel();
+
+        for (Element e : owner.getOwnedElement())
+            if (e instanceof Package pkg && PACKAGE_NAME.equals(pkg.getName())) return target = pkg;
+
+        Package pkg = project.getElementsFactory().createPackageInstance();
+        pkg.setName(PACKAGE_NAME);
+        ModelElementsManager.getInstance().addElement(pkg, owner);
+        return target = pkg;
+    }
+
+    /* =============================================================
+                                 INDEX
+       ============================================================= */
+
+    private void buildIndex() {
+        List<Package> roots = new ArrayList<>();
+        roots.add(project.getPrimaryModel());                     // wins duplicate names
+        for (Package m : project.getModels())
+            if (m != project.getPrimaryModel()) roots.add(m);
+
+        Deque<Element> todo = new ArrayDeque<>(roots);
+        while (!todo.isEmpty()) {
+            Element e = todo.poll();
+            if (e instanceof Activity act && !ImportManifest.isImported(act)) index(act);
+            for (Element child : e.getOwnedElement())
+                if (child instanceof Package || child instanceof Classifier) todo.add(child);
+        }
+    }
+
+    private void index(Activity act) {
+        String name = act.getName();
+        if (name == null || name.isEmpty()) return;
+        byQualified.putIfAbsent(act.getQualifiedName(), act);
+        bySimple.putIfAbsent(name, act);
+    }
+}
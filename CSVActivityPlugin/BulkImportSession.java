@@ -0,0 +1,117 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.magicdraw.openapi.uml.SessionManager;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+
+import javax.swing.JOptionPane;
+import java.awt.Component;
+
+/**
+ * The session an import runs in.
+ *
+ * Normally this is one MagicDraw session: undoable as a whole, rolled back
+ * by cancelling it. In bulk mode the import goes into a package of its own
+ * and is committed in batches at {@link #checkpoint()}s; the undo history
+ * is dropped after every batch, so memory holds the model and not its undo
+ * records. Undo is then not available – the rollback is deleting that
+ * package, which {@link #offerRollback} offers if the import fails half way.
+ *
+ * {@link #open}, {@link #checkpoint}, {@link #close} and {@link #cancel}
+ * must all be called on the thread that edits the model.
+ */
+public class BulkImportSession {
+
+    private final Project project;
+    private final String  name;
+    private final boolean bulk;
+    private final SessionManager sm = SessionManager.getInstance();
+
+    /* the package a bulk import goes into (null until created) */
+    private Package target;
+
+    private int batches;
+
+    public BulkImportSession(Project project, String name, boolean bulk) {
+        this.project = project;
+        this.name    = name;
+        this.bulk    = bulk;
+    }
+
+    public boolean isBulk() { return bulk; }
+
+    public void open() {
+        sm.createSession(project, name);
+    }
+
+    /**
+     * Bulk mode only: a new package for the import under {@code parent}.
+     * Everything the import creates goes in here, so deleting it undoes it.
+     */
+    public Package createTarget(Element parent, String packageName) throws ReadOnlyElementException {
+        target = project.getElementsFactory().createPackageInstance();
+        target.setName(packageName);
+        ModelElementsManager.getInstance().addElement(target, parent);
+        return target;
+    }
+
+    /** Bulk mode: commits what has been built so far and starts the next batch. */
+    public void checkpoint() {
+        if (!bulk) return;
+        sm.closeSession(project);
+        forgetHistory();
+        batches++;
+        sm.createSession(project, name + " (" + (batches + 1) + ")");
+    }
+
+    public void close() {
+        sm.closeSession(project);
+        if (bulk) forgetHistory();
+        if (target != null) {
+            Application.getInstance().getGUILog().log(
+                    "Bulk import committed in " + (batches + 1) + " batches without undo; "
+                    + "delete package '" + target.getName() + "' to roll it back");
+        }
+    }
+
+    /** Cancels the running batch. */
+    public void cancel() {
+        sm.cancelSession(project);
+    }
+
+    /**
+     * After a failed or cancelled bulk import the earlier batches are
+     * already committed, so the user is offered to delete the package, in a
+     * session of its own.
+     */
+    public void offerRollback(Component parent) {
+        if (!bulk || target == null || batches == 0) return;
+
+        int answer = JOptionPane.showConfirmDialog(parent,
+                "The bulk import stopped after part of it was committed.\n"
+                + "Delete the partly imported package '" + target.getName() + "'?",
+                "Bulk Import Failed", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (answer != JOptionPane.YES_OPTION) return;
+
+        sm.createSession(project, "Delete " + target.getName());
+        try {
+            ModelElementsManager.getInstance().removeElement(target);
+            sm.closeSession(project);
+        } catch (ReadOnlyElementException ex) {
+            sm.cancelSession(project);
+            JOptionPane.showMessageDialog(parent,
+                    "The package '" + target.getName() + "' could not be deleted: "
+                    + ex.getMessage() + "\nDelete it by hand to roll the import back.",
+                    "Bulk Import Failed", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /** drops the undo records of the committed batches */
+    private void forgetHistory() {
+        project.getCommandHistory().clear();
+    }
+}
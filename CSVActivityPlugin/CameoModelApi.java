@@ -0,0 +1,122 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.PresentationElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.magicdraw.uml.symbols.PresentationElement;
+import com.nomagic.magicdraw.uml.symbols.shapes.ShapeElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ControlFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ObjectFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.CallBehaviorAction;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.InputPin;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.OutputPin;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Diagram;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+import com.nomagic.uml2.impl.ElementsFactory;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.List;
+
+/** {@link ModelApi} of a Cameo project; needs an open session for every change. */
+public final class CameoModelApi implements ModelApi<PresentationElement, DiagramPresentationElement> {
+
+    private final Project                     project;
+    private final ElementsFactory             factory;
+    private final ModelElementsManager        mgr = ModelElementsManager.getInstance();
+    private final PresentationElementsManager pem = PresentationElementsManager.getInstance();
+
+    public CameoModelApi(Project project) {
+        this.project = project;
+        this.factory = project.getElementsFactory();
+    }
+
+    /* -------- elements factory -------- */
+
+    @Override public Activity               createActivity()           { return factory.createActivityInstance(); }
+    @Override public ActivityPartition      createPartition()          { return factory.createActivityPartitionInstance(); }
+    @Override public StructuredActivityNode createStructuredNode()     { return factory.createStructuredActivityNodeInstance(); }
+    @Override public CallBehaviorAction     createCallBehaviorAction() { return factory.createCallBehaviorActionInstance(); }
+    @Override public ControlFlow            createControlFlow()        { return factory.createControlFlowInstance(); }
+    @Override public ObjectFlow             createObjectFlow()         { return factory.createObjectFlowInstance(); }
+    @Override public InputPin               createInputPin()           { return factory.createInputPinInstance(); }
+    @Override public OutputPin              createOutputPin()          { return factory.createOutputPinInstance(); }
+
+    @Override
+    public ActivityNode createControlNode(ImportPlan.Kind kind) {
+        switch (kind) {
+            case INITIAL:  return factory.createInitialNodeInstance();
+            case FINAL:    return factory.createActivityFinalNodeInstance();
+            case FORK:     return factory.createForkNodeInstance();
+            case JOIN:     return factory.createJoinNodeInstance();
+            case DECISION: return factory.createDecisionNodeInstance();
+            case MERGE:    return factory.createMergeNodeInstance();
+            default:       throw new IllegalArgumentException("not a control node: " + kind);
+        }
+    }
+
+    /* -------- ModelElementsManager -------- */
+
+    @Override
+    public void addElement(Element element, Element owner) throws ReadOnlyElementException {
+        mgr.addElement(element, owner);
+    }
+
+    @Override
+    public DiagramPresentationElement createDiagram(Namespace owner, String name)
+            throws ReadOnlyElementException {
+        Diagram dgm = mgr.createDiagram("SysML Activity Diagram", owner);
+        dgm.setName(name);
+        return project.getDiagram(dgm);
+    }
+
+    /* -------- PresentationElementsManager -------- */
+
+    @Override
+    public PresentationElement createShape(Element element, PresentationElement parent)
+            throws ReadOnlyElementException {
+        return pem.createShapeElement(element, parent);
+    }
+
+    @Override
+    public void createPath(Element element, PresentationElement source, PresentationElement target)
+            throws ReadOnlyElementException {
+        pem.createPathElement(element, source, target);
+    }
+
+    @Override
+    public void reshape(PresentationElement shape, Rectangle bounds) throws ReadOnlyElementException {
+        if (shape instanceof ShapeElement se) pem.reshapeShapeElement(se, bounds);
+    }
+
+    @Override
+    public PresentationElement createSwimlanes(List<ActivityPartition> lanes,
+                                               DiagramPresentationElement diagram)
+            throws ReadOnlyElementException {
+        return pem.createSwimlane(Collections.emptyList(), lanes, diagram);
+    }
+
+    /* -------- diagrams -------- */
+
+    @Override
+    public PresentationElement find(DiagramPresentationElement diagram, Element element) {
+        return diagram.findPresentationElement(element, PresentationElement.class);
+    }
+
+    @Override
+    public Rectangle boundsOf(PresentationElement shape) {
+        return shape.getBounds();
+    }
+
+    @Override
+    public void open(DiagramPresentationElement diagram) {
+        diagram.open();
+    }
+}
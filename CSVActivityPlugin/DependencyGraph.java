@@ -0,0 +1,126 @@
+package com.example.csvactivityplugin;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dependency graph of the main rows, built from their Predecessor and
+ * Successor columns. Rows are referred to by full name or by outline
+ * number ("3" for "3 Approve order").
+ *
+ * Edges are kept in compressed adjacency arrays and ordered with Kahn's
+ * algorithm, so building and sorting are O(V + E). Rows that Kahn cannot
+ * order lie on (or behind) a cycle and are reported by {@link #cycleRows()}.
+ * Pure Java – nothing here touches the model.
+ */
+public final class DependencyGraph {
+
+    private static final Pattern OUTLINE_NUMBER = Pattern.compile("^(\\d+(?:\\.\\d+)*)");
+
+    private final List<ActivityData> rows;
+    private final int[] succStart;          // successors of i: succ[succStart[i] .. succStart[i+1])
+    private final int[] succ;
+    private final int[] inDegree;
+    private final int[] order;              // topological order, rows on cycles left out
+    private final List<String> unresolved;
+
+    private DependencyGraph(List<ActivityData> rows, int[] from, int[] to, int edges,
+                            List<String> unresolved) {
+        this.rows       = rows;
+        this.unresolved = unresolved;
+        int n = rows.size();
+
+        /* compressed adjacency */
+        succStart = new int[n + 1];
+        inDegree  = new int[n];
+        for (int e = 0; e < edges; e++) { succStart[from[e] + 1]++; inDegree[to[e]]++; }
+        for (int i = 0; i < n; i++) succStart[i + 1] += succStart[i];
+        succ = new int[edges];
+        int[] fill = Arrays.copyOf(succStart, n);
+        for (int e = 0; e < edges; e++) succ[fill[from[e]]++] = to[e];
+
+        /* Kahn – ready rows are taken in row order */
+        int[] remaining = inDegree.clone();
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) if (remaining[i] == 0) queue[tail++] = i;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int k = succStart[u]; k < succStart[u + 1]; k++)
+                if (--remaining[succ[k]] == 0) queue[tail++] = succ[k];
+        }
+        order = Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * @param rows the main rows, in sheet order; indices below refer to this list
+     */
+    public static DependencyGraph build(List<ActivityData> rows) {
+        Map<String,Integer> index = new HashMap<>(rows.size() * 3);
+        for (int i = 0; i < rows.size(); i++) {
+            String name = rows.get(i).getName().trim();
+            index.putIfAbsent(name.toLowerCase(), i);
+            Matcher m = OUTLINE_NUMBER.matcher(name);
+            if (m.find()) index.putIfAbsent(m.group(1), i);
+        }
+
+        int cap = 16, edges = 0;
+        int[] from = new int[cap], to = new int[cap];
+        Set<Long> seen = new HashSet<>();
+        List<String> unresolved = new ArrayList<>();
+
+        for (int v = 0; v < rows.size(); v++) {
+            ActivityData d = rows.get(v);
+            for (int pass = 0; pass < 2; pass++) {
+                List<String> refs = (pass == 0) ? d.getPredecessors() : d.getSuccessors();
+                for (String ref : refs) {
+                    Integer other = index.get(ref.trim().toLowerCase());
+                    if (other == null) {
+                        unresolved.add(d.getName() + " → " + ref);
+                        continue;
+                    }
+                    int u = (pass == 0) ? other : v;      // edge u → v
+                    int w = (pass == 0) ? v : other;
+                    if (!seen.add(((long) u << 32) | w)) continue;
+                    if (edges == cap) {
+                        cap *= 2;
+                        from = Arrays.copyOf(from, cap);
+                        to   = Arrays.copyOf(to, cap);
+                    }
+                    from[edges] = u;  to[edges] = w;  edges++;
+                }
+            }
+        }
+        return new DependencyGraph(rows, from, to, edges, unresolved);
+    }
+
+    /** true ⇢ at least one dependency was given */
+    public boolean hasEdges()               { return succ.length > 0; }
+
+    public int size()                       { return rows.size(); }
+    public ActivityData row(int i)          { return rows.get(i); }
+    public int inDegree(int i)              { return inDegree[i]; }
+    public int outDegree(int i)             { return succStart[i + 1] - succStart[i]; }
+
+    /** successors of row {@code i}, as row indices */
+    public int[] successors(int i) {
+        return Arrays.copyOfRange(succ, succStart[i], succStart[i + 1]);
+    }
+
+    /** row indices in dependency order (rows on cycles are missing) */
+    public int[] order()                    { return order; }
+
+    /** references that did not name any row, as "row → reference" */
+    public List<String> unresolved()        { return unresolved; }
+
+    /** rows Kahn's algorithm could not order, i.e. on or behind a cycle */
+    public List<ActivityData> cycleRows() {
+        if (order.length == rows.size()) return List.of();
+        boolean[] ordered = new boolean[rows.size()];
+        for (int i : order) ordered[i] = true;
+        List<ActivityData> out = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) if (!ordered[i]) out.add(rows.get(i));
+        return out;
+    }
+}
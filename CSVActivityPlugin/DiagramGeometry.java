@@ -0,0 +1,61 @@
+package com.example.csvactivityplugin;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre‑computed shape bounds for one diagram: the swim‑lane columns, the
+ * lane wrapper and one entry per node (with its pins) in layout order.
+ * It is built purely from the parsed rows, so it can be computed off the
+ * EDT and outside the model session; the session only applies it.
+ */
+public final class DiagramGeometry {
+
+    private final List<String>          laneOrder;
+    private final Map<String,Rectangle> laneBounds;
+    private final Rectangle             frameBounds;
+    private final List<NodeGeometry>    nodes;
+
+    public DiagramGeometry(List<String> laneOrder,
+                           Map<String,Rectangle> laneBounds,
+                           Rectangle frameBounds,
+                           List<NodeGeometry> nodes) {
+        this.laneOrder   = Collections.unmodifiableList(laneOrder);
+        this.laneBounds  = Collections.unmodifiableMap(laneBounds);
+        this.frameBounds = frameBounds;
+        this.nodes       = Collections.unmodifiableList(nodes);
+    }
+
+    /** actor names, left to right */
+    public List<String> getLaneOrder()              { return laneOrder; }
+
+    /** actor name → column bounds */
+    public Map<String,Rectangle> getLaneBounds()    { return laneBounds; }
+
+    /** bounds of the swim‑lane wrapper around all columns */
+    public Rectangle getFrameBounds()               { return frameBounds; }
+
+    /** one entry per node, in the order the nodes are laid out */
+    public List<NodeGeometry> getNodes()            { return nodes; }
+
+    /** bounds of a single node plus its input (left) and output (right) pins */
+    public static final class NodeGeometry {
+        private final Rectangle       bounds;
+        private final List<Rectangle> inputPins;
+        private final List<Rectangle> outputPins;
+
+        public NodeGeometry(Rectangle bounds,
+                            List<Rectangle> inputPins,
+                            List<Rectangle> outputPins) {
+            this.bounds     = bounds;
+            this.inputPins  = Collections.unmodifiableList(inputPins);
+            this.outputPins = Collections.unmodifiableList(outputPins);
+        }
+
+        public Rectangle       getBounds()     { return bounds; }
+        public List<Rectangle> getInputPins()  { return inputPins; }
+        public List<Rectangle> getOutputPins() { return outputPins; }
+    }
+}
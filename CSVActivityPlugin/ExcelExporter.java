@@ -0,0 +1,281 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.InitialNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityEdge;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ControlFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Writes an Activity back to a sheet in the layout {@link ExcelParser}
+ * reads: Name, Input, Output, Actor – plus Predecessor when the main flow
+ * branches – one row per main action followed by its sub‑actions. Rows
+ * follow the control flow from the InitialNode, not the order the nodes
+ * were created in, so a chain import of the file rebuilds the same flow.
+ *
+ * Rows are streamed through an {@link SXSSFWorkbook} that keeps only
+ * {@link #ROW_WINDOW} rows in memory, so the sheet costs constant memory
+ * however many actions there are.
+ *
+ * Names that would not parse back as main ("3 …", "Action …") or sub
+ * ("3.1 …") rows get an outline number in front, so the file round‑trips;
+ * typed pins are written as "name : Type".
+ */
+public class ExcelExporter {
+
+    /** rows kept in memory before they are flushed to disk */
+    private static final int ROW_WINDOW = 100;
+
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^(\\d+)");
+
+    private int mainRows, subRows, renamed;
+
+    /**
+     * Exports {@code activity} to {@code file} (.xlsx).
+     *
+     * @return number of rows written
+     */
+    public int export(Activity activity, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            return export(activity, out);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    public int export(Activity activity, OutputStream out) throws IOException {
+        mainRows = subRows = renamed = 0;
+
+        List<ActivityNode> mains = inFlowOrder(activity.getNode());
+        boolean branching = hasBranches(activity);
+
+        /* exported names first – predecessors refer to them */
+        Map<ActivityNode,String> names = new IdentityHashMap<>();
+        for (int i = 0; i < mains.size(); i++) names.put(mains.get(i), mainName(mains.get(i), i + 1));
+
+        SXSSFWorkbook wb = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            Sheet sheet = wb.createSheet(sheetName(activity));
+            header(wb, sheet, branching);
+
+            int r = 1;
+            for (ActivityNode main : mains) {
+                String name = names.get(main);
+                write(sheet.createRow(r++), name, main,
+                      branching ? predecessors(main, names) : null);
+                mainRows++;
+
+                if (main instanceof StructuredActivityNode san) {
+                    String number = outlineNumber(name, mainRows);
+                    List<ActivityNode> subs = inFlowOrder(ownedNodes(san));
+                    for (int j = 0; j < subs.size(); j++) {
+                        write(sheet.createRow(r++), subName(subs.get(j), number, j + 1), subs.get(j), null);
+                        subRows++;
+                    }
+                }
+            }
+            wb.write(out);
+            return r - 1;
+        } finally {
+            wb.dispose();          // removes the temporary files behind the window
+            wb.close();
+        }
+    }
+
+    /** one line for the export log */
+    public String summary() {
+        return "Exported " + mainRows + " actions and " + subRows + " sub-actions"
+               + (renamed > 0 ? "; " + renamed + " names got an outline number" : "");
+    }
+
+    /* =============================================================
+                                   ROWS
+       ============================================================= */
+
+    private static void header(SXSSFWorkbook wb, Sheet sheet, boolean branching) {
+        Font bold = wb.createFont();
+        bold.setBold(true);
+        CellStyle style = wb.createCellStyle();
+        style.setFont(bold);
+
+        List<String> titles = new ArrayList<>(List.of("Name", "Input", "Output", "Actor"));
+        if (branching) titles.add("Predecessor");
+
+        Row row = sheet.createRow(0);
+        for (int c = 0; c < titles.size(); c++) {
+            Cell cell = row.createCell(c);
+            cell.setCellValue(titles.get(c));
+            cell.setCellStyle(style);
+        }
+    }
+
+    private static void write(Row row, String name, ActivityNode node, String predecessors) {
+        row.createCell(0).setCellValue(name);
+        row.createCell(1).setCellValue(pins(inputsOf(node)));
+        row.createCell(2).setCellValue(pins(outputsOf(node)));
+        row.createCell(3).setCellValue(node.getInPartition().isEmpty()
+                                       ? "" : node.getInPartition().iterator().next().getName());
+        if (predecessors != null) row.createCell(4).setCellValue(predecessors);
+    }
+
+    /** "a; b : Type; c" – the parser splits on ';' first */
+    private static String pins(List<? extends Pin> pins) {
+        StringBuilder sb = new StringBuilder();
+        for (Pin p : pins) {
+            if (sb.length() > 0) sb.append("; ");
+            sb.append(p.getName());
+            if (p.getType() != null && p.getType().getName() != null)
+                sb.append(" : ").append(p.getType().getName());
+        }
+        return sb.toString();
+    }
+
+    /* -------- names that parse back as the same kind of row -------- */
+
+    private String mainName(ActivityNode node, int position) {
+        String name = (node.getName() == null) ? "" : node.getName().trim();
+        boolean parsesAsMain = !ExcelParser.DECIMAL_INT_PATTERN.matcher(name).find()
+                && (name.toLowerCase().startsWith(ExcelParser.ACTION_PREFIX.toLowerCase())
+                    || ExcelParser.WHOLE_INT_PATTERN.matcher(name).find());
+        if (parsesAsMain) return name;
+        renamed++;
+        return position + " " + name;
+    }
+
+    private String subName(ActivityNode node, String mainNumber, int position) {
+        String name = (node.getName() == null) ? "" : node.getName().trim();
+        if (ExcelParser.DECIMAL_INT_PATTERN.matcher(name).find()) return name;
+        renamed++;
+        return mainNumber + "." + position + " " + name;
+    }
+
+    private static String outlineNumber(String mainName, int position) {
+        var m = LEADING_NUMBER.matcher(mainName);
+        return m.find() ? m.group(1) : String.valueOf(position);
+    }
+
+    /* =============================================================
+                                  MODEL
+       ============================================================= */
+
+    /**
+     * The actions among {@code nodes} in control‑flow order: a topological
+     * walk from the InitialNode, through control nodes, so every action comes
+     * after the ones it follows. Actions the walk does not reach (no flow,
+     * or a loop) keep their model order at the end.
+     */
+    private static List<ActivityNode> inFlowOrder(Collection<ActivityNode> nodes) {
+        Set<ActivityNode> members = Collections.newSetFromMap(new IdentityHashMap<>());
+        members.addAll(nodes);
+
+        /* control flows into each node from inside this set, not walked yet */
+        Map<ActivityNode,Integer> waiting = new IdentityHashMap<>();
+        Deque<ActivityNode> ready = new ArrayDeque<>();
+        for (ActivityNode n : nodes) {
+            int in = 0;
+            for (ActivityEdge e : n.getIncoming())
+                if (e instanceof ControlFlow && members.contains(e.getSource())) in++;
+            waiting.put(n, in);
+            if (n instanceof InitialNode) ready.add(n);
+        }
+
+        List<ActivityNode> out = new ArrayList<>();
+        Set<ActivityNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!ready.isEmpty()) {
+            ActivityNode n = ready.poll();
+            if (!seen.add(n)) continue;
+            if (isAction(n)) out.add(n);
+            for (ActivityEdge e : n.getOutgoing()) {
+                ActivityNode tgt = e.getTarget();
+                if (!(e instanceof ControlFlow) || !members.contains(tgt)) continue;
+                if (waiting.merge(tgt, -1, Integer::sum) <= 0) ready.add(tgt);
+            }
+        }
+        for (ActivityNode n : nodes)
+            if (isAction(n) && !seen.contains(n)) out.add(n);
+        return out;
+    }
+
+    private static List<ActivityNode> ownedNodes(StructuredActivityNode san) {
+        List<ActivityNode> out = new ArrayList<>();
+        for (Element e : san.getOwnedElement())
+            if (e instanceof ActivityNode n && n != san) out.add(n);
+        return out;
+    }
+
+    private static List<? extends Pin> inputsOf(ActivityNode n) {
+        if (n instanceof StructuredActivityNode san) return san.getStructuredNodeInput();
+        if (n instanceof CallBehaviorAction cba)     return cba.getArgument();
+        if (n instanceof OpaqueAction oa)            return oa.getInputValue();
+        return List.of();
+    }
+
+    private static List<? extends Pin> outputsOf(ActivityNode n) {
+        if (n instanceof StructuredActivityNode san) return san.getStructuredNodeOutput();
+        if (n instanceof CallBehaviorAction cba)     return cba.getResult();
+        if (n instanceof OpaqueAction oa)            return oa.getOutputValue();
+        return List.of();
+    }
+
+    /** true ⇢ some main action has several control‑flow predecessors or successors */
+    private static boolean hasBranches(Activity activity) {
+        for (ActivityNode n : activity.getNode()) {
+            if (isAction(n)) continue;
+            if (n instanceof InitialNode) {
+                if (n.getOutgoing().size() > 1) return true;
+            } else if (n.getIncoming().size() > 1 || n.getOutgoing().size() > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exported names of the actions {@code node} follows, looking back
+     * through Fork/Join/Decision/Merge nodes; empty if it follows Start.
+     */
+    private static String predecessors(ActivityNode node, Map<ActivityNode,String> names) {
+        Set<String> out = new LinkedHashSet<>();
+        Deque<ActivityNode> todo = new ArrayDeque<>();
+        Set<ActivityNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        todo.add(node);
+        while (!todo.isEmpty()) {
+            for (ActivityEdge e : todo.poll().getIncoming()) {
+                if (!(e instanceof ControlFlow)) continue;
+                ActivityNode src = e.getSource();
+                if (src == null || !seen.add(src)) continue;
+                if (names.containsKey(src))            out.add(names.get(src));
+                else if (!(src instanceof InitialNode)) todo.add(src);      // control node
+            }
+        }
+        return String.join("; ", out);
+    }
+
+    private static boolean isAction(ActivityNode n) {
+        return n instanceof StructuredActivityNode || n instanceof CallBehaviorAction
+            || n instanceof OpaqueAction;
+    }
+
+    /** sheet names are at most 31 characters and cannot hold []:*?/\ */
+    private static String sheetName(Activity activity) {
+        String name = (activity.getName() == null || activity.getName().isBlank())
+                    ? "Activity" : activity.getName();
+        name = name.replaceAll("[\\[\\]:*?/\\\\]", "_");
+        return name.length() > 31 ? name.substring(0, 31) : name;
+    }
+}
@@ -1,347 +1,419 @@
-package com.example.csvactivityplugin;
-
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-
-import java.io.*;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.regex.Pattern;
-
-/**
- * Handles parsing of Excel files into ActivityData objects.
- * Supports both .xlsx (newer) and .xls (older) formats.
- * 
- * This parser looks for specific column names and only processes rows
- * where the Name column starts with "Action".
- * 
- * Expected columns:
- * - Name: The activity name (must start with "Action" to be included)
- * - Input: Input pins (comma or semicolon separated)
- * - Output: Output pins (comma or semicolon separated)
- */
-public class ExcelParser {
-    
-    // Delimiters used to separate multiple inputs/outputs
-    private static final String[] DELIMITERS = {";", ","};
-    
-    // Column names to search for (case-insensitive)
-    private static final String COL_NAME = "Name";
-    private static final String COL_INPUT = "Input";
-    private static final String COL_OUTPUT = "Output";
-    private static final String COL_ACTOR = "Actor";
-    
-    // Prefix that identifies action rows
-    private static final String ACTION_PREFIX = "Action";
-    private static final Pattern WHOLE_INT_PATTERN = Pattern.compile("^\\d+\\b");
-    private static final Pattern DECIMAL_INT_PATTERN = Pattern.compile("^\\d+\\.\\d+");
-    public String File_Name;
-    
-    
-    /**
-     * Parses an Excel file and returns a list of ActivityData objects.
-     * Only processes rows where the Name column starts with "Action".
-     * 
-     * @param excelFile The Excel file to parse (.xls or .xlsx)
-     * @return List of ActivityData objects parsed from the file
-     * @throws IOException If there's an error reading the file
-     */
-    public List<ActivityData> parseExcel(File excelFile) throws IOException {
-        List<ActivityData> activities = new ArrayList<>();
-        
-        // Determine file type and create appropriate workbook
-        Workbook workbook = null;
-        FileInputStream fis = null;
-        
-        try {
-            fis = new FileInputStream(excelFile);
-            
-            // Create workbook based on file extension
-            if (excelFile.getName().toLowerCase().endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(fis);
-            } else if (excelFile.getName().toLowerCase().endsWith(".xls")) {
-                workbook = new HSSFWorkbook(fis);
-            } else {
-                throw new IOException("Unsupported file format. Please use .xls or .xlsx files.");
-            }
-            
-            File_Name = excelFile.getName().replaceFirst("\\.[^.]+$",  "");
-            
-            // Get the first sheet (or you could let user select)
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
-                throw new IOException("Excel file has no sheets");
-            }
-            
-            // Find header row and column indices
-            Map<String, Integer> columnIndices = findColumnIndices(sheet);
-            if (columnIndices == null) {
-                throw new IOException("Could not find required columns (Name, Input, Output) in the Excel file");
-            }
-            
-            // Validate that we have the required columns
-            if (!columnIndices.containsKey(COL_NAME)) {
-                throw new IOException("Required column 'Name' not found in Excel file");
-            }
-            
-            int headerRowIndex = findHeaderRowIndex(sheet, columnIndices);
-            ActivityData currentMainAction = null;
-            // Process data rows (starting after header)
-            for (int rowIndex = headerRowIndex + 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) continue;                // skip blank rows
-
-                try {
-                    ActivityData activity = parseRow(row, columnIndices);
-                    if (activity == null) continue;       // row didn’t match any rule
-
-                    // Link sub‑actions to their parent
-                    if (activity.isSubAction()) {
-                        if (currentMainAction != null) {
-                            activity.setParentName(currentMainAction.getName());
-                        } else {
-                            System.err.println("Warning: sub‑action encountered before any main action at row "
-                                               + (rowIndex + 1));
-                        }
-                    } else {                              // it is a main action
-                        currentMainAction = activity;
-                    }
-
-                    activities.add(activity);
-                } catch (Exception e) {
-                    System.err.println("Warning: Error parsing row " + (rowIndex + 1) + ": " + e.getMessage());
-                }
-            }
-            
-        } finally {
-            // Clean up resources
-            if (workbook != null) {
-                try {
-                    workbook.close();
-                } catch (IOException e) {
-                    // Ignore close errors
-                }
-            }
-            if (fis != null) {
-                try {
-                    fis.close();
-                } catch (IOException e) {
-                    // Ignore close errors
-                }
-            }
-        }
-        
-        return activities;
-    }
-    
-    /**
-     * Finds the column indices for Name, Input, and Output columns.
-     * Searches through the first 10 rows to find the header row.
-     * 
-     * @param sheet The Excel sheet to search
-     * @return Map of column names to their indices, or null if not found
-     */
-    private Map<String, Integer> findColumnIndices(Sheet sheet) {
-        // Search first 10 rows for headers
-        for (int rowIndex = 0; rowIndex < Math.min(10, sheet.getLastRowNum() + 1); rowIndex++) {
-            Row row = sheet.getRow(rowIndex);
-            if (row == null) continue;
-            
-            Map<String, Integer> indices = new HashMap<>();
-            
-            // Check each cell in the row
-            for (int colIndex = 0; colIndex < row.getLastCellNum(); colIndex++) {
-                Cell cell = row.getCell(colIndex);
-                String value = getCellValue(cell).toLowerCase();
-                
-                // Look for our column names (case-insensitive)
-                if (value.contains("name")) {
-                    indices.put(COL_NAME, colIndex);
-                } else if (value.contains("input")) {
-                    indices.put(COL_INPUT, colIndex);
-                } else if (value.contains("output")) {
-                    indices.put(COL_OUTPUT, colIndex);
-                } else if (value.contains("actor")) {
-                	indices.put(COL_ACTOR, colIndex);
-                }
-            }
-            
-            // If we found at least the Name column, we've found our header row
-            if (indices.containsKey(COL_NAME)) {
-                return indices;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Finds the row index of the header row.
-     * 
-     * @param sheet The Excel sheet
-     * @param columnIndices Map containing column indices
-     * @return The row index of the header
-     */
-    private int findHeaderRowIndex(Sheet sheet, Map<String, Integer> columnIndices) {
-        // Find which row contains our headers
-        for (int rowIndex = 0; rowIndex < Math.min(10, sheet.getLastRowNum() + 1); rowIndex++) {
-            Row row = sheet.getRow(rowIndex);
-            if (row == null) continue;
-            
-            Cell nameCell = row.getCell(columnIndices.get(COL_NAME));
-            String value = getCellValue(nameCell).toLowerCase();
-            
-            if (value.contains("name")) {
-                return rowIndex;
-            }
-        }
-        
-        return 0; // Default to first row
-    }
-    
-    // return the name of the excel file
-    public String getDiagramName() {
-    	return File_Name;
-    }
-    
-    /**
-     * Parses a single row of Excel data into an ActivityData object.
-     * Only processes rows where the Name starts with "Action".
-     * 
-     * @param row The Excel row to parse
-     * @param columnIndices Map of column names to their indices
-     * @return ActivityData object containing the parsed data, or null if not an Action row
-     */
-    private ActivityData parseRow(Row row, Map<String, Integer> columnIndices) {
-        Integer nameIndex = columnIndices.get(COL_NAME);
-        if (nameIndex == null) return null;
-        
-        Integer actorIndex = columnIndices.get(COL_ACTOR);
-        String actor = actorIndex != null ? getCellValue(row.getCell(actorIndex)).trim() : "";
-
-        String name = getCellValue(row.getCell(nameIndex)).trim();
-        if (name.isEmpty()) return null;
-        
-
-     // 2.  Decide "sub first, main second"
-        boolean isSub  = DECIMAL_INT_PATTERN.matcher(name).find();      // check *first*
-        boolean isMain = !isSub &&                                     // only if not sub
-                         (name.toLowerCase().startsWith(ACTION_PREFIX.toLowerCase())
-                          || WHOLE_INT_PATTERN.matcher(name).find());
-
-        if (!isMain && !isSub) return null;   // row doesn’t match any rule
-
-        // ---------- build ActivityData ----------
-        ActivityData activity = new ActivityData();
-        activity.setName(name);
-        activity.setSubAction(isSub);         // new helper flag
-        activity.setActor(actor);
-
-        // Input pins
-        Integer inputIndex = columnIndices.get(COL_INPUT);
-        if (inputIndex != null) {
-            String inputsString = getCellValue(row.getCell(inputIndex));
-            if (!inputsString.isEmpty()) {
-                activity.setInputs(parseDelimitedString(inputsString));
-            }
-        }
-
-        // Output pins
-        Integer outputIndex = columnIndices.get(COL_OUTPUT);
-        if (outputIndex != null) {
-            String outputsString = getCellValue(row.getCell(outputIndex));
-            if (!outputsString.isEmpty()) {
-                activity.setOutputs(parseDelimitedString(outputsString));
-            }
-        }
-
-        return activity;
-    }
-    
-    /**
-     * Gets the string value from a cell, handling different cell types.
-     * 
-     * @param cell The cell to read
-     * @return String value of the cell, or empty string if null
-     */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                // convert numbers to strings
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // Remove decimal point for whole numbers
-                    double value = cell.getNumericCellValue();
-                    if (value == Math.floor(value)) {
-                        return String.format("%.0f", value);
-                    } else {
-                        return String.valueOf(value);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                // Try to evaluate formula
-                try {
-                    return cell.getStringCellValue().trim();
-                } catch (Exception e) {
-                    try {
-                        return String.valueOf(cell.getNumericCellValue());
-                    } catch (Exception e2) {
-                        return "";
-                    }
-                }
-            case BLANK:
-                return "";
-            default:
-                return "";
-        }
-    }
-    
-    /**
-     * Parses a delimited string into a list of trimmed values.
-     * Tries both semicolon and comma as delimiters.
-     * 
-     * @param delimitedString The string to parse
-     * @return List of parsed values
-     */
-    private List<String> parseDelimitedString(String delimitedString) {
-        List<String> values = new ArrayList<>();
-        
-        // Determine which delimiter is used
-        String delimiter = ";";
-        for (String delim : DELIMITERS) {
-            if (delimitedString.contains(delim)) {
-                delimiter = delim;
-                break;
-            }
-        }
-        
-        // Split by delimiter and trim each value
-        String[] valueArray = delimitedString.split(delimiter);
-        
-        for (String value : valueArray) {
-            String trimmedValue = value.trim();
-            if (!trimmedValue.isEmpty()) {
-                values.add(trimmedValue);
-            }
-        }
-        
-        // If no delimiter found, treat the whole string as one value
-        if (values.isEmpty() && !delimitedString.trim().isEmpty()) {
-            values.add(delimitedString.trim());
-        }
-        
-        return values;
-    }
+package com.example.csvactivityplugin;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Handles parsing of Excel files into ActivityData objects.
+ * Supports both .xlsx (newer) and .xls (older) formats.
+ * 
+ * This parser looks for specific column names and only processes rows
+ * where the Name column starts with "Action".
+ * 
+ * Expected columns:
+ * - Name: The activity name (must start with "Action" to be included)
+ * - Input: Input pins (comma or semicolon separated)
+ * - Output: Output pins (comma or semicolon separated)
+ * - Predecessor / Successor (optional): names or outline numbers of the
+ *   rows this one follows or leads to (comma or semicolon separated)
+ * - Activity / Process (optional): the activity a main row belongs to,
+ *   for sheets that hold several activities
+ */
+public class ExcelParser {
+    
+    // Delimiters used to separate multiple inputs/outputs
+    private static final String[] DELIMITERS = {";", ","};
+    
+    // Column names to search for (case-insensitive)
+    private static final String COL_NAME = "Name";
+    private static final String COL_INPUT = "Input";
+    private static final String COL_OUTPUT = "Output";
+    private static final String COL_ACTOR = "Actor";
+    private static final String COL_PREDECESSOR = "Predecessor";
+    private static final String COL_SUCCESSOR = "Successor";
+    private static final String COL_GROUP = "Activity";
+    
+    // Prefix that identifies action rows
+    static final String ACTION_PREFIX = "Action";
+    static final Pattern WHOLE_INT_PATTERN = Pattern.compile("^\\d+\\b");
+    static final Pattern DECIMAL_INT_PATTERN = Pattern.compile("^\\d+\\.\\d+");
+    public String File_Name;
+    
+    // One instance per distinct actor/pin string of the last parse
+    private NameDictionary names = new NameDictionary();
+    
+    
+    /**
+     * Parses an Excel file and returns a list of ActivityData objects.
+     * Only processes rows where the Name column starts with "Action".
+     * 
+     * @param excelFile The Excel file to parse (.xls or .xlsx)
+     * @return List of ActivityData objects parsed from the file
+     * @throws IOException If there's an error reading the file
+     */
+    public List<ActivityData> parseExcel(File excelFile) throws IOException {
+        List<ActivityData> activities = new ArrayList<>();
+        names = new NameDictionary();
+        ImportEvents.Parse event = new ImportEvents.Parse();
+        event.begin();
+        
+        // Determine file type and create appropriate workbook
+        Workbook workbook = null;
+        FileInputStream fis = null;
+        
+        try {
+            fis = new FileInputStream(excelFile);
+            
+            // Create workbook based on file extension
+            if (excelFile.getName().toLowerCase().endsWith(".xlsx")) {
+                workbook = new XSSFWorkbook(fis);
+            } else if (excelFile.getName().toLowerCase().endsWith(".xls")) {
+                workbook = new HSSFWorkbook(fis);
+            } else {
+                throw new IOException("Unsupported file format. Please use .xls or .xlsx files.");
+            }
+            
+            File_Name = excelFile.getName().replaceFirst("\\.[^.]+$",  "");
+            
+            // Get the first sheet (or you could let user select)
+            Sheet sheet = workbook.getSheetAt(0);
+            if (sheet == null) {
+                throw new IOException("Excel file has no sheets");
+            }
+            
+            // Find header row and column indices
+            Map<String, Integer> columnIndices = findColumnIndices(sheet);
+            if (columnIndices == null) {
+                throw new IOException("Could not find required columns (Name, Input, Output) in the Excel file");
+            }
+            
+            // Validate that we have the required columns
+            if (!columnIndices.containsKey(COL_NAME)) {
+                throw new IOException("Required column 'Name' not found in Excel file");
+            }
+            
+            int headerRowIndex = findHeaderRowIndex(sheet, columnIndices);
+            ActivityData currentMainAction = null;
+            // Process data rows (starting after header)
+            for (int rowIndex = headerRowIndex + 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
+                Row row = sheet.getRow(rowIndex);
+                if (row == null) continue;                // skip blank rows
+
+                try {
+                    ActivityData activity = parseRow(row, columnIndices);
+                    if (activity == null) continue;       // row didn’t match any rule
+
+                    // Link sub‑actions to their parent by row ID, names may repeat
+                    activity.setRowId(activities.size());
+                    if (activity.isSubAction()) {
+                        if (currentMainAction != null) {
+                            activity.setParentRow(currentMainAction.getRowId());
+                        } else {
+                            System.err.println("Warning: sub‑action encountered before any main action at row "
+                                               + (rowIndex + 1));
+                        }
+                    } else {                              // it is a main action
+                        currentMainAction = activity;
+                    }
+
+                    activities.add(activity);
+                } catch (Exception e) {
+                    System.err.println("Warning: Error parsing row " + (rowIndex + 1) + ": " + e.getMessage());
+                }
+            }
+            
+        } finally {
+            // Clean up resources
+            if (workbook != null) {
+                try {
+                    workbook.close();
+                } catch (IOException e) {
+                    // Ignore close errors
+                }
+            }
+            if (fis != null) {
+                try {
+                    fis.close();
+                } catch (IOException e) {
+                    // Ignore close errors
+                }
+            }
+        }
+        
+        event.file    = excelFile.getName();
+        event.rows    = activities.size();
+        event.subRows = (int) activities.stream().filter(ActivityData::isSubAction).count();
+        event.commit();
+        return activities;
+    }
+    
+    /**
+     * Finds the column indices for Name, Input, and Output columns.
+     * Searches through the first 10 rows to find the header row.
+     * 
+     * @param sheet The Excel sheet to search
+     * @return Map of column names to their indices, or null if not found
+     */
+    private Map<String, Integer> findColumnIndices(Sheet sheet) {
+        // Search first 10 rows for headers
+        for (int rowIndex = 0; rowIndex < Math.min(10, sheet.getLastRowNum() + 1); rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (row == null) continue;
+            
+            Map<String, Integer> indices = new HashMap<>();
+            
+            // Check each cell in the row
+            for (int colIndex = 0; colIndex < row.getLastCellNum(); colIndex++) {
+                Cell cell = row.getCell(colIndex);
+                String value = getCellValue(cell).toLowerCase();
+                
+                // Look for our column names (case-insensitive);
+                // dependency headers first, "Predecessor Name" is not the name column
+                if (value.contains("predecessor") || value.contains("depends on")) {
+                    indices.put(COL_PREDECESSOR, colIndex);
+                } else if (value.equals("activity") || value.equals("process")) {
+                    // exact match only, "Activity Name" is still the name column
+                    indices.put(COL_GROUP, colIndex);
+                } else if (value.contains("successor")) {
+                    indices.put(COL_SUCCESSOR, colIndex);
+                } else if (value.contains("name")) {
+                    indices.put(COL_NAME, colIndex);
+                } else if (value.contains("input")) {
+                    indices.put(COL_INPUT, colIndex);
+                } else if (value.contains("output")) {
+                    indices.put(COL_OUTPUT, colIndex);
+                } else if (value.contains("actor")) {
+                	indices.put(COL_ACTOR, colIndex);
+                }
+            }
+            
+            // If we found at least the Name column, we've found our header row
+            if (indices.containsKey(COL_NAME)) {
+                return indices;
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Finds the row index of the header row.
+     * 
+     * @param sheet The Excel sheet
+     * @param columnIndices Map containing column indices
+     * @return The row index of the header
+     */
+    private int findHeaderRowIndex(Sheet sheet, Map<String, Integer> columnIndices) {
+        // Find which row contains our headers
+        for (int rowIndex = 0; rowIndex < Math.min(10, sheet.getLastRowNum() + 1); rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (row == null) continue;
+            
+            Cell nameCell = row.getCell(columnIndices.get(COL_NAME));
+            String value = getCellValue(nameCell).toLowerCase();
+            
+            if (value.contains("name")) {
+                return rowIndex;
+            }
+        }
+        
+        return 0; // Default to first row
+    }
+    
+    // return the name of the excel file
+    public String getDiagramName() {
+    	return File_Name;
+    }
+    
+    /**
+     * Shared names of the last parse; hand it to the creator so pins and
+     * lanes are built from the same instances.
+     */
+    public NameDictionary getNames() {
+        return names;
+    }
+    
+    /**
+     * Parses a single row of Excel data into an ActivityData object.
+     * Only processes rows where the Name starts with "Action".
+     * 
+     * @param row The Excel row to parse
+     * @param columnIndices Map of column names to their indices
+     * @return ActivityData object containing the parsed data, or null if not an Action row
+     */
+    private ActivityData parseRow(Row row, Map<String, Integer> columnIndices) {
+        Integer nameIndex = columnIndices.get(COL_NAME);
+        if (nameIndex == null) return null;
+        
+        Integer actorIndex = columnIndices.get(COL_ACTOR);
+        String actor = actorIndex != null ? names.intern(getCellValue(row.getCell(actorIndex))) : "";
+
+        String name = getCellValue(row.getCell(nameIndex)).trim();
+        if (name.isEmpty()) return null;
+        
+
+     // 2.  Decide "sub first, main second"
+        boolean isSub  = DECIMAL_INT_PATTERN.matcher(name).find();      // check *first*
+        boolean isMain = !isSub &&                                     // only if not sub
+                         (name.toLowerCase().startsWith(ACTION_PREFIX.toLowerCase())
+                          || WHOLE_INT_PATTERN.matcher(name).find());
+
+        if (!isMain && !isSub) return null;   // row doesn’t match any rule
+
+        // ---------- build ActivityData ----------
+        ActivityData activity = new ActivityData();
+        activity.setName(name);
+        activity.setSubAction(isSub);         // new helper flag
+        activity.setActor(actor);
+
+        // Optional activity the row belongs to
+        Integer groupIndex = columnIndices.get(COL_GROUP);
+        if (groupIndex != null) {
+            activity.setGroup(names.intern(getCellValue(row.getCell(groupIndex))));
+        }
+
+        // Input pins
+        Integer inputIndex = columnIndices.get(COL_INPUT);
+        if (inputIndex != null) {
+            String inputsString = getCellValue(row.getCell(inputIndex));
+            if (!inputsString.isEmpty()) {
+                activity.setInputs(parseDelimitedString(inputsString));
+            }
+        }
+
+        // Output pins
+        Integer outputIndex = columnIndices.get(COL_OUTPUT);
+        if (outputIndex != null) {
+            String outputsString = getCellValue(row.getCell(outputIndex));
+            if (!outputsString.isEmpty()) {
+                activity.setOutputs(parseDelimitedString(outputsString));
+            }
+        }
+
+        // Optional dependencies (names or outline numbers of other rows)
+        Integer predecessorIndex = columnIndices.get(COL_PREDECESSOR);
+        if (predecessorIndex != null) {
+            String predecessorsString = getCellValue(row.getCell(predecessorIndex));
+            if (!predecessorsString.isEmpty()) {
+                activity.setPredecessors(parseDelimitedString(predecessorsString));
+            }
+        }
+        Integer successorIndex = columnIndices.get(COL_SUCCESSOR);
+        if (successorIndex != null) {
+            String successorsString = getCellValue(row.getCell(successorIndex));
+            if (!successorsString.isEmpty()) {
+                activity.setSuccessors(parseDelimitedString(successorsString));
+            }
+        }
+
+        return activity;
+    }
+    
+    /**
+     * Gets the string value from a cell, handling different cell types.
+     * 
+     * @param cell The cell to read
+     * @return String value of the cell, or empty string if null
+     */
+    private String getCellValue(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue().trim();
+            case NUMERIC:
+                // convert numbers to strings
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return cell.getDateCellValue().toString();
+                } else {
+                    // Remove decimal point for whole numbers
+                    double value = cell.getNumericCellValue();
+                    if (value == Math.floor(value)) {
+                        return String.format("%.0f", value);
+                    } else {
+                        return String.valueOf(value);
+                    }
+                }
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                // Try to evaluate formula
+                try {
+                    return cell.getStringCellValue().trim();
+                } catch (Exception e) {
+                    try {
+                        return String.valueOf(cell.getNumericCellValue());
+                    } catch (Exception e2) {
+                        return "";
+                    }
+                }
+            case BLANK:
+                return "";
+            default:
+                return "";
+        }
+    }
+    
+    /**
+     * Parses a delimited string into a list of trimmed values.
+     * Tries both semicolon and comma as delimiters.
+     * 
+     * @param delimitedString The string to parse
+     * @return List of parsed values
+     */
+    private List<String> parseDelimitedString(String delimitedString) {
+        List<String> values = new ArrayList<>();
+        
+        // Determine which delimiter is used
+        String delimiter = ";";
+        for (String delim : DELIMITERS) {
+            if (delimitedString.contains(delim)) {
+                delimiter = delim;
+                break;
+            }
+        }
+        
+        // Split by delimiter and trim each value
+        String[] valueArray = delimitedString.split(delimiter);
+        
+        for (String value : valueArray) {
+            String trimmedValue = names.intern(value);
+            if (!trimmedValue.isEmpty()) {
+                values.add(trimmedValue);
+            }
+        }
+        
+        // If no delimiter found, treat the whole string as one value
+        if (values.isEmpty() && !delimitedString.trim().isEmpty()) {
+            values.add(names.intern(delimitedString));
+        }
+        
+        return values;
+    }
+    
+    /**
+     * A row name without its outline number: "1.2 Do X" and "3. Do X" give
+     * "Do X". Names without one, or that are only a number, come back trimmed.
+     */
+    static String withoutOutline(String name) {
+        Matcher m = DECIMAL_INT_PATTERN.matcher(name);
+        if (!m.find()) {
+            m = WHOLE_INT_PATTERN.matcher(name);
+            if (!m.find()) return name.trim();
+        }
+        // deeper levels ("1.2.3") and a closing "." or ")" belong to the number too
+        String rest = name.substring(m.end()).replaceFirst("^[\\d.)]*\\s*", "");
+        return rest.isEmpty() ? name.trim() : rest.trim();
+    }
 }
\ No newline at end of file
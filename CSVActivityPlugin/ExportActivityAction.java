@@ -0,0 +1,78 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.actions.MDAction;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.event.ActionEvent;
+import java.io.File;
+
+/**
+ * Context‑menu action that writes an Activity back to an Excel file in the
+ * layout the importer reads, so edits made in the model can be taken back
+ * to the spreadsheet.
+ */
+@SuppressWarnings("serial")
+public class ExportActivityAction extends MDAction {
+
+    private final Activity activity;
+
+    public ExportActivityAction(Activity activity) {
+        super("ExportActivityToExcel", "Export Activity to Excel", null, null);
+        setDescription("Write this activity's actions, sub-actions, pins and actors to an Excel file");
+        this.activity = activity;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        File file = selectTargetFile();
+        if (file == null) return;
+
+        try {
+            ExcelExporter exporter = new ExcelExporter();
+            exporter.export(activity, file);
+            String summary = exporter.summary() + ".\nWritten to " + file.getName() + ".";
+            Application.getInstance().getGUILog().log(summary);
+
+            JOptionPane.showMessageDialog(
+                null,
+                summary,
+                "Export Successful",
+                JOptionPane.INFORMATION_MESSAGE
+            );
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(
+                null,
+                "Error exporting to Excel: " + ex.getMessage(),
+                "Export Error",
+                JOptionPane.ERROR_MESSAGE
+            );
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Shows a save dialog for the .xlsx file.
+     *
+     * @return the chosen file (with .xlsx appended if missing), or null if cancelled
+     */
+    private File selectTargetFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Excel Files (*.xlsx)", "xlsx"));
+        fileChooser.setDialogTitle("Export Activity to Excel");
+        fileChooser.setSelectedFile(new File(activity.getName() + ".xlsx"));
+
+        if (fileChooser.showSaveDialog(null) != JFileChooser.APPROVE_OPTION) return null;
+
+        File file = fileChooser.getSelectedFile();
+        if (!file.getName().toLowerCase().endsWith(".xlsx"))
+            file = new File(file.getParentFile(), file.getName() + ".xlsx");
+
+        if (file.exists() && JOptionPane.showConfirmDialog(null,
+                file.getName() + " already exists. Replace it?", "Export Activity to Excel",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) return null;
+        return file;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.actions.AMConfigurator;
+import com.nomagic.actions.ActionsCategory;
+import com.nomagic.actions.ActionsManager;
+import com.nomagic.magicdraw.actions.BrowserContextAMConfigurator;
+import com.nomagic.magicdraw.ui.browser.Node;
+import com.nomagic.magicdraw.ui.browser.Tree;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+
+/**
+ * Adds "Export Activity to Excel" to the containment‑browser context menu
+ * of an Activity.
+ */
+public class ExportContextConfigurator implements BrowserContextAMConfigurator {
+
+    @Override
+    public void configure(ActionsManager manager, Tree tree) {
+        Node node = tree.getSelectedNode();
+        if (node == null || !(node.getUserObject() instanceof Activity activity)) return;
+
+        ActionsCategory category = new ActionsCategory(null, null);
+        manager.addCategory(category);
+        category.addAction(new ExportActivityAction(activity));
+    }
+
+    @Override
+    public int getPriority() {
+        return AMConfigurator.MEDIUM_PRIORITY;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.csvactivityplugin;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events of the import pipeline, so a slow import can
+ * be profiled with the standard JFR tools (e.g. {@code jcmd <pid> JFR.start},
+ * then JDK Mission Control): parsing, every progress phase of the model
+ * build, the layouters and the import as a whole, each with its duration
+ * and what it worked on.
+ *
+ * Events cost next to nothing while no recording is running.
+ */
+public final class ImportEvents {
+    private ImportEvents() {}
+
+    private static final String CATEGORY = "CSV Activity Import";
+
+    @Name("com.example.csvactivityplugin.Parse")
+    @Label("Parse Workbook")
+    @Category(CATEGORY)
+    @Description("Reading the sheet with POI into rows")
+    public static final class Parse extends Event {
+        @Label("File")     public String file;
+        @Label("Rows")     public int    rows;
+        @Label("Sub-rows") public int    subRows;
+    }
+
+    @Name("com.example.csvactivityplugin.Phase")
+    @Label("Import Phase")
+    @Category(CATEGORY)
+    @Description("One progress phase of the model build")
+    public static final class Phase extends Event {
+        @Label("Phase")         public String phase;
+        @Label("Activity")      public String activity;
+        @Label("Planned Steps") public int    planned;
+        @Label("Steps")         public int    steps;
+    }
+
+    @Name("com.example.csvactivityplugin.Layout")
+    @Label("Layout")
+    @Category(CATEGORY)
+    @Description("Planning or applying the geometry of one diagram")
+    public static final class Layout extends Event {
+        @Label("Layouter") public String layouter;
+        @Label("Nodes")    public int    nodes;
+        @Label("Lanes")    public int    lanes;
+    }
+
+    @Name("com.example.csvactivityplugin.Import")
+    @Label("Import")
+    @Category(CATEGORY)
+    @Description("A whole import, from the open session to its commit")
+    public static final class Import extends Event {
+        @Label("Rows")                public int     rows;
+        @Label("Activities")          public int     activities;
+        @Label("Elements")            public int     elements;
+        @Label("Elements per Second") public double  elementsPerSecond;
+        @Label("Bulk")                public boolean bulk;
+    }
+
+    /** A started layout event; commit it when the layouter is done. */
+    static Layout layout(String layouter, int nodes, int lanes) {
+        Layout e = new Layout();
+        e.begin();
+        e.layouter = layouter;
+        e.nodes    = nodes;
+        e.lanes    = lanes;
+        return e;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.csvactivityplugin;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Splits a sheet into independent activities by its Activity/Process
+ * column and plans them concurrently.
+ *
+ * A main row belongs to the group in its own cell; a sub‑row always goes
+ * with the main row it belongs under, whatever its cell says. Rows
+ * without a group value form one group of their own.
+ */
+public final class ImportGroups {
+    private ImportGroups() {}
+
+    /** name of the group of rows with an empty group cell */
+    public static final String UNGROUPED = "Imported Activities";
+
+    /**
+     * The activities {@code rows} are imported as: split by the group column
+     * if the options ask for it, else all rows as one. An update of an
+     * earlier import is never split, it matches a single Activity.
+     */
+    public static Map<String,List<ActivityData>> of(List<ActivityData> rows, ImportOptions options) {
+        if (!options.isGroupByColumn() || options.isIncrementalUpdate())
+            return Map.of(UNGROUPED, rows);
+        return split(rows);
+    }
+
+    /** group name → its rows, in sheet order; a single entry if nothing is grouped */
+    public static Map<String,List<ActivityData>> split(List<ActivityData> rows) {
+        Map<String,List<ActivityData>> groups = new LinkedHashMap<>();
+        String current = UNGROUPED;
+        for (ActivityData d : rows) {
+            if (!d.isSubAction())
+                current = d.getGroup().isEmpty() ? UNGROUPED : d.getGroup();
+            groups.computeIfAbsent(current, k -> new ArrayList<>()).add(d);
+        }
+        return groups;
+    }
+
+    /**
+     * Compiles one plan per group; several groups are planned in parallel on
+     * the fork/join pool. Planning only reads the rows, so the groups share
+     * nothing but the action types and options.
+     *
+     * @return plans in the order of {@code groups}
+     * @throws Exception the first planning failure (e.g. a dependency cycle),
+     *                   naming its group
+     */
+    public static List<ImportPlan> plan(Map<String,List<ActivityData>> groups,
+                                        ActionTypeChooser.ActionType[] actionTypes,
+                                        ImportOptions options) throws Exception {
+        if (groups.size() == 1)
+            return List.of(ImportPlanner.compile(groups.values().iterator().next(), actionTypes, options));
+
+        /* row IDs are sheet‑wide: one set of row tables for all groups */
+        ImportPlanner.RowTables tables = new ImportPlanner.RowTables(idLimit(groups));
+        List<Callable<ImportPlan>> work = new ArrayList<>(groups.size());
+        for (List<ActivityData> rows : groups.values())
+            work.add(() -> ImportPlanner.compile(rows, actionTypes, options, tables));
+
+        List<Future<ImportPlan>> done = ForkJoinPool.commonPool().invokeAll(work);
+
+        List<ImportPlan> plans = new ArrayList<>(done.size());
+        Iterator<String> names = groups.keySet().iterator();
+        for (Future<ImportPlan> f : done) {
+            String name = names.next();
+            try {
+                plans.add(f.get());
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                throw new Exception(name + ": " + cause.getMessage(), cause);
+            }
+        }
+        return plans;
+    }
+
+    /** length of an array indexed by the row IDs of all groups */
+    public static int idLimit(Map<String,List<ActivityData>> groups) {
+        int limit = 0;
+        for (List<ActivityData> rows : groups.values()) limit = Math.max(limit, ActivityData.idLimit(rows));
+        return limit;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Comment;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Row key → element ID manifest stored on an imported Activity, so a later
+ * import of the same sheet can tell which rows were added, changed or removed.
+ * It is kept in an owned Comment, so it travels with the model.
+ *
+ * Row keys are the outline number of a row ("3", "3.2") when it has one,
+ * otherwise its lower‑cased name; sub‑rows are prefixed with their parent's
+ * key and repeated keys get a "#n" suffix. Each entry also carries a
+ * fingerprint of the row's content.
+ */
+public final class ImportManifest {
+
+    static final String HEADER = "[CSV Import Manifest v1]";
+
+    private static final Pattern OUTLINE_NUMBER = Pattern.compile("^(\\d+(?:\\.\\d+)*)");
+
+    /** one manifest line */
+    public static final class Entry {
+        final String key;
+        final String elementId;
+        final String fingerprint;
+
+        Entry(String key, String elementId, String fingerprint) {
+            this.key = key;
+            this.elementId = elementId;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private final Map<String,Entry> entries = new LinkedHashMap<>();
+
+    public Entry get(String key)            { return entries.get(key); }
+    public Collection<Entry> entries()      { return entries.values(); }
+    public int size()                       { return entries.size(); }
+
+    public void put(String key, String elementId, String fingerprint) {
+        entries.put(key, new Entry(key, elementId, fingerprint));
+    }
+
+    /* =============================================================
+                              ROW KEYS
+       ============================================================= */
+
+    /** Stable keys for every row, index‑aligned with {@code rows}. */
+    public static List<String> rowKeys(List<ActivityData> rows) {
+        List<String> keys = new ArrayList<>(rows.size());
+        Map<String,Integer> seen = new HashMap<>();
+        String parentKey = "";
+
+        for (ActivityData d : rows) {
+            String base = baseKey(d.getName());
+            if (d.isSubAction()) base = parentKey + "/" + base;
+
+            int n = seen.merge(base, 1, Integer::sum);
+            String key = (n == 1) ? base : base + "#" + n;
+            if (!d.isSubAction()) parentKey = key;
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static String baseKey(String name) {
+        Matcher m = OUTLINE_NUMBER.matcher(name);
+        return m.find() ? m.group(1) : name.trim().toLowerCase();
+    }
+
+    /** Hash of everything about a row that ends up in the model. */
+    public static String fingerprint(ActivityData d, ActionTypeChooser.ActionType type) {
+        int h = Objects.hash(d.getName(),
+                             ActivityData.actorName(d.getActor()),
+                             d.getInputs(),
+                             d.getOutputs(),
+                             type);
+        return Integer.toHexString(h);
+    }
+
+    /** Manifest of a full import, from the nodes it created by row ID. */
+    public static ImportManifest forRows(List<ActivityData> rows,
+                                         ActivityNode[] rowNodes,
+                                         ActionTypeChooser.ActionType[] actionTypes) {
+        ImportManifest m = new ImportManifest();
+        List<String> keys = rowKeys(rows);
+        for (int i = 0; i < rows.size(); i++) {
+            ActivityData d = rows.get(i);
+            ActivityNode node = rowNodes[d.getRowId()];
+            if (node == null) continue;
+            m.put(keys.get(i), node.getID(), fingerprint(d, ActionTypeChooser.typeOf(actionTypes, d)));
+        }
+        return m;
+    }
+
+    /* =============================================================
+                           COMMENT STORAGE
+       ============================================================= */
+
+    /** true ⇢ the element carries a manifest, i.e. it is an imported Activity */
+    public static boolean isImported(Element e) {
+        return e instanceof Activity act && findComment(act) != null;
+    }
+
+    /** Reads the manifest of an imported Activity (empty if it has none). */
+    public static ImportManifest read(Activity activity) {
+        ImportManifest m = new ImportManifest();
+        Comment c = findComment(activity);
+        if (c == null || c.getBody() == null) return m;
+
+        String[] lines = c.getBody().split("\n");
+        for (int i = 1; i < lines.length; i++) {          // line 0 is the header
+            String[] cols = lines[i].split("\t");
+            if (cols.length == 3) m.put(cols[0], cols[1], cols[2]);
+        }
+        return m;
+    }
+
+    /** Stores the manifest on the Activity, replacing any previous one. */
+    public void write(Project project, Activity activity) throws ReadOnlyElementException {
+        StringBuilder body = new StringBuilder(HEADER);
+        for (Entry e : entries.values())
+            body.append('\n').append(e.key.replace('\t', ' ').replace('\n', ' '))
+                .append('\t').append(e.elementId)
+                .append('\t').append(e.fingerprint);
+
+        Comment c = findComment(activity);
+        if (c == null) {
+            c = project.getElementsFactory().createCommentInstance();
+            c.getAnnotatedElement().add(activity);
+            ModelElementsManager.getInstance().addElement(c, activity);
+        }
+        c.setBody(body.toString());
+    }
+
+    private static Comment findComment(Activity activity) {
+        for (Comment c : activity.getOwnedComment())
+            if (c.getBody() != null && c.getBody().startsWith(HEADER)) return c;
+        return null;
+    }
+}
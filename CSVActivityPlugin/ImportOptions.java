@@ -0,0 +1,228 @@
+package com.example.csvactivityplugin;
+
+/**
+ * Switches chosen in {@link ImportOptionsDialog} that change how an import
+ * is built. The defaults reproduce the classic behaviour.
+ */
+public class ImportOptions {
+
+    // Record a layout plan per sub-action diagram and build it on first request
+    private boolean lazySubDiagrams = false;
+
+    // Build the main diagram closed and open it once when the import is done
+    private boolean deferDiagramOpen = false;
+
+    // Update a previously imported activity in place instead of creating a new one
+    private boolean incrementalUpdate = false;
+
+    // Split the main flow over several diagrams of this many actions (0 = one diagram)
+    private int pageSize = 0;
+
+    // Wrap the flow into columns so no diagram gets taller than this (0 = one column)
+    private int maxCanvasHeight = 0;
+
+    // Connect output pins to input pins of the same name with object flows
+    private boolean autoObjectFlows = false;
+
+    // Read pin cells as "name : Type" and type the pins with existing classifiers
+    private boolean typedPins = false;
+
+    // With typed pins, create types that are not found in a package chosen at import
+    private boolean createMissingTypes = false;
+
+    // Bind call behavior actions to the Activity of the same name, creating missing ones
+    private boolean resolveCallBehaviors = false;
+
+    // Give every Activity created for a call behavior action its own diagram
+    private boolean behaviorDiagrams = false;
+
+    // Let every swimlane represent the Block or Actor named like its actor
+    private boolean resolveActors = false;
+
+    // Only look for those Blocks/Actors in a package chosen at import
+    private boolean scopeActorSearch = false;
+
+    // Wire main actions along the Predecessor/Successor columns instead of row order
+    private boolean dependencyFlows = false;
+
+    // Branch and join dependencies with Decision/Merge instead of Fork/Join nodes
+    private boolean decisionBranches = false;
+
+    // Lay the main diagram out in layers along its flows (for branching flows)
+    private boolean layeredLayout = false;
+
+    // Copy sub-diagrams with the same lanes from one prototype diagram
+    private boolean templateSubDiagrams = false;
+
+    // Show the action type dialog even when a saved preset would skip it
+    private boolean reviewActionTypes = false;
+
+    // One Activity per value of the Activity/Process column, planned in parallel
+    private boolean groupByColumn = false;
+
+    // Import into a new package in committed batches without undo history
+    private boolean bulkImport = false;
+
+    // Only plan the import and show what it would create; nothing is changed
+    private boolean dryRun = false;
+
+    public boolean isLazySubDiagrams() {
+        return lazySubDiagrams;
+    }
+
+    public void setLazySubDiagrams(boolean lazySubDiagrams) {
+        this.lazySubDiagrams = lazySubDiagrams;
+    }
+
+    public boolean isDeferDiagramOpen() {
+        return deferDiagramOpen;
+    }
+
+    public void setDeferDiagramOpen(boolean deferDiagramOpen) {
+        this.deferDiagramOpen = deferDiagramOpen;
+    }
+
+    public boolean isIncrementalUpdate() {
+        return incrementalUpdate;
+    }
+
+    public void setIncrementalUpdate(boolean incrementalUpdate) {
+        this.incrementalUpdate = incrementalUpdate;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = Math.max(0, pageSize);
+    }
+
+    public int getMaxCanvasHeight() {
+        return maxCanvasHeight;
+    }
+
+    public void setMaxCanvasHeight(int maxCanvasHeight) {
+        this.maxCanvasHeight = Math.max(0, maxCanvasHeight);
+    }
+
+    public boolean isAutoObjectFlows() {
+        return autoObjectFlows;
+    }
+
+    public void setAutoObjectFlows(boolean autoObjectFlows) {
+        this.autoObjectFlows = autoObjectFlows;
+    }
+
+    public boolean isTypedPins() {
+        return typedPins;
+    }
+
+    public void setTypedPins(boolean typedPins) {
+        this.typedPins = typedPins;
+    }
+
+    public boolean isCreateMissingTypes() {
+        return createMissingTypes;
+    }
+
+    public void setCreateMissingTypes(boolean createMissingTypes) {
+        this.createMissingTypes = createMissingTypes;
+    }
+
+    public boolean isResolveCallBehaviors() {
+        return resolveCallBehaviors;
+    }
+
+    public void setResolveCallBehaviors(boolean resolveCallBehaviors) {
+        this.resolveCallBehaviors = resolveCallBehaviors;
+    }
+
+    public boolean isBehaviorDiagrams() {
+        return behaviorDiagrams;
+    }
+
+    public void setBehaviorDiagrams(boolean behaviorDiagrams) {
+        this.behaviorDiagrams = behaviorDiagrams;
+    }
+
+    public boolean isResolveActors() {
+        return resolveActors;
+    }
+
+    public void setResolveActors(boolean resolveActors) {
+        this.resolveActors = resolveActors;
+    }
+
+    public boolean isScopeActorSearch() {
+        return scopeActorSearch;
+    }
+
+    public void setScopeActorSearch(boolean scopeActorSearch) {
+        this.scopeActorSearch = scopeActorSearch;
+    }
+
+    public boolean isDependencyFlows() {
+        return dependencyFlows;
+    }
+
+    public void setDependencyFlows(boolean dependencyFlows) {
+        this.dependencyFlows = dependencyFlows;
+    }
+
+    public boolean isDecisionBranches() {
+        return decisionBranches;
+    }
+
+    public void setDecisionBranches(boolean decisionBranches) {
+        this.decisionBranches = decisionBranches;
+    }
+
+    public boolean isLayeredLayout() {
+        return layeredLayout;
+    }
+
+    public void setLayeredLayout(boolean layeredLayout) {
+        this.layeredLayout = layeredLayout;
+    }
+
+    public boolean isTemplateSubDiagrams() {
+        return templateSubDiagrams;
+    }
+
+    public void setTemplateSubDiagrams(boolean templateSubDiagrams) {
+        this.templateSubDiagrams = templateSubDiagrams;
+    }
+
+    public boolean isReviewActionTypes() {
+        return reviewActionTypes;
+    }
+
+    public void setReviewActionTypes(boolean reviewActionTypes) {
+        this.reviewActionTypes = reviewActionTypes;
+    }
+
+    public boolean isGroupByColumn() {
+        return groupByColumn;
+    }
+
+    public void setGroupByColumn(boolean groupByColumn) {
+        this.groupByColumn = groupByColumn;
+    }
+
+    public boolean isBulkImport() {
+        return bulkImport;
+    }
+
+    public void setBulkImport(boolean bulkImport) {
+        this.bulkImport = bulkImport;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.csvactivityplugin;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Dialog shown before an import that lets the user pick the
+ * {@link ImportOptions} for this run.
+ */
+public class ImportOptionsDialog extends JDialog {
+
+    private final ImportOptions options = new ImportOptions();
+    private final JPanel optionsPanel = new JPanel();
+    private boolean userConfirmed = false;
+
+    private JCheckBox lazySubDiagramsBox;
+    private JCheckBox deferDiagramOpenBox;
+    private JCheckBox incrementalUpdateBox;
+    private JCheckBox pagedBox;
+    private JSpinner  pageSizeSpinner;
+    private JCheckBox serpentineBox;
+    private JSpinner  maxHeightSpinner;
+    private JCheckBox autoObjectFlowsBox;
+    private JCheckBox typedPinsBox;
+    private JCheckBox createMissingTypesBox;
+    private JCheckBox resolveCallBehaviorsBox;
+    private JCheckBox behaviorDiagramsBox;
+    private JCheckBox resolveActorsBox;
+    private JCheckBox scopeActorSearchBox;
+    private JCheckBox dependencyFlowsBox;
+    private JCheckBox decisionBranchesBox;
+    private JCheckBox layeredLayoutBox;
+    private JCheckBox templateSubDiagramsBox;
+    private JCheckBox reviewActionTypesBox;
+    private JCheckBox groupByColumnBox;
+    private JCheckBox bulkImportBox;
+    private JCheckBox dryRunBox;
+
+    /**
+     * Creates a new ImportOptionsDialog.
+     *
+     * @param parent The parent frame for this dialog
+     */
+    public ImportOptionsDialog(Frame parent) {
+        super(parent, "Import Options", true);
+        initializeUI();
+        setupDialog();
+    }
+
+    /**
+     * Initializes the user interface components.
+     */
+    private void initializeUI() {
+        setLayout(new BorderLayout());
+
+        JPanel headerPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JLabel headerLabel = new JLabel("Choose how the activity should be imported:");
+        headerLabel.setFont(headerLabel.getFont().deriveFont(Font.BOLD));
+        headerPanel.add(headerLabel);
+        add(headerPanel, BorderLayout.NORTH);
+
+        optionsPanel.setLayout(new BoxLayout(optionsPanel, BoxLayout.Y_AXIS));
+        optionsPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+
+        lazySubDiagramsBox = addOption(
+            "Build sub-action diagrams on demand",
+            "Only the model elements are created; each sub-action diagram is built " +
+            "the first time it is requested from the action's context menu.",
+            options.isLazySubDiagrams());
+
+        deferDiagramOpenBox = addOption(
+            "Open the main diagram when the import is finished",
+            "The diagram is built closed, so adding swimlanes, nodes, pins and paths " +
+            "does not repaint the canvas; it is opened once at the end.",
+            options.isDeferDiagramOpen());
+
+        incrementalUpdateBox = addOption(
+            "Update a previous import in place",
+            "Select the earlier imported activity (or its owner) as the parent. Only the " +
+            "rows that were added, changed or removed since then are applied; everything " +
+            "else keeps its element and diagram position.",
+            options.isIncrementalUpdate());
+
+        pagedBox = addOption(
+            "Split the main diagram into pages",
+            "Each page is its own diagram with the number of actions below; the node " +
+            "before and after a page is repeated on it so the flow can be followed.",
+            options.getPageSize() > 0);
+        pageSizeSpinner = addSpinner("Actions per page:",
+            options.getPageSize() > 0 ? options.getPageSize() : 50, 5, 5000, 5);
+        pageSizeSpinner.setEnabled(pagedBox.isSelected());
+        pagedBox.addActionListener(e -> pageSizeSpinner.setEnabled(pagedBox.isSelected()));
+
+        serpentineBox = addOption(
+            "Wrap the flow into columns",
+            "Instead of one row per action, the flow runs down one column, up the next " +
+            "and so on inside every swimlane, so diagrams stay below the height below.",
+            options.getMaxCanvasHeight() > 0);
+        maxHeightSpinner = addSpinner("Maximum diagram height (px):",
+            options.getMaxCanvasHeight() > 0 ? options.getMaxCanvasHeight() : 3000, 600, 50000, 100);
+        maxHeightSpinner.setEnabled(serpentineBox.isSelected());
+        serpentineBox.addActionListener(e -> maxHeightSpinner.setEnabled(serpentineBox.isSelected()));
+
+        autoObjectFlowsBox = addOption(
+            "Connect pins with object flows",
+            "Every input pin is fed from the closest earlier output pin with the same " +
+            "name, on the main diagram and between sub-actions.",
+            options.isAutoObjectFlows());
+
+        typedPinsBox = addOption(
+            "Type pins from \"name : Type\" cells",
+            "The part after the colon is looked up among the project's Blocks, " +
+            "ValueTypes and other classifiers, by simple or qualified (Pkg::Type) name.",
+            options.isTypedPins());
+        createMissingTypesBox = addOption(
+            "Create types that do not exist yet",
+            "Unknown types are created as Blocks in a package you choose during the import.",
+            options.isCreateMissingTypes());
+        createMissingTypesBox.setEnabled(typedPinsBox.isSelected());
+        typedPinsBox.addActionListener(e -> createMissingTypesBox.setEnabled(typedPinsBox.isSelected()));
+
+        resolveCallBehaviorsBox = addOption(
+            "Bind call behavior actions to activities",
+            "Each call behavior action calls the Activity with its name (or qualified " +
+            "name); missing ones are created in a \"" + BehaviorResolver.PACKAGE_NAME +
+            "\" package with a parameter per pin.",
+            options.isResolveCallBehaviors());
+        behaviorDiagramsBox = addOption(
+            "Create a diagram for every new behavior",
+            "Activities created for call behavior actions get their own activity diagram.",
+            options.isBehaviorDiagrams());
+        behaviorDiagramsBox.setEnabled(resolveCallBehaviorsBox.isSelected());
+        resolveCallBehaviorsBox.addActionListener(
+            e -> behaviorDiagramsBox.setEnabled(resolveCallBehaviorsBox.isSelected()));
+
+        resolveActorsBox = addOption(
+            "Swimlanes represent existing Blocks or Actors",
+            "Each lane's «represents» is set to the Block or Actor named like the " +
+            "actor. Names that match several elements are reported and left unset.",
+            options.isResolveActors());
+        scopeActorSearchBox = addOption(
+            "Only search one package for them",
+            "You choose the package during the import; useful when names repeat across " +
+            "the project.",
+            options.isScopeActorSearch());
+        scopeActorSearchBox.setEnabled(resolveActorsBox.isSelected());
+        resolveActorsBox.addActionListener(
+            e -> scopeActorSearchBox.setEnabled(resolveActorsBox.isSelected()));
+
+        dependencyFlowsBox = addOption(
+            "Follow the Predecessor/Successor columns",
+            "Main actions are connected as the columns say instead of in row order, " +
+            "with Fork and Join nodes where the flow splits and meets. Cycles are rejected.",
+            options.isDependencyFlows());
+        decisionBranchesBox = addOption(
+            "Use Decision/Merge instead of Fork/Join",
+            "For sheets where the branches are alternatives rather than parallel work.",
+            options.isDecisionBranches());
+        decisionBranchesBox.setEnabled(dependencyFlowsBox.isSelected());
+        dependencyFlowsBox.addActionListener(
+            e -> decisionBranchesBox.setEnabled(dependencyFlowsBox.isSelected()));
+
+        layeredLayoutBox = addOption(
+            "Layered layout of the main diagram",
+            "Actions are arranged in rows along the flow, side by side where it branches, " +
+            "and ordered to keep crossing edges down. Takes precedence over column wrapping.",
+            options.isLayeredLayout());
+
+        templateSubDiagramsBox = addOption(
+            "Copy sub-diagrams from lane templates",
+            "Sub-diagrams with the same swimlanes are copied from one prototype instead of " +
+            "being drawn lane by lane, and share its partitions. Faster with many " +
+            "sub-diagrams. Not used with sub-diagrams built on first open.",
+            options.isTemplateSubDiagrams());
+        templateSubDiagramsBox.setEnabled(!lazySubDiagramsBox.isSelected());
+        lazySubDiagramsBox.addActionListener(
+            e -> templateSubDiagramsBox.setEnabled(!lazySubDiagramsBox.isSelected()));
+
+        reviewActionTypesBox = addOption(
+            "Always review action types",
+            "Shows the action type dialog even if a rule preset saved for this workbook or " +
+            "project is set to skip it. The preset's rules are filled in for review.",
+            options.isReviewActionTypes());
+
+        groupByColumnBox = addOption(
+            "One activity per Activity/Process column value",
+            "If the sheet has an Activity or Process column, each of its values becomes an " +
+            "Activity with its own diagram; the activities are planned in parallel. " +
+            "Sub-actions go with their main action. Not used when updating an earlier import.",
+            options.isGroupByColumn());
+
+        bulkImportBox = addOption(
+            "Bulk import into a new package (no undo)",
+            "For very large sheets. The import goes into a new package and is committed in " +
+            "batches without undo history, which saves much of its memory and time. " +
+            "To roll it back, delete that package. Not used when updating an earlier import.",
+            options.isBulkImport());
+
+        dryRunBox = addOption(
+            "Preview only (dry run)",
+            "Plans the import with the options above and shows how many elements, pins and " +
+            "diagrams it would create, how big the diagrams get and roughly how long it takes. " +
+            "The project is not changed.",
+            options.isDryRun());
+
+        add(new JScrollPane(optionsPanel), BorderLayout.CENTER);
+
+        createButtonPanel();
+    }
+
+    /**
+     * Adds one check box with a short explanation underneath.
+     */
+    private JCheckBox addOption(String label, String description, boolean selected) {
+        JCheckBox box = new JCheckBox(label, selected);
+        box.setAlignmentX(Component.LEFT_ALIGNMENT);
+        optionsPanel.add(box);
+
+        JLabel info = new JLabel("<html><div style='width:420px'>" + description + "</div></html>");
+        info.setFont(info.getFont().deriveFont(Font.PLAIN, 11f));
+        info.setBorder(BorderFactory.createEmptyBorder(0, 24, 8, 0));
+        info.setAlignmentX(Component.LEFT_ALIGNMENT);
+        optionsPanel.add(info);
+        return box;
+    }
+
+    /**
+     * Adds a labelled number field, indented under the option it belongs to.
+     */
+    private JSpinner addSpinner(String label, int value, int min, int max, int step) {
+        JPanel row = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        row.setBorder(BorderFactory.createEmptyBorder(0, 19, 8, 0));
+        row.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        JSpinner spinner = new JSpinner(new SpinnerNumberModel(value, min, max, step));
+        row.add(new JLabel(label));
+        row.add(spinner);
+        optionsPanel.add(row);
+        return spinner;
+    }
+
+    /**
+     * Creates the button panel at the bottom of the dialog.
+     */
+    private void createButtonPanel() {
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+
+        JButton okButton = new JButton("OK");
+        okButton.addActionListener(e -> {
+            userConfirmed = true;
+            dispose();
+        });
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            userConfirmed = false;
+            dispose();
+        });
+
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(okButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Copies the check box states into the options object.
+     */
+    private void readOptions() {
+        options.setLazySubDiagrams(lazySubDiagramsBox.isSelected());
+        options.setDeferDiagramOpen(deferDiagramOpenBox.isSelected());
+        options.setIncrementalUpdate(incrementalUpdateBox.isSelected());
+        options.setPageSize(pagedBox.isSelected() ? (Integer) pageSizeSpinner.getValue() : 0);
+        options.setMaxCanvasHeight(serpentineBox.isSelected() ? (Integer) maxHeightSpinner.getValue() : 0);
+        options.setAutoObjectFlows(autoObjectFlowsBox.isSelected());
+        options.setTypedPins(typedPinsBox.isSelected());
+        options.setCreateMissingTypes(typedPinsBox.isSelected() && createMissingTypesBox.isSelected());
+        options.setResolveCallBehaviors(resolveCallBehaviorsBox.isSelected());
+        options.setBehaviorDiagrams(resolveCallBehaviorsBox.isSelected() && behaviorDiagramsBox.isSelected());
+        options.setResolveActors(resolveActorsBox.isSelected());
+        options.setScopeActorSearch(resolveActorsBox.isSelected() && scopeActorSearchBox.isSelected());
+        options.setDependencyFlows(dependencyFlowsBox.isSelected());
+        options.setDecisionBranches(dependencyFlowsBox.isSelected() && decisionBranchesBox.isSelected());
+        options.setLayeredLayout(layeredLayoutBox.isSelected());
+        options.setTemplateSubDiagrams(!lazySubDiagramsBox.isSelected() && templateSubDiagramsBox.isSelected());
+        options.setReviewActionTypes(reviewActionTypesBox.isSelected());
+        options.setGroupByColumn(groupByColumnBox.isSelected());
+        options.setBulkImport(bulkImportBox.isSelected());
+        options.setDryRun(dryRunBox.isSelected());
+    }
+
+    /**
+     * Sets up the dialog properties.
+     */
+    private void setupDialog() {
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        setSize(560, 960);
+        setLocationRelativeTo(getParent());
+        setResizable(true);
+    }
+
+    /**
+     * Shows the dialog and waits for user input.
+     *
+     * @return the chosen options, or null if cancelled
+     */
+    public ImportOptions showDialog() {
+        setVisible(true);
+
+        if (userConfirmed) {
+            readOptions();
+            return options;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Static convenience method to show the dialog and get results.
+     *
+     * @param parent The parent frame
+     * @return the chosen options, or null if cancelled
+     */
+    public static ImportOptions chooseOptions(Frame parent) {
+        ImportOptionsDialog dialog = new ImportOptionsDialog(parent);
+        return dialog.showDialog();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.csvactivityplugin;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Everything an import will create, compiled from the parsed rows by
+ * {@link ImportPlanner} before the session opens: the main lanes, every
+ * node with its owner and lane, every control flow, and the geometry of
+ * each diagram. {@link ImportPlanExecutor} then applies it in one pass.
+ *
+ * Nodes are numbered in creation order; an owner is either
+ * {@link #ACTIVITY} or the id of the structured node holding it, which
+ * always comes earlier. The plan is immutable and holds no model
+ * elements, so it can be built off the EDT, kept, and inspected or tested
+ * without Cameo.
+ */
+public final class ImportPlan {
+
+    /** owner id of nodes and flows that belong to the imported Activity itself */
+    public static final int ACTIVITY = -1;
+
+    public enum Kind {
+        INITIAL, FINAL, STRUCTURED, CALL_BEHAVIOR, FORK, JOIN, DECISION, MERGE;
+
+        public boolean isAction() { return this == STRUCTURED || this == CALL_BEHAVIOR; }
+    }
+
+    /** one node to create */
+    public static final class Node {
+        private final int          id;
+        private final Kind         kind;
+        private final String       name;
+        private final int          owner;
+        private final String       lane;     // null ⇒ no partition
+        private final ActivityData row;      // null for control nodes
+
+        Node(int id, Kind kind, String name, int owner, String lane, ActivityData row) {
+            this.id = id;  this.kind = kind;  this.name = name;
+            this.owner = owner;  this.lane = lane;  this.row = row;
+        }
+
+        public int          getId()    { return id; }
+        public Kind         getKind()  { return kind; }
+        public String       getName()  { return name; }
+        public int          getOwner() { return owner; }
+        public String       getLane()  { return lane; }
+        public ActivityData getRow()   { return row; }
+    }
+
+    /** one control flow to create, owned like its ends */
+    public static final class Flow {
+        private final int source, target, owner;
+
+        Flow(int source, int target, int owner) {
+            this.source = source;  this.target = target;  this.owner = owner;
+        }
+
+        public int getSource() { return source; }
+        public int getTarget() { return target; }
+        public int getOwner()  { return owner; }
+    }
+
+    /**
+     * One diagram: the nodes it shows, in layout order and index‑aligned with
+     * the geometry ({@code -1} keeps an empty slot), and its geometry.
+     * A null geometry means the layout is worked out in the session.
+     */
+    public static final class DiagramPlan {
+        private final int             owner;
+        private final List<Integer>   nodes;
+        private final DiagramGeometry geometry;
+
+        DiagramPlan(int owner, List<Integer> nodes, DiagramGeometry geometry) {
+            this.owner = owner;
+            this.nodes = Collections.unmodifiableList(nodes);
+            this.geometry = geometry;
+        }
+
+        public int             getOwner()    { return owner; }
+        public List<Integer>   getNodes()    { return nodes; }
+        public DiagramGeometry getGeometry() { return geometry; }
+    }
+
+    private final List<String>                mainLanes;
+    private final List<Node>                  nodes;
+    private final List<Flow>                  flows;
+    private final DiagramPlan                 mainDiagram;
+    private final boolean                     paged;
+    private final List<DiagramPlan>           subDiagrams;
+    private final List<DiagramGeometry>       subLayouts;
+    private final List<String>                warnings;
+
+    ImportPlan(List<String> mainLanes, List<Node> nodes, List<Flow> flows,
+               DiagramPlan mainDiagram, boolean paged, List<DiagramPlan> subDiagrams,
+               DiagramGeometry[] subLayouts, List<String> warnings) {
+        this.mainLanes   = Collections.unmodifiableList(mainLanes);
+        this.nodes       = Collections.unmodifiableList(nodes);
+        this.flows       = Collections.unmodifiableList(flows);
+        this.mainDiagram = mainDiagram;
+        this.paged       = paged;
+        this.subDiagrams = Collections.unmodifiableList(subDiagrams);
+        this.subLayouts  = Collections.unmodifiableList(Arrays.asList(subLayouts));
+        this.warnings    = Collections.unmodifiableList(warnings);
+    }
+
+    /** actors of the main rows, in lane order */
+    public List<String> getMainLanes()                   { return mainLanes; }
+
+    /** every node, in creation order; {@code getNodes().get(id)} has that id */
+    public List<Node> getNodes()                         { return nodes; }
+
+    public List<Flow> getFlows()                         { return flows; }
+
+    /** main diagram; its geometry is null for the grid layout and for pages */
+    public DiagramPlan getMainDiagram()                  { return mainDiagram; }
+
+    /** true ⇢ the main flow is split over page diagrams */
+    public boolean isPaged()                             { return paged; }
+
+    /** one per structured node with sub‑actions */
+    public List<DiagramPlan> getSubDiagrams()            { return subDiagrams; }
+
+    /** sub‑diagram geometry by parent row ID (null for other rows), as used by re‑imports */
+    public List<DiagramGeometry> getSubLayouts()         { return subLayouts; }
+
+    /** things the planner noticed but could work around */
+    public List<String> getWarnings()                    { return warnings; }
+
+    /* -------- counts -------- */
+
+    public int count(Kind kind) {
+        int n = 0;
+        for (Node node : nodes) if (node.kind == kind) n++;
+        return n;
+    }
+
+    /** input and output pins of all actions */
+    public int pinCount() {
+        int n = 0;
+        for (Node node : nodes)
+            if (node.row != null) n += node.row.getInputs().size() + node.row.getOutputs().size();
+        return n;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies an {@link ImportPlan} inside the running session. The model is
+ * created in one pass over the plan's nodes (owners always come first),
+ * then its flows; no decisions are taken here. Sub‑diagrams are built
+ * from (or, when lazy, registered with) the planned geometry.
+ *
+ * @param <S> a symbol on a diagram of the {@link ActivityBuilder}
+ * @param <D> a diagram of the {@link ActivityBuilder}
+ */
+public class ImportPlanExecutor<S, D extends S> {
+
+    /** bulk imports commit a batch after this many nodes … */
+    private static final int CHECKPOINT_NODES    = 2000;
+    /** … and after this many sub‑diagrams */
+    private static final int CHECKPOINT_DIAGRAMS = 50;
+
+    private final ActivityBuilder<S,D> builder;
+
+    /* run between batches (null ⇒ one batch) */
+    private Runnable checkpoint;
+
+    /* one step per node, flow and sub‑diagram; throws when cancelled */
+    private ImportProgress progress = ImportProgress.silent();
+
+    public ImportPlanExecutor(ActivityBuilder<S,D> builder) {
+        this.builder = builder;
+    }
+
+    /** Runs {@code checkpoint} every few thousand nodes and every few dozen sub‑diagrams. */
+    public void setCheckpoint(Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public void setProgress(ImportProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Creates every node and control flow of the plan.
+     *
+     * @param partitions main lanes by actor name
+     * @param rowNodes   filled with the node created for each row, by row ID
+     * @return the created nodes, indexed by plan node id
+     */
+    public ActivityNode[] createModel(ImportPlan plan,
+                                      Activity activity,
+                                      Map<String,ActivityPartition> partitions,
+                                      ActivityNode[] rowNodes)
+            throws ReadOnlyElementException {
+
+        ModelApi<S,D> api = builder.getApi();
+        List<ImportPlan.Node> nodes = plan.getNodes();
+        ActivityNode[] made = new ActivityNode[nodes.size()];
+
+        /* -------- nodes -------- */
+        for (ImportPlan.Node n : nodes) {
+            boolean main = n.getOwner() == ImportPlan.ACTIVITY;
+            ActivityNode node;
+
+            switch (n.getKind()) {
+                case STRUCTURED:
+                case CALL_BEHAVIOR:
+                    ActionTypeChooser.ActionType t = (n.getKind() == ImportPlan.Kind.CALL_BEHAVIOR)
+                            ? ActionTypeChooser.ActionType.CALL_BEHAVIOR
+                            : ActionTypeChooser.ActionType.STRUCTURED_ACTIVITY;
+                    // sub‑actions find their own lane in the owning Activity
+                    node = main ? builder.createMainAction(activity, n.getRow(), t)
+                                : builder.createSubAction(made[n.getOwner()], n.getRow(), t);
+                    rowNodes[n.getRow().getRowId()] = node;
+                    break;
+                default:
+                    node = api.createControlNode(n.getKind());
+                    if (n.getName() != null) node.setName(n.getName());
+                    api.addElement(node, owner(activity, made, n.getOwner()));
+            }
+
+            if (main && n.getLane() != null) {
+                ActivityPartition lane = partitions.get(n.getLane());
+                if (lane != null) lane.getNode().add(node);
+            }
+            made[n.getId()] = node;
+            progress.step();
+            if (checkpoint != null && (n.getId() + 1) % CHECKPOINT_NODES == 0) checkpoint.run();
+        }
+
+        /* -------- control flows -------- */
+        for (ImportPlan.Flow fl : plan.getFlows()) {
+            ControlFlow cf = api.createControlFlow();
+            cf.setSource(made[fl.getSource()]);
+            cf.setTarget(made[fl.getTarget()]);
+            api.addElement(cf, owner(activity, made, fl.getOwner()));
+            progress.step();
+        }
+        return made;
+    }
+
+    /**
+     * Builds every planned sub‑diagram, or with {@code lazy} only records
+     * its geometry so {@link SubdiagramMaterializer} builds it on first open.
+     */
+    public void createSubDiagrams(ImportPlan plan, ActivityNode[] made, boolean lazy)
+            throws ReadOnlyElementException {
+
+        int built = 0;
+        for (ImportPlan.DiagramPlan d : plan.getSubDiagrams()) {
+            progress.step();
+            StructuredActivityNode parent = (StructuredActivityNode) made[d.getOwner()];
+            if (lazy) {
+                builder.deferSubactionDiagram(parent, d.getGeometry());
+                continue;
+            }
+            builder.buildSubactionDiagram(parent, nodesOf(d, made), d.getGeometry());
+            if (checkpoint != null && ++built % CHECKPOINT_DIAGRAMS == 0) checkpoint.run();
+        }
+    }
+
+    /** the diagram's nodes, index‑aligned with its geometry (null for empty slots) */
+    public static List<ActivityNode> nodesOf(ImportPlan.DiagramPlan d, ActivityNode[] made) {
+        List<ActivityNode> out = new ArrayList<>(d.getNodes().size());
+        for (int id : d.getNodes()) out.add(id < 0 ? null : made[id]);
+        return out;
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static Element owner(Activity activity, ActivityNode[] made, int owner) {
+        return (owner == ImportPlan.ACTIVITY) ? activity : made[owner];
+    }
+}
@@ -0,0 +1,310 @@
+package com.example.csvactivityplugin;
+
+import java.util.*;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Compiles parsed rows into an {@link ImportPlan}. Everything that only
+ * depends on the sheet and the chosen options is decided here, outside the
+ * session: which nodes exist and who owns them, lanes, control flows
+ * (a chain, or the dependency graph of the Predecessor/Successor columns),
+ * paging, and the geometry of every diagram that can be planned up front.
+ */
+public final class ImportPlanner {
+
+    private final List<ActivityData>             rows;
+    private final ActionTypeChooser.ActionType[] actionTypes;
+    private final ImportOptions                  options;
+
+    private final List<String>           mainLanes = new ArrayList<>();
+    private final Set<String>            laneSet   = new LinkedHashSet<>();
+    private final List<ImportPlan.Node>  nodes     = new ArrayList<>();
+    private final List<ImportPlan.Flow>  flows     = new ArrayList<>();
+    private final List<Integer>          mainNodes = new ArrayList<>();
+    private final List<String>           warnings  = new ArrayList<>();
+
+    /**
+     * Tables indexed by row ID. Row IDs are sheet‑wide, so the groups of one
+     * sheet share a single set, allocated once; each group only touches the
+     * slots of its own rows.
+     */
+    static final class RowTables {
+        /** row ID of a main action → its node id in its group's plan (-1 for other rows) */
+        final int[]             mainOfRow;
+        /** row ID of a parent → geometry of its sub‑diagram */
+        final DiagramGeometry[] subLayouts;
+
+        RowTables(int idLimit) {
+            mainOfRow  = new int[idLimit];
+            subLayouts = new DiagramGeometry[idLimit];
+            Arrays.fill(mainOfRow, -1);
+        }
+    }
+
+    private final int[]                      mainOfRow;
+    private final DiagramGeometry[]          subLayouts;
+    private final Map<Integer,List<Integer>> subsOf = new LinkedHashMap<>();
+
+    private ImportPlanner(List<ActivityData> rows,
+                          ActionTypeChooser.ActionType[] actionTypes,
+                          ImportOptions options,
+                          RowTables tables) {
+        this.rows        = rows;
+        this.actionTypes = actionTypes;
+        this.options     = options;
+        this.mainOfRow   = tables.mainOfRow;
+        this.subLayouts  = tables.subLayouts;
+    }
+
+    /**
+     * @throws Exception if the Predecessor/Successor columns contain a cycle
+     */
+    public static ImportPlan compile(List<ActivityData> rows,
+                                     ActionTypeChooser.ActionType[] actionTypes,
+                                     ImportOptions options) throws Exception {
+        return compile(rows, actionTypes, options, new RowTables(ActivityData.idLimit(rows)));
+    }
+
+    /** As above, with row tables shared by all groups of the sheet. */
+    static ImportPlan compile(List<ActivityData> rows,
+                              ActionTypeChooser.ActionType[] actionTypes,
+                              ImportOptions options,
+                              RowTables tables) throws Exception {
+        return new ImportPlanner(rows, actionTypes, options, tables).run();
+    }
+
+    private ImportPlan run() throws Exception {
+        for (ActivityData d : rows)
+            if (!d.isSubAction()) laneSet.add(ActivityData.actorName(d.getActor()));
+        mainLanes.addAll(laneSet);
+
+        /* sub‑diagram geometry by parent row, in parallel */
+        SubdiagramLayoutPlanner.planAll(rows, subLayouts, START_Y - 50, START_Y, Y_STEP,
+                                        options.getMaxCanvasHeight());
+
+        /* -------- main flow -------- */
+        DependencyGraph graph = options.isDependencyFlows() ? dependencyGraph() : null;
+        if (graph == null) planChain();
+        else               planGraph(graph);
+
+        /* -------- sub‑action flows and their diagrams -------- */
+        List<ImportPlan.DiagramPlan> subDiagrams = new ArrayList<>();
+        for (Map.Entry<Integer,List<Integer>> e : subsOf.entrySet()) {
+            int parent = e.getKey();
+            List<Integer> subs = e.getValue();
+
+            int start = add(ImportPlan.Kind.INITIAL, "Start", parent, null, null);
+            int end   = add(ImportPlan.Kind.FINAL,   "End",   parent, null, null);
+
+            List<Integer> shown = new ArrayList<>(subs.size() + 2);
+            shown.add(start);
+            int prev = start;
+            for (int s : subs) {
+                flows.add(new ImportPlan.Flow(prev, s, parent));
+                shown.add(s);
+                prev = s;
+            }
+            flows.add(new ImportPlan.Flow(prev, end, parent));
+            shown.add(end);
+
+            DiagramGeometry g = subLayouts[nodes.get(parent).getRow().getRowId()];
+            subDiagrams.add(new ImportPlan.DiagramPlan(parent, shown, g));
+        }
+
+        /* -------- main diagram -------- */
+        int actions = 0;
+        for (int id : mainNodes) if (nodes.get(id).getKind().isAction()) actions++;
+        boolean paged = options.getPageSize() > 0 && actions > options.getPageSize();
+
+        DiagramGeometry mainGeometry = null;
+        if (!paged && (options.isLayeredLayout() || options.getMaxCanvasHeight() > 0))
+            mainGeometry = planMainGeometry();
+
+        return new ImportPlan(mainLanes, nodes, flows,
+                              new ImportPlan.DiagramPlan(ImportPlan.ACTIVITY, mainNodes, mainGeometry),
+                              paged, subDiagrams, subLayouts, warnings);
+    }
+
+    /* =============================================================
+                               MAIN FLOW
+       ============================================================= */
+
+    /** Start → main rows in sheet order → End */
+    private void planChain() {
+        String firstLane = mainLanes.isEmpty() ? null : mainLanes.get(0);
+        int prev = addMain(ImportPlan.Kind.INITIAL, "Start", firstLane, null);
+
+        for (ActivityData d : rows) {
+            if (d.isSubAction()) {
+                planSub(d);
+                continue;
+            }
+            int main = addMain(ImportPlan.Kind.STRUCTURED, d.getName(),
+                               ActivityData.actorName(d.getActor()), d);
+            mainOfRow[d.getRowId()] = main;
+            flows.add(new ImportPlan.Flow(prev, main, ImportPlan.ACTIVITY));
+            prev = main;
+        }
+
+        int end = addMain(ImportPlan.Kind.FINAL, "End", firstLane, null);
+        flows.add(new ImportPlan.Flow(prev, end, ImportPlan.ACTIVITY));
+    }
+
+    /**
+     * Main rows in dependency order, wired along the graph: fan‑out goes
+     * through a Fork (or Decision) node, fan‑in through a Join (or Merge)
+     * node, each next to its action and in its lane so layouts keep them in
+     * flow order. Rows without predecessors start at Start, rows without
+     * successors end at End.
+     */
+    private void planGraph(DependencyGraph graph) {
+        boolean decisions = options.isDecisionBranches();
+        ImportPlan.Kind branch = decisions ? ImportPlan.Kind.DECISION : ImportPlan.Kind.FORK;
+        ImportPlan.Kind merge  = decisions ? ImportPlan.Kind.MERGE    : ImportPlan.Kind.JOIN;
+        String firstLane = mainLanes.isEmpty() ? null : mainLanes.get(0);
+
+        int n = graph.size();
+        int[] into  = new int[n];                  // where flows into row i end
+        int[] outOf = new int[n];                  // where flows out of row i start
+        List<Integer> sources = new ArrayList<>(), sinks = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (graph.inDegree(i)  == 0) sources.add(i);
+            if (graph.outDegree(i) == 0) sinks.add(i);
+        }
+
+        int start = addMain(ImportPlan.Kind.INITIAL, "Start", firstLane, null);
+        int startOut = start;
+        if (sources.size() > 1) {
+            startOut = addMain(branch, null, firstLane, null);
+            flows.add(new ImportPlan.Flow(start, startOut, ImportPlan.ACTIVITY));
+        }
+
+        for (int i : graph.order()) {
+            ActivityData d = graph.row(i);
+            String lane = ActivityData.actorName(d.getActor());
+
+            int in = (graph.inDegree(i) > 1) ? addMain(merge, null, lane, null) : -1;
+            int main = addMain(ImportPlan.Kind.STRUCTURED, d.getName(), lane, d);
+            mainOfRow[d.getRowId()] = main;
+
+            if (in >= 0) flows.add(new ImportPlan.Flow(in, main, ImportPlan.ACTIVITY));
+            into[i] = (in >= 0) ? in : main;
+
+            if (graph.outDegree(i) > 1) {
+                outOf[i] = addMain(branch, null, lane, null);
+                flows.add(new ImportPlan.Flow(main, outOf[i], ImportPlan.ACTIVITY));
+            } else {
+                outOf[i] = main;
+            }
+        }
+
+        /* sub‑actions keep their sheet order */
+        for (ActivityData d : rows) if (d.isSubAction()) planSub(d);
+
+        int endIn = (sinks.size() > 1) ? addMain(merge, null, firstLane, null) : -1;
+        int end = addMain(ImportPlan.Kind.FINAL, "End", firstLane, null);
+        if (endIn >= 0) flows.add(new ImportPlan.Flow(endIn, end, ImportPlan.ACTIVITY));
+        else            endIn = end;
+
+        for (int s : sources) flows.add(new ImportPlan.Flow(startOut, into[s], ImportPlan.ACTIVITY));
+        for (int u : graph.order())
+            for (int v : graph.successors(u))
+                flows.add(new ImportPlan.Flow(outOf[u], into[v], ImportPlan.ACTIVITY));
+        for (int s : sinks) flows.add(new ImportPlan.Flow(outOf[s], endIn, ImportPlan.ACTIVITY));
+    }
+
+    /** graph of the main rows, or {@code null} if the sheet gives no dependencies */
+    private DependencyGraph dependencyGraph() throws Exception {
+        List<ActivityData> mainRows = new ArrayList<>();
+        for (ActivityData d : rows) if (!d.isSubAction()) mainRows.add(d);
+
+        DependencyGraph graph = DependencyGraph.build(mainRows);
+        for (String ref : graph.unresolved())
+            warnings.add("Unknown predecessor/successor " + ref);
+
+        List<ActivityData> cyclic = graph.cycleRows();
+        if (!cyclic.isEmpty()) {
+            StringBuilder names = new StringBuilder();
+            for (int i = 0; i < cyclic.size() && i < 10; i++)
+                names.append("\n  ").append(cyclic.get(i).getName());
+            if (cyclic.size() > 10) names.append("\n  … and ").append(cyclic.size() - 10).append(" more");
+            throw new Exception("The Predecessor/Successor columns contain a cycle; "
+                                + "these rows cannot be ordered:" + names);
+        }
+        return graph.hasEdges() ? graph : null;
+    }
+
+    private void planSub(ActivityData d) {
+        int parent = (d.getParentRow() >= 0 && d.getParentRow() < mainOfRow.length)
+                   ? mainOfRow[d.getParentRow()] : -1;
+        if (parent < 0) {
+            warnings.add("Sub-action '" + d.getName() + "' has no parent action and is skipped");
+            return;
+        }
+        ImportPlan.Kind kind =
+                ActionTypeChooser.typeOf(actionTypes, d) == ActionTypeChooser.ActionType.CALL_BEHAVIOR
+              ? ImportPlan.Kind.CALL_BEHAVIOR : ImportPlan.Kind.STRUCTURED;
+
+        /* sub‑actions join a main lane of their actor, if there is one */
+        String actor = ActivityData.actorName(d.getActor());
+        int id = add(kind, d.getName(), parent, laneSet.contains(actor) ? actor : null, d);
+
+        subsOf.computeIfAbsent(parent, k -> new ArrayList<>()).add(id);
+    }
+
+    /* =============================================================
+                               GEOMETRY
+       ============================================================= */
+
+    /** layered or serpentine geometry of the main diagram, from the planned nodes */
+    private DiagramGeometry planMainGeometry() {
+        int[] index = new int[nodes.size()];
+        List<SerpentineLayouter.Slot> slots = new ArrayList<>(mainNodes.size());
+        String lastLane = mainLanes.isEmpty() ? null : mainLanes.get(0);
+
+        for (int i = 0; i < mainNodes.size(); i++) {
+            ImportPlan.Node n = nodes.get(mainNodes.get(i));
+            index[n.getId()] = i;
+
+            /* End follows the lane of the node before it, as in the grid layout */
+            String lane = (n.getKind() == ImportPlan.Kind.FINAL) ? lastLane : n.getLane();
+            lastLane = lane;
+
+            ActivityData d = n.getRow();
+            slots.add(new SerpentineLayouter.Slot(lane, n.getKind().isAction(),
+                    d == null ? 0 : d.getInputs().size(),
+                    d == null ? 0 : d.getOutputs().size()));
+        }
+
+        if (!options.isLayeredLayout())
+            return SerpentineLayouter.plan(mainLanes, slots, START_Y - 50, START_Y, Y_STEP,
+                                           options.getMaxCanvasHeight());
+
+        int m = 0;
+        int[] from = new int[flows.size()], to = new int[flows.size()];
+        for (ImportPlan.Flow f : flows) {
+            if (f.getOwner() != ImportPlan.ACTIVITY) continue;
+            from[m] = index[f.getSource()];
+            to[m]   = index[f.getTarget()];
+            m++;
+        }
+        return LayeredLayouter.plan(mainLanes, slots,
+                                    Arrays.copyOf(from, m), Arrays.copyOf(to, m),
+                                    START_Y - 50, START_Y, Y_STEP);
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private int add(ImportPlan.Kind kind, String name, int owner, String lane, ActivityData row) {
+        int id = nodes.size();
+        nodes.add(new ImportPlan.Node(id, kind, name, owner, lane, row));
+        return id;
+    }
+
+    private int addMain(ImportPlan.Kind kind, String name, String lane, ActivityData row) {
+        int id = add(kind, name, ImportPlan.ACTIVITY, lane, row);
+        mainNodes.add(id);
+        return id;
+    }
+}
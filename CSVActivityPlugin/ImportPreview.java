@@ -0,0 +1,241 @@
+package com.example.csvactivityplugin;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.util.*;
+import java.util.prefs.Preferences;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Dry run of an import: compiles the {@link ImportPlan} exactly as the real
+ * import would and reports what it would create – element counts, warnings,
+ * canvas sizes and an estimated duration – without opening a session.
+ *
+ * The estimate is calibrated from earlier imports: each finished import
+ * records its element count and duration via {@link #recordRun}, kept as a
+ * running average of milliseconds per element in the user preferences.
+ */
+public final class ImportPreview {
+
+    private static final String PREF_MS_PER_ELEMENT = "msPerElement";
+    private static final String PREF_RUNS           = "calibrationRuns";
+
+    /** weight of the newest import in the running average */
+    private static final double NEWEST_WEIGHT = 0.3;
+
+    /** at most this many warnings are listed */
+    private static final int MAX_WARNINGS = 20;
+
+    private final ImportPlan    plan;
+    private final ImportOptions options;
+
+    private ImportPreview(ImportPlan plan, ImportOptions options) {
+        this.plan    = plan;
+        this.options = options;
+    }
+
+    /**
+     * Plans the import of {@code rows}. Action types are not chosen in a
+     * dry run, so every action is counted as a Structured Activity Node.
+     *
+     * @throws Exception if the rows cannot be planned (e.g. a dependency cycle)
+     */
+    public static ImportPreview of(List<ActivityData> rows, ImportOptions options) throws Exception {
+        return new ImportPreview(ImportPlanner.compile(rows, new ActionTypeChooser.ActionType[0], options),
+                                 options);
+    }
+
+    /** Plans the import and shows the report in a dialog. */
+    public static void show(Component parent, String source,
+                            List<ActivityData> rows, ImportOptions options) throws Exception {
+        long t0 = System.nanoTime();
+        Map<String,List<ActivityData>> groups = ImportGroups.of(rows, options);
+        List<ImportPlan> plans = ImportGroups.plan(groups, new ActionTypeChooser.ActionType[0], options);
+        long planned = (System.nanoTime() - t0) / 1_000_000;
+
+        /* one report per Activity of a grouped sheet */
+        StringBuilder report = new StringBuilder();
+        Iterator<String> names = groups.keySet().iterator();
+        for (ImportPlan plan : plans) {
+            String name = names.next();
+            if (plans.size() > 1) report.append("==== ").append(name).append(" ====\n");
+            report.append(new ImportPreview(plan, options).report()).append('\n');
+        }
+
+        JTextArea text = new JTextArea(report
+                + "(planned " + rows.size() + " rows from " + source + " in " + planned + " ms)");
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scroll = new JScrollPane(text);
+        scroll.setPreferredSize(new Dimension(560, 420));
+
+        JOptionPane.showMessageDialog(parent, scroll, "Import Preview (nothing was created)",
+                                      JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /* =============================================================
+                                  REPORT
+       ============================================================= */
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+
+        /* -------- elements -------- */
+        sb.append("Elements\n");
+        line(sb, "Activity",                  1);
+        line(sb, "Structured activity nodes", plan.count(ImportPlan.Kind.STRUCTURED));
+        line(sb, "Call behavior actions",     plan.count(ImportPlan.Kind.CALL_BEHAVIOR));
+        line(sb, "Initial / final nodes",     plan.count(ImportPlan.Kind.INITIAL)
+                                            + plan.count(ImportPlan.Kind.FINAL));
+        line(sb, "Fork / join nodes",         plan.count(ImportPlan.Kind.FORK)
+                                            + plan.count(ImportPlan.Kind.JOIN));
+        line(sb, "Decision / merge nodes",    plan.count(ImportPlan.Kind.DECISION)
+                                            + plan.count(ImportPlan.Kind.MERGE));
+        line(sb, "Pins",                      plan.pinCount());
+        line(sb, "Control flows",             plan.getFlows().size());
+        line(sb, "Partitions",                partitionCount());
+
+        /* -------- diagrams -------- */
+        sb.append("\nDiagrams\n");
+        line(sb, "Main diagram pages", pageCount());
+        line(sb, options.isLazySubDiagrams() ? "Sub-diagrams (built on first open)"
+                                             : "Sub-diagrams", plan.getSubDiagrams().size());
+        Rectangle main = mainCanvas();
+        sb.append(String.format("  %-36s %d x %d px%n", "Main canvas", main.width, main.height));
+        Rectangle sub = largestSubCanvas();
+        if (sub != null)
+            sb.append(String.format("  %-36s %d x %d px%n", "Largest sub-diagram", sub.width, sub.height));
+
+        /* -------- time -------- */
+        sb.append("\nEstimated import time\n  ");
+        long ms = estimateMillis(elementCount(plan));
+        sb.append(ms < 0 ? "unknown – no earlier import to calibrate from" : duration(ms)).append('\n');
+
+        /* -------- warnings -------- */
+        List<String> warnings = new ArrayList<>(plan.getWarnings());
+        if (options.isAutoObjectFlows())
+            warnings.add("Object flows are matched in the model and are not counted");
+        warnings.add("Action types are chosen during the import; all actions are counted as structured");
+
+        sb.append("\nNotes (").append(warnings.size()).append(")\n");
+        for (int i = 0; i < warnings.size() && i < MAX_WARNINGS; i++)
+            sb.append("  - ").append(warnings.get(i)).append('\n');
+        if (warnings.size() > MAX_WARNINGS)
+            sb.append("  … and ").append(warnings.size() - MAX_WARNINGS).append(" more\n");
+        return sb.toString();
+    }
+
+    /** main lanes plus the lanes of every sub‑diagram */
+    private int partitionCount() {
+        int n = plan.getMainLanes().size();
+        for (ImportPlan.DiagramPlan d : plan.getSubDiagrams())
+            if (!options.isLazySubDiagrams()) n += d.getGeometry().getLaneOrder().size();
+        return n;
+    }
+
+    private int pageCount() {
+        if (!plan.isPaged()) return 1;
+        int actions = 0;
+        for (int id : plan.getMainDiagram().getNodes())
+            if (plan.getNodes().get(id).getKind().isAction()) actions++;
+        return (actions + options.getPageSize() - 1) / options.getPageSize();
+    }
+
+    /**
+     * Planned frame of the main diagram; for the grid layout (and the
+     * tallest page) one row per node, as {@link DiagramGridLayouter} stacks them.
+     */
+    private Rectangle mainCanvas() {
+        DiagramGeometry g = plan.getMainDiagram().getGeometry();
+        if (g != null) return g.getFrameBounds();
+
+        List<Integer> ids = plan.getMainDiagram().getNodes();
+        int perPage = plan.isPaged() ? options.getPageSize() : Integer.MAX_VALUE;
+        int height = 0, tallest = 0, actions = 0;
+        for (int id : ids) {
+            ImportPlan.Node n = plan.getNodes().get(id);
+            if (n.getKind().isAction() && actions++ == perPage) {
+                tallest = Math.max(tallest, height);
+                height = 0;
+                actions = 1;
+            }
+            height += nodeHeight(n) + Y_STEP;
+        }
+        tallest = Math.max(tallest, height) + 2 * Y_STEP;
+        return new Rectangle(0, START_Y - 50,
+                             LANE_WIDTH * Math.max(1, plan.getMainLanes().size()), tallest);
+    }
+
+    private Rectangle largestSubCanvas() {
+        Rectangle largest = null;
+        for (ImportPlan.DiagramPlan d : plan.getSubDiagrams()) {
+            Rectangle r = d.getGeometry().getFrameBounds();
+            if (largest == null || (long) r.width * r.height > (long) largest.width * largest.height)
+                largest = r;
+        }
+        return largest;
+    }
+
+    private static int nodeHeight(ImportPlan.Node n) {
+        ActivityData d = n.getRow();
+        if (d == null) return 20;
+        int ins = d.getInputs().size(), outs = d.getOutputs().size();
+        return (ins > 3 || outs > 3) ? 80 + (Math.max(ins, outs) - 3) * 25 : 80;
+    }
+
+    /* =============================================================
+                               CALIBRATION
+       ============================================================= */
+
+    /** the unit the estimate is calibrated in: nodes, pins, flows and main lanes */
+    static int elementCount(ImportPlan plan) {
+        return plan.getNodes().size() + plan.pinCount()
+             + plan.getFlows().size() + plan.getMainLanes().size();
+    }
+
+    /**
+     * Records a finished import so later previews can estimate its duration.
+     *
+     * @param elements {@link #elementCount} of its plans, summed
+     */
+    static void recordRun(int elements, long millis) {
+        if (elements == 0) return;
+        double sample = (double) millis / elements;
+
+        Preferences prefs = prefs();
+        int runs = prefs.getInt(PREF_RUNS, 0);
+        double avg = (runs == 0) ? sample
+                   : (1 - NEWEST_WEIGHT) * prefs.getDouble(PREF_MS_PER_ELEMENT, sample)
+                     + NEWEST_WEIGHT * sample;
+        prefs.putDouble(PREF_MS_PER_ELEMENT, avg);
+        prefs.putInt(PREF_RUNS, runs + 1);
+    }
+
+    /** estimated duration in ms, or −1 if no import has been recorded yet */
+    static long estimateMillis(int elements) {
+        Preferences prefs = prefs();
+        if (prefs.getInt(PREF_RUNS, 0) == 0) return -1;
+        return Math.round(prefs.getDouble(PREF_MS_PER_ELEMENT, 0) * elements);
+    }
+
+    private static Preferences prefs() {
+        return Preferences.userNodeForPackage(ImportPreview.class);
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static void line(StringBuilder sb, String label, int count) {
+        sb.append(String.format("  %-36s %,d%n", label, count));
+    }
+
+    private static String duration(long ms) {
+        long s = Math.round(ms / 1000.0);
+        if (s < 60)   return "about " + Math.max(1, s) + " s";
+        if (s < 3600) return String.format("about %d min %02d s", s / 60, s % 60);
+        return String.format("about %d h %02d min", s / 3600, (s % 3600) / 60);
+    }
+}
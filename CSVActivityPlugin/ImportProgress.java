@@ -0,0 +1,138 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.task.ProgressStatus;
+import com.nomagic.task.RunnableWithProgress;
+import com.nomagic.ui.ProgressStatusRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and cancellation for the model build.
+ *
+ * The build is split into named phases; each one drives the progress bar
+ * of a cancellable progress dialog and shows its elapsed time. Cancelling
+ * is checked every {@link #CHUNK} steps and at every phase boundary, and
+ * surfaces as {@link Cancelled}, which the caller turns into a rollback.
+ * Phase times are kept for the import log, and every phase is recorded as
+ * an {@link ImportEvents.Phase} flight recorder event.
+ */
+public final class ImportProgress {
+
+    /** steps between two looks at the cancel button */
+    private static final int CHUNK = 200;
+
+    /** thrown out of the build when the user cancels it */
+    public static final class Cancelled extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        Cancelled() { super("Cancelled."); }
+    }
+
+    /** the build, run with a progress dialog */
+    public interface Task {
+        void run(ImportProgress progress) throws Exception;
+    }
+
+    private final ProgressStatus status;      // null ⇒ no dialog
+    private final List<String>   finished = new ArrayList<>();
+
+    private String group = "";                // "Name: " while building one of several activities
+    private String activity;                  // its bare name, for the flight recorder
+    private String phase;
+    private ImportEvents.Phase event;
+    private long   phaseStart;
+    private int    steps, done;
+
+    private ImportProgress(ProgressStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Runs {@code task} under a cancellable progress dialog and waits for it;
+     * whatever it throws (including {@link Cancelled}) is rethrown here.
+     */
+    public static void run(String title, Task task) throws Exception {
+        Exception[] failure = new Exception[1];
+        RunnableWithProgress runnable = status -> {
+            try {
+                task.run(new ImportProgress(status));
+            } catch (Exception ex) {
+                failure[0] = ex;
+            }
+        };
+        ProgressStatusRunner.runWithProgressStatus(runnable, title, true, 0);
+        if (failure[0] != null) throw failure[0];
+    }
+
+    /** Progress that only times the phases, for callers without a dialog. */
+    public static ImportProgress silent() {
+        return new ImportProgress(null);
+    }
+
+    /* =============================================================
+                                  PHASES
+       ============================================================= */
+
+    /** Following phases belong to the Activity {@code name} of a grouped import. */
+    public void group(String name) {
+        endPhase();
+        this.group    = name + ": ";
+        this.activity = name;
+    }
+
+    /** Ends the running phase and starts the next one of {@code steps} steps. */
+    public void phase(String name, int steps) {
+        endPhase();
+        checkCancel();
+        this.phase      = group + name;
+        this.phaseStart = System.nanoTime();
+        this.steps      = Math.max(1, steps);
+        this.done       = 0;
+        this.event      = new ImportEvents.Phase();
+        event.begin();
+        event.phase     = name;
+        event.activity  = activity;
+        event.planned   = this.steps;
+        if (status != null) {
+            status.init(name, 0, this.steps);
+            status.setDescription(name);
+        }
+    }
+
+    /** One step of the running phase; looks at the cancel button every chunk. */
+    public void step() {
+        if (++done % CHUNK != 0) return;
+        if (status != null) {
+            status.setCurrent(Math.min(done, steps));
+            status.setDescription(phase + " – " + done + " of " + steps + ", " + elapsed(phaseStart));
+        }
+        checkCancel();
+    }
+
+    /** @throws Cancelled if the user pressed Cancel */
+    public void checkCancel() {
+        if (status != null && status.isCancel()) throw new Cancelled();
+    }
+
+    /** Ends the last phase; one line per phase with its time. */
+    public String summary() {
+        endPhase();
+        StringBuilder sb = new StringBuilder("Import phases:");
+        for (String line : finished) sb.append("\n  ").append(line);
+        return sb.toString();
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private void endPhase() {
+        if (phase == null) return;
+        finished.add(String.format("%-14s %s", phase, elapsed(phaseStart)));
+        event.steps = done;
+        event.commit();
+        phase = null;
+    }
+
+    private static String elapsed(long since) {
+        return String.format("%.1f s", (System.nanoTime() - since) / 1e9);
+    }
+}
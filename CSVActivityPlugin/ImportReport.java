@@ -0,0 +1,49 @@
+package com.example.csvactivityplugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What an import did, for the message shown when it completes: one line
+ * per result, such as the counts of an in‑place update, and the warnings
+ * the user should look at, such as skipped rows or ambiguous names.
+ */
+public final class ImportReport {
+
+    /** warnings listed in the message; the log has them all */
+    private static final int SHOWN_WARNINGS = 15;
+
+    private final List<String> results  = new ArrayList<>();
+    private final List<String> warnings = new ArrayList<>();
+
+    public void result(String line) {
+        results.add(line);
+    }
+
+    public void warning(String line) {
+        warnings.add(line);
+    }
+
+    public List<String> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    public List<String> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    /** {@code headline}, then the results one per line, then the first warnings */
+    public String toMessage(String headline) {
+        StringBuilder sb = new StringBuilder(headline);
+        for (String r : results) sb.append('\n').append(r);
+        if (warnings.isEmpty()) return sb.toString();
+
+        sb.append("\n\nWarnings:");
+        for (int i = 0; i < Math.min(SHOWN_WARNINGS, warnings.size()); i++)
+            sb.append("\n• ").append(warnings.get(i));
+        if (warnings.size() > SHOWN_WARNINGS)
+            sb.append("\n… and ").append(warnings.size() - SHOWN_WARNINGS).append(" more, see the log");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,527 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.PresentationElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.magicdraw.uml.BaseElement;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.magicdraw.uml.symbols.PresentationElement;
+import com.nomagic.magicdraw.uml.symbols.shapes.ShapeElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Diagram;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+import com.nomagic.uml2.impl.ElementsFactory;
+
+import java.awt.Rectangle;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Re‑imports a sheet into an Activity built by an earlier import instead of
+ * creating a new one. Rows are matched to their elements through the
+ * {@link ImportManifest}; only rows whose fingerprint changed are touched,
+ * so unchanged rows keep their element IDs and diagram positions. New nodes
+ * are appended below the existing ones, in their lane.
+ *
+ * The sheet owns the control‑flow sequence: Start → rows → End is re‑synced
+ * and any other control flow between the imported nodes is removed. A main
+ * flow built from the Predecessor/Successor columns is not a sequence, so
+ * such sheets and Activities are refused up front (see {@link #unsupported}).
+ */
+public class IncrementalImporter {
+
+    private final Project                     project;
+    private final ActivityDiagramCreator      creator;
+    private final ActivityBuilder<PresentationElement,DiagramPresentationElement> builder;
+    private final ImportOptions               options;
+    private final ImportReport                report;
+    private final ModelElementsManager        mgr = ModelElementsManager.getInstance();
+    private final PresentationElementsManager pem = PresentationElementsManager.getInstance();
+
+    /** actor of every new or changed node, for lane placement */
+    private final Map<ActivityNode,String> actorOf = new HashMap<>();
+
+    private int added, updated, removed;
+
+    public IncrementalImporter(Project project, ActivityDiagramCreator creator,
+                               ImportOptions options, ImportReport report) {
+        this.project = project;
+        this.creator = creator;
+        this.builder = creator.builder(project);
+        this.options = options;
+        this.report  = report;
+    }
+
+    /**
+     * A previously imported Activity: the chosen element itself, or one
+     * directly owned by it.
+     *
+     * @return the Activity, or {@code null} if nothing was imported there
+     */
+    public static Activity findImported(Element chosen) {
+        if (ImportManifest.isImported(chosen)) return (Activity) chosen;
+        for (Element child : chosen.getOwnedElement())
+            if (ImportManifest.isImported(child)) return (Activity) child;
+        return null;
+    }
+
+    /**
+     * Why {@code rows} cannot update {@code activity} in place, or
+     * {@code null} if they can. Only the Start → rows → End sequence is
+     * re‑synced, so a main flow from the Predecessor/Successor columns – in
+     * the sheet, or already in the Activity – would be left with new nodes
+     * unconnected and gaps where rows were removed.
+     */
+    public static String unsupported(Activity activity, List<ActivityData> rows,
+                                     ImportOptions options) {
+        boolean dependencies = false;
+        if (options.isDependencyFlows())
+            for (ActivityData d : rows)
+                if (!d.isSubAction() && (!d.getPredecessors().isEmpty() || !d.getSuccessors().isEmpty()))
+                    dependencies = true;
+
+        if (!dependencies && !hasBranches(activity)) return null;
+        return "'" + activity.getName() + "' has a main flow built from the Predecessor/Successor "
+             + "columns, which cannot be updated in place.\nImport the sheet as a new Activity, "
+             + "or turn off the in-place update.";
+    }
+
+    /* =============================================================
+                              ENTRY POINT
+       ============================================================= */
+
+    public void update(Activity activity,
+                       List<ActivityData> rows,
+                       ActionTypeChooser.ActionType[] actionTypes,
+                       List<DiagramGeometry> subLayouts)
+            throws ReadOnlyElementException {
+
+        ImportManifest previous = ImportManifest.read(activity);
+        ImportManifest next     = new ImportManifest();
+        List<String>   keys     = ImportManifest.rowKeys(rows);
+
+        List<ActivityNode> mainNodes = new ArrayList<>();
+        Map<StructuredActivityNode,List<ActivityData>> subRows  = new LinkedHashMap<>();
+        Map<StructuredActivityNode,List<ActivityNode>> subNodes = new LinkedHashMap<>();
+        Set<ActivityNode> touched = new HashSet<>();
+
+        /* -------- 1. walk the rows: keep, update or create -------- */
+        StructuredActivityNode currentMain = null;
+        for (int i = 0; i < rows.size(); i++) {
+            ActivityData d = rows.get(i);
+            ActionTypeChooser.ActionType t = ActionTypeChooser.typeOf(actionTypes, d);
+            String fp = ImportManifest.fingerprint(d, t);
+            ImportManifest.Entry entry = previous.get(keys.get(i));
+            ActivityNode node = (entry != null) ? lookup(entry.elementId) : null;
+
+            if (d.isSubAction()) {
+                if (currentMain == null) continue;
+                /* moved to another parent or switched action type ⇒ rebuild */
+                if (node != null && (node.getOwner() != currentMain || !hasType(node, t))) {
+                    mgr.removeElement(node);
+                    node = null;
+                }
+                if (node == null) {
+                    node = builder.createSubAction(currentMain, d, t);
+                    added++;   touched.add(node);
+                } else if (!fp.equals(entry.fingerprint)) {
+                    updateNode(node, d, activity, false);
+                    updated++; touched.add(node);
+                }
+                subRows.computeIfAbsent(currentMain,  k -> new ArrayList<>()).add(d);
+                subNodes.computeIfAbsent(currentMain, k -> new ArrayList<>()).add(node);
+            } else {
+                if (node != null && (node.getOwner() != activity
+                                     || !(node instanceof StructuredActivityNode))) {
+                    mgr.removeElement(node);
+                    node = null;
+                }
+                if (node == null) {
+                    node = builder.createMainAction(activity, d, t);
+                    partition(activity, ActivityData.actorName(d.getActor()), true)
+                            .getNode().add(node);
+                    added++;   touched.add(node);
+                } else if (!fp.equals(entry.fingerprint)) {
+                    updateNode(node, d, activity, true);
+                    updated++; touched.add(node);
+                }
+                currentMain = (StructuredActivityNode) node;
+                mainNodes.add(node);
+            }
+            actorOf.put(node, ActivityData.actorName(d.getActor()));
+            next.put(keys.get(i), node.getID(), fp);
+        }
+
+        /* -------- 2. rows that disappeared from the sheet -------- */
+        Set<Element> gone = new LinkedHashSet<>();
+        for (ImportManifest.Entry e : previous.entries()) {
+            if (next.get(e.key) != null) continue;
+            ActivityNode node = lookup(e.elementId);
+            if (node != null) gone.add(node);
+        }
+        for (Element e : gone)
+            if (!ownedByAny(e, gone)) mgr.removeElement(e);   // owners take their children along
+        removed = gone.size();
+
+        /* -------- 3. shapes for new and changed nodes -------- */
+        DiagramPresentationElement mainDpe = diagramOf(activity);
+        if (mainDpe != null)
+            placeTouched(mainDpe, activity, activity, mainNodes, touched, true);
+
+        /* -------- 4. control flows, and sub‑diagrams that are new -------- */
+        syncChain(activity, withEnds(activity, mainNodes), mainDpe);
+
+        for (ActivityNode n : mainNodes) {
+            StructuredActivityNode parent = (StructuredActivityNode) n;
+            List<ActivityNode> subs = subNodes.getOrDefault(parent, List.of());
+            boolean hadSubs = startOf(parent) != null;
+
+            if (!hadSubs) {
+                if (subs.isEmpty()) continue;
+                /* first sub‑actions for this parent: build it like a full import */
+                List<ActivityData> sr = subRows.get(parent);
+                List<ActivityNode> nodes = builder.createSubactionFlow(parent, subs);
+                DiagramGeometry geometry = subLayouts.get(sr.get(0).getParentRow());
+                if (geometry == null) continue;
+                if (options.isLazySubDiagrams())
+                    SubdiagramMaterializer.register(project, parent, geometry);
+                else
+                    builder.buildSubactionDiagram(parent, nodes, geometry);
+                continue;
+            }
+
+            DiagramPresentationElement subDpe = diagramOf(parent);
+            if (subDpe != null)
+                placeTouched(subDpe, activity, parent, subs, touched, false);
+            syncChain(parent, withEnds(parent, subs), subDpe);
+        }
+
+        /* -------- 5. object flows for pins that are new or renamed -------- */
+        if (options.isAutoObjectFlows()) {
+            int flows = ObjectFlowBuilder.connect(builder.getApi(), activity);
+            if (flows > 0) {
+                if (mainDpe != null) builder.populateObjectFlowPaths(activity, mainDpe);
+                for (ActivityNode n : mainNodes) {
+                    if (!(n instanceof StructuredActivityNode san)) continue;
+                    DiagramPresentationElement subDpe = diagramOf(san);
+                    if (subDpe != null) builder.populateObjectFlowPaths(san, subDpe);
+                }
+            }
+        }
+
+        next.write(project, activity);
+        report.result("Updated in place: " + added + " added, "
+                      + updated + " updated, " + removed + " removed");
+    }
+
+    /* =============================================================
+                              MODEL UPDATES
+       ============================================================= */
+
+    private void updateNode(ActivityNode node, ActivityData d,
+                            Activity activity, boolean main)
+            throws ReadOnlyElementException {
+
+        if (!Objects.equals(node.getName(), d.getName())) node.setName(d.getName());
+
+        /* lane */
+        String actor = ActivityData.actorName(d.getActor());
+        boolean inLane = false;
+        for (ActivityPartition p : node.getInPartition())
+            if (actor.equals(p.getName())) inLane = true;
+        if (!inLane) {
+            for (ActivityPartition p : new ArrayList<>(node.getInPartition()))
+                p.getNode().remove(node);
+            ActivityPartition lane = partition(activity, actor, main);
+            if (lane != null) lane.getNode().add(node);
+        }
+
+        /* pins */
+        ElementsFactory f = project.getElementsFactory();
+        if (node instanceof StructuredActivityNode san) {
+            syncPins(san, san.getStructuredNodeInput(),  d.getInputs(),  f::createInputPinInstance);
+            syncPins(san, san.getStructuredNodeOutput(), d.getOutputs(), f::createOutputPinInstance);
+        } else if (node instanceof CallBehaviorAction cba) {
+            syncPins(cba, cba.getArgument(), d.getInputs(),  f::createInputPinInstance);
+            syncPins(cba, cba.getResult(),   d.getOutputs(), f::createOutputPinInstance);
+        }
+    }
+
+    /**
+     * Drops pins no longer listed and appends the missing ones, by name;
+     * kept pins get their type re‑resolved.
+     */
+    private <P extends Pin> void syncPins(Element owner,
+                                          Collection<? super P> current,
+                                          List<String> wanted,
+                                          Supplier<P> factory)
+            throws ReadOnlyElementException {
+
+        Map<String,String> want = new LinkedHashMap<>();      // pin name → cell value
+        for (String raw : wanted) want.putIfAbsent(creator.pinName(raw), raw);
+
+        Set<String> have = new HashSet<>();
+        for (Object o : new ArrayList<>(current)) {
+            Pin p = (Pin) o;
+            if (want.containsKey(p.getName()) && have.add(p.getName())) {
+                creator.namePin(p, want.get(p.getName()));
+                continue;
+            }
+            mgr.removeElement(p);
+        }
+        for (Map.Entry<String,String> e : want.entrySet()) {
+            if (!have.add(e.getKey())) continue;
+            P p = factory.get();
+            creator.namePin(p, e.getValue());
+            mgr.addElement(p, owner);
+            current.add(p);
+        }
+    }
+
+    /**
+     * Re‑creates the Start → nodes → End sequence: flows that are already
+     * there are kept, missing ones are added (with a path if both ends are
+     * shown), anything else is removed.
+     */
+    private void syncChain(Element owner, List<ActivityNode> chain,
+                           DiagramPresentationElement dpe)
+            throws ReadOnlyElementException {
+
+        Set<String> wanted = new HashSet<>();
+        for (int i = 1; i < chain.size(); i++)
+            wanted.add(ActivityBuilder.flowKey(chain.get(i - 1), chain.get(i)));
+
+        Set<String> have = new HashSet<>();
+        for (ControlFlow cf : ActivityBuilder.getFlowsOfContext(owner)) {
+            if (cf.getSource() != null && cf.getTarget() != null) {
+                String k = ActivityBuilder.flowKey(cf.getSource(), cf.getTarget());
+                if (wanted.contains(k) && have.add(k)) continue;
+            }
+            mgr.removeElement(cf);
+        }
+
+        ElementsFactory f = project.getElementsFactory();
+        for (int i = 1; i < chain.size(); i++) {
+            ActivityNode src = chain.get(i - 1), tgt = chain.get(i);
+            if (have.contains(ActivityBuilder.flowKey(src, tgt))) continue;
+
+            ControlFlow cf = f.createControlFlowInstance();
+            cf.setSource(src); cf.setTarget(tgt);
+            mgr.addElement(cf, owner);
+
+            if (dpe == null) continue;
+            PresentationElement s = dpe.findPresentationElement(src, PresentationElement.class);
+            PresentationElement t = dpe.findPresentationElement(tgt, PresentationElement.class);
+            if (s != null && t != null) pem.createPathElement(cf, s, t);
+        }
+    }
+
+    /* =============================================================
+                              DIAGRAM UPDATES
+       ============================================================= */
+
+    /**
+     * Creates shapes for new nodes below everything already drawn and moves
+     * changed ones into their (possibly new) lane, keeping their row.
+     */
+    private void placeTouched(DiagramPresentationElement dpe,
+                              Activity activity,
+                              Element context,
+                              List<ActivityNode> nodes,
+                              Set<ActivityNode> touched,
+                              boolean mainDiagram)
+            throws ReadOnlyElementException {
+
+        ActivityNode end = endOf(context);
+        int nextY = 0;
+        for (ActivityNode n : withEnds(context, nodes)) {
+            PresentationElement pe = dpe.findPresentationElement(n, ShapeElement.class);
+            if (pe instanceof ShapeElement se)
+                nextY = Math.max(nextY, se.getBounds().y + se.getBounds().height);
+        }
+        nextY += Y_STEP;
+        boolean appended = false;
+
+        for (ActivityNode node : nodes) {
+            if (!touched.contains(node)) continue;
+
+            ShapeElement lane = laneShape(dpe, activity, actorOf.get(node), mainDiagram);
+            int height = actionHeight(node);
+            int x = (lane != null)
+                  ? lane.getBounds().x + (lane.getBounds().width - ACTION_WIDTH) / 2
+                  : (DIAGRAM_WIDTH - ACTION_WIDTH) / 2;
+
+            ShapeElement shape = (ShapeElement) dpe.findPresentationElement(node, ShapeElement.class);
+            Rectangle bounds;
+            if (shape == null) {
+                // main diagram shapes live in their lane, sub‑diagram ones on the diagram
+                pem.createShapeElement(node, (mainDiagram && lane != null) ? lane : dpe);
+                bounds = new Rectangle(x, nextY, ACTION_WIDTH, height);
+                nextY += height + Y_STEP;
+                appended = true;
+            } else {
+                bounds = new Rectangle(x, shape.getBounds().y, ACTION_WIDTH, height);
+            }
+            SubdiagramGridLayouter.placeNode(builder.getApi(), node, bounds, dpe);
+        }
+
+        /* keep End below the appended nodes */
+        if (appended && end != null) {
+            PresentationElement pe = dpe.findPresentationElement(end, ShapeElement.class);
+            if (pe instanceof ShapeElement se) {
+                Rectangle b = se.getBounds();
+                pem.reshapeShapeElement(se, new Rectangle(b.x, nextY, b.width, b.height));
+                nextY += b.height + Y_STEP;
+            }
+        }
+        growLanes(dpe, activity, nextY);
+    }
+
+    /** lane column of {@code actor} on this diagram, added if it is missing */
+    private ShapeElement laneShape(DiagramPresentationElement dpe, Activity activity,
+                                   String actor, boolean mainDiagram)
+            throws ReadOnlyElementException {
+
+        if (actor == null) return null;
+        for (ActivityPartition p : activity.getPartition()) {
+            if (!actor.equals(p.getName())) continue;
+            PresentationElement pe = dpe.findPresentationElement(p, ShapeElement.class);
+            if (pe instanceof ShapeElement se) return se;
+        }
+
+        /* new actor: one more lane to the right of the existing ones;
+           the main diagram draws the partition its nodes sit in,
+           a sub‑diagram gets a fresh one like a full import */
+        ActivityPartition p = mainDiagram ? partition(activity, actor, true)
+                                          : builder.addPartition(activity, actor);
+        int right = (DIAGRAM_WIDTH - LANE_WIDTH) / 2, top = 50, height = 3 * ROW_HEIGHT;
+        boolean first = true;
+        for (ShapeElement se : laneShapes(dpe, activity)) {
+            Rectangle b = se.getBounds();
+            right  = first ? b.x + b.width : Math.max(right, b.x + b.width);
+            top    = b.y;
+            height = Math.max(height, b.height);
+            first  = false;
+        }
+
+        ShapeElement wrapper = (ShapeElement)
+                pem.createSwimlane(Collections.emptyList(), List.of(p), dpe);
+        ShapeElement col = (ShapeElement) dpe.findPresentationElement(p, ShapeElement.class);
+        pem.reshapeShapeElement(col,     new Rectangle(right, top, LANE_WIDTH, height));
+        pem.reshapeShapeElement(wrapper, new Rectangle(right, top, LANE_WIDTH, height));
+        return col;
+    }
+
+    /** stretches lane columns (and their wrappers) down to {@code bottom} */
+    private void growLanes(DiagramPresentationElement dpe, Activity activity, int bottom)
+            throws ReadOnlyElementException {
+
+        Set<ShapeElement> wrappers = new LinkedHashSet<>();
+        for (ShapeElement se : laneShapes(dpe, activity)) {
+            Rectangle b = se.getBounds();
+            if (b.y + b.height < bottom)
+                pem.reshapeShapeElement(se, new Rectangle(b.x, b.y, b.width, bottom - b.y));
+            if (se.getParent() instanceof ShapeElement w) wrappers.add(w);
+        }
+        for (ShapeElement w : wrappers) {
+            Rectangle b = w.getBounds();
+            if (b.y + b.height < bottom)
+                pem.reshapeShapeElement(w, new Rectangle(b.x, b.y, b.width, bottom - b.y));
+        }
+    }
+
+    private List<ShapeElement> laneShapes(DiagramPresentationElement dpe, Activity activity) {
+        List<ShapeElement> out = new ArrayList<>();
+        for (ActivityPartition p : activity.getPartition()) {
+            PresentationElement pe = dpe.findPresentationElement(p, ShapeElement.class);
+            if (pe instanceof ShapeElement se) out.add(se);
+        }
+        return out;
+    }
+
+    /* =============================================================
+                                 HELPERS
+       ============================================================= */
+
+    private ActivityNode lookup(String id) {
+        BaseElement e = project.getElementByID(id);
+        // a removed element has lost its owner
+        return (e instanceof ActivityNode n && n.getOwner() != null) ? n : null;
+    }
+
+    /** first partition named {@code actor}; optionally created when missing */
+    private ActivityPartition partition(Activity activity, String actor, boolean create)
+            throws ReadOnlyElementException {
+        for (ActivityPartition p : activity.getPartition())
+            if (actor.equals(p.getName())) return p;
+        return create ? builder.addPartition(activity, actor) : null;
+    }
+
+    private DiagramPresentationElement diagramOf(Namespace owner) {
+        for (Diagram d : owner.getOwnedDiagram()) return project.getDiagram(d);
+        return null;
+    }
+
+    private List<ActivityNode> withEnds(Element context, List<ActivityNode> nodes) {
+        List<ActivityNode> chain = new ArrayList<>(nodes.size() + 2);
+        ActivityNode start = startOf(context), end = endOf(context);
+        if (start != null) chain.add(start);
+        chain.addAll(nodes);
+        if (end != null) chain.add(end);
+        return chain;
+    }
+
+    private ActivityNode startOf(Element context) {
+        for (ActivityNode n : ActivityBuilder.getNodesOfContext(context))
+            if (n instanceof InitialNode) return n;
+        return null;
+    }
+
+    private ActivityNode endOf(Element context) {
+        for (ActivityNode n : ActivityBuilder.getNodesOfContext(context))
+            if (n instanceof ActivityFinalNode) return n;
+        return null;
+    }
+
+    private static boolean hasType(ActivityNode node, ActionTypeChooser.ActionType t) {
+        return (t == ActionTypeChooser.ActionType.CALL_BEHAVIOR)
+             ? node instanceof CallBehaviorAction
+             : node instanceof StructuredActivityNode;
+    }
+
+    /** true ⇢ the main flow was imported as a dependency graph, not a chain */
+    private static boolean hasBranches(Activity activity) {
+        for (ActivityNode n : activity.getNode())
+            if (n instanceof ForkNode || n instanceof JoinNode
+                    || n instanceof DecisionNode || n instanceof MergeNode) return true;
+        return false;
+    }
+
+    private static boolean ownedByAny(Element e, Set<Element> owners) {
+        for (Element cur = e.getOwner(); cur != null; cur = cur.getOwner())
+            if (owners.contains(cur)) return true;
+        return false;
+    }
+
+    private static int actionHeight(ActivityNode node) {
+        int ins = 0, outs = 0;
+        if (node instanceof StructuredActivityNode san) {
+            ins  = san.getStructuredNodeInput().size();
+            outs = san.getStructuredNodeOutput().size();
+        } else if (node instanceof CallBehaviorAction cba) {
+            ins  = cba.getArgument().size();
+            outs = cba.getResult().size();
+        }
+        int height = ACTION_HEIGHT;
+        if (ins > 3 || outs > 3) height += (Math.max(ins, outs) - 3) * 25;
+        return height;
+    }
+}
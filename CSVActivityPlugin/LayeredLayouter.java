@@ -0,0 +1,217 @@
+package com.example.csvactivityplugin;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Layered (Sugiyama‑style) layout for flows that branch and merge, drawn
+ * top to bottom inside vertical swimlanes:
+ *
+ * 1. layers – longest path from the sources, via Kahn's algorithm; edges
+ *    that close a cycle are ignored for layering;
+ * 2. edges spanning several layers get a dummy node per skipped layer;
+ * 3. crossing minimisation – alternating down/up barycenter sweeps, at
+ *    most {@link #MAX_SWEEPS}, stopping early once the order settles.
+ *    Nodes only move within their own lane, so lanes stay intact;
+ * 4. coordinates – one row per layer, and inside a lane one column slot
+ *    per node of the widest layer; lanes widen to fit.
+ *
+ * Pure Java, no model access; the result is a {@link DiagramGeometry}.
+ */
+public final class LayeredLayouter {
+    private LayeredLayouter() {}
+
+    private static final int MAX_SWEEPS    = 8;
+
+    /**
+     * @param laneOrder actor names, left to right
+     * @param slots     the nodes; their lane and size
+     * @param from      edge sources, as indices into {@code slots}
+     * @param to        edge targets, index‑aligned with {@code from}
+     * @param laneTopY  top edge of the swimlane wrapper
+     * @param startY    Y of the first layer
+     * @param yStep     vertical gap between layers
+     */
+    public static DiagramGeometry plan(List<String> laneOrder,
+                                       List<SerpentineLayouter.Slot> slots,
+                                       int[] from, int[] to,
+                                       int laneTopY, int startY, int yStep) {
+
+        ImportEvents.Layout event = ImportEvents.layout("Layered", slots.size(), laneOrder.size());
+        int n = slots.size();
+        Map<String,Integer> laneIndex = new HashMap<>();
+        for (int i = 0; i < laneOrder.size(); i++) laneIndex.put(laneOrder.get(i), i);
+
+        int[] lane = new int[n];
+        for (int i = 0; i < n; i++) {
+            String l = slots.get(i).lane;
+            lane[i] = (l == null) ? 0 : laneIndex.getOrDefault(l, 0);
+        }
+
+        /* ---- 1. layers ---- */
+        int[] layer = assignLayers(n, from, to);
+
+        /* ---- 2. proper graph: dummies for long edges ---- */
+        List<int[]> edges = new ArrayList<>();          // {u, v} between adjacent layers
+        List<Integer> vLayer = new ArrayList<>(), vLane = new ArrayList<>();
+        for (int i = 0; i < n; i++) { vLayer.add(layer[i]); vLane.add(lane[i]); }
+
+        for (int e = 0; e < from.length; e++) {
+            int u = from[e], v = to[e];
+            if (u == v || layer[v] <= layer[u]) continue;  // self loop or back edge
+            int prev = u;
+            for (int l = layer[u] + 1; l < layer[v]; l++) {
+                int d = vLayer.size();
+                vLayer.add(l);
+                vLane.add(lane[u]);                          // dummies run down the source lane
+                edges.add(new int[] { prev, d });
+                prev = d;
+            }
+            edges.add(new int[] { prev, v });
+        }
+        int total = vLayer.size();
+
+        int[][] up   = adjacency(total, edges, true);    // predecessors
+        int[][] down = adjacency(total, edges, false);   // successors
+
+        /* ---- 3. ordering ---- */
+        int layers = 0;
+        for (int l : vLayer) layers = Math.max(layers, l + 1);
+        List<List<Integer>> byLayer = new ArrayList<>(layers);
+        for (int l = 0; l < layers; l++) byLayer.add(new ArrayList<>());
+        for (int v = 0; v < total; v++) byLayer.get(vLayer.get(v)).add(v);
+
+        int[] laneOf = new int[total];
+        for (int v = 0; v < total; v++) laneOf[v] = vLane.get(v);
+
+        double[] pos = new double[total];
+        for (List<Integer> row : byLayer) {
+            row.sort(Comparator.comparingInt((Integer v) -> laneOf[v]));   // stable: input order in lane
+            renumber(row, pos);
+        }
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean changed = false;
+            if (sweep % 2 == 0)
+                for (int l = 1; l < layers; l++)       changed |= reorder(byLayer.get(l), up,   laneOf, pos);
+            else
+                for (int l = layers - 2; l >= 0; l--)  changed |= reorder(byLayer.get(l), down, laneOf, pos);
+            if (!changed && sweep > 0) break;
+        }
+
+        /* ---- 4. coordinates ---- */
+        int lanes = Math.max(1, laneOrder.size());
+        int slotsPerLane = 1;
+        int[] slotInLane = new int[total];
+        for (List<Integer> row : byLayer) {
+            int[] used = new int[lanes];
+            for (int v : row) slotInLane[v] = used[laneOf[v]]++;
+            for (int c : used) slotsPerLane = Math.max(slotsPerLane, c);
+        }
+
+        int laneWidth = Math.max(LANE_WIDTH, slotsPerLane * COLUMN_WIDTH);
+        int colWidth  = laneWidth / slotsPerLane;
+        int startX    = Math.max(0, (DIAGRAM_WIDTH - laneWidth * laneOrder.size()) / 2);
+
+        int[] layerY = new int[layers];
+        int[] layerH = new int[layers];
+        for (int i = 0; i < n; i++) layerH[layer[i]] = Math.max(layerH[layer[i]], slots.get(i).height());
+        int y = startY;
+        for (int l = 0; l < layers; l++) {
+            layerY[l] = y;
+            y += Math.max(layerH[l], 20) + yStep;
+        }
+        int laneH = (y - laneTopY);
+
+        Map<String,Rectangle> laneBounds = new LinkedHashMap<>();
+        for (int i = 0; i < laneOrder.size(); i++)
+            laneBounds.put(laneOrder.get(i),
+                    new Rectangle(startX + i * laneWidth, laneTopY, laneWidth, laneH));
+        Rectangle frame = new Rectangle(startX, laneTopY, laneWidth * lanes, laneH);
+
+        List<DiagramGeometry.NodeGeometry> nodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            SerpentineLayouter.Slot s = slots.get(i);
+            int w = s.width(), h = s.height();
+            int x  = startX + lane[i] * laneWidth + slotInLane[i] * colWidth + (colWidth - w) / 2;
+            int ny = layerY[layer[i]] + (layerH[layer[i]] - h) / 2;
+            Rectangle rect = new Rectangle(x, ny, w, h);
+            nodes.add(new DiagramGeometry.NodeGeometry(rect,
+                    s.action ? SerpentineLayouter.pinColumn(s.ins,  rect, true)  : List.of(),
+                    s.action ? SerpentineLayouter.pinColumn(s.outs, rect, false) : List.of()));
+        }
+        event.commit();
+        return new DiagramGeometry(new ArrayList<>(laneOrder), laneBounds, frame, nodes);
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    /** longest path from the sources; nodes on cycles go below everything else */
+    private static int[] assignLayers(int n, int[] from, int[] to) {
+        int[] indeg = new int[n];
+        List<List<Integer>> succ = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) succ.add(new ArrayList<>());
+        for (int e = 0; e < from.length; e++) {
+            if (from[e] == to[e]) continue;
+            succ.get(from[e]).add(to[e]);
+            indeg[to[e]]++;
+        }
+
+        int[] layer = new int[n];
+        boolean[] done = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0, deepest = 0;
+        for (int i = 0; i < n; i++) if (indeg[i] == 0) queue[tail++] = i;
+
+        while (head < tail) {
+            int u = queue[head++];
+            done[u] = true;
+            deepest = Math.max(deepest, layer[u]);
+            for (int v : succ.get(u)) {
+                layer[v] = Math.max(layer[v], layer[u] + 1);
+                if (--indeg[v] == 0) queue[tail++] = v;
+            }
+        }
+        for (int i = 0; i < n; i++)
+            if (!done[i]) layer[i] = ++deepest;       // cycle: one layer each, in input order
+        return layer;
+    }
+
+    private static int[][] adjacency(int total, List<int[]> edges, boolean predecessors) {
+        int[] count = new int[total];
+        for (int[] e : edges) count[predecessors ? e[1] : e[0]]++;
+        int[][] adj = new int[total][];
+        for (int v = 0; v < total; v++) adj[v] = new int[count[v]];
+        int[] fill = new int[total];
+        for (int[] e : edges) {
+            int key = predecessors ? e[1] : e[0];
+            adj[key][fill[key]++] = predecessors ? e[0] : e[1];
+        }
+        return adj;
+    }
+
+    /** sorts one layer by barycenter of its neighbours, lane first; true ⇢ order changed */
+    private static boolean reorder(List<Integer> row, int[][] neighbours,
+                                   int[] laneOf, double[] pos) {
+        Map<Integer,Double> bary = new HashMap<>(row.size() * 2);
+        for (int v : row) {
+            int[] nb = neighbours[v];
+            if (nb.length == 0) { bary.put(v, pos[v]); continue; }  // keep its place
+            double sum = 0;
+            for (int u : nb) sum += pos[u];
+            bary.put(v, sum / nb.length);
+        }
+
+        List<Integer> before = new ArrayList<>(row);
+        row.sort(Comparator.comparingInt((Integer v) -> laneOf[v])
+                           .thenComparingDouble(bary::get));
+        renumber(row, pos);
+        return !before.equals(row);
+    }
+
+    private static void renumber(List<Integer> row, double[] pos) {
+        for (int i = 0; i < row.size(); i++) pos[row.get(i)] = i;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.csvactivityplugin;
+
+/**
+ * Diagram geometry shared by the creator, the planners and the layouters.
+ * Planned and applied layouts only line up while they all read these.
+ */
+final class LayoutConstants {
+    private LayoutConstants() {}
+
+    static final int DIAGRAM_WIDTH     = 1200;
+    static final int LANE_WIDTH        = 480;
+    static final int ROW_HEIGHT        = 225;
+
+    /** Y of the first node, and the gap below each one */
+    static final int START_Y           = 100;
+    static final int Y_STEP            = 60;
+
+    static final int ACTION_WIDTH      = 180;
+    static final int ACTION_HEIGHT     = 80;
+    static final int CONTROL_NODE_SIZE = 20;
+
+    /** horizontal room for one action plus its pins and some air */
+    static final int COLUMN_WIDTH      = 240;
+
+    static final int PIN_SIZE          = 20;
+    static final int PIN_GAP           = 5;
+}
@@ -0,0 +1,47 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.actions.MDAction;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+
+/**
+ * Context‑menu action that builds (and opens) the deferred sub‑action
+ * diagram of a node imported in lazy mode.
+ */
+@SuppressWarnings("serial")
+public class MaterializeSubdiagramAction extends MDAction {
+
+    private final StructuredActivityNode parent;
+
+    public MaterializeSubdiagramAction(StructuredActivityNode parent) {
+        super("BuildSubActionDiagram", "Build Sub-Action Diagram", null, null);
+        setDescription("Create the diagram for this action's imported sub-actions");
+        this.parent = parent;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        Project project = Project.getProject(parent);
+        if (project == null) return;
+
+        try {
+            SubdiagramMaterializer.materialize(project, parent);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(
+                null,
+                "Error building sub-action diagram: " + ex.getMessage(),
+                "Build Error",
+                JOptionPane.ERROR_MESSAGE
+            );
+            ex.printStackTrace();
+        }
+    }
+
+    @Override
+    public void updateState() {
+        setEnabled(SubdiagramMaterializer.isPending(parent));
+    }
+}
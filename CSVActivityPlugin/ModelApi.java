@@ -0,0 +1,79 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ControlFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ObjectFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.CallBehaviorAction;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.InputPin;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.OutputPin;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+/**
+ * The calls an import makes into Cameo to build its elements and diagrams:
+ * the elements factory, ModelElementsManager, PresentationElementsManager
+ * and the symbol lookups on a diagram. {@link ActivityBuilder} and the
+ * layouters make them through this, so the same build runs against
+ * {@link CameoModelApi} in the tool and against an in‑memory stand‑in in
+ * the benchmarks.
+ *
+ * @param <S> a symbol on a diagram
+ * @param <D> a diagram, itself a symbol others can be placed in
+ */
+public interface ModelApi<S, D extends S> {
+
+    /* -------- elements factory -------- */
+
+    Activity               createActivity();
+    ActivityPartition      createPartition();
+    StructuredActivityNode createStructuredNode();
+    CallBehaviorAction     createCallBehaviorAction();
+    ControlFlow            createControlFlow();
+    ObjectFlow             createObjectFlow();
+    InputPin               createInputPin();
+    OutputPin              createOutputPin();
+
+    /** Initial, final, fork, join, decision or merge node */
+    ActivityNode createControlNode(ImportPlan.Kind kind);
+
+    /* -------- ModelElementsManager -------- */
+
+    void addElement(Element element, Element owner) throws ReadOnlyElementException;
+
+    /** A new, closed activity diagram owned by {@code owner}. */
+    D createDiagram(Namespace owner, String name) throws ReadOnlyElementException;
+
+    /* -------- PresentationElementsManager -------- */
+
+    /** A shape for {@code element} inside {@code parent}, a diagram or a lane. */
+    S createShape(Element element, S parent) throws ReadOnlyElementException;
+
+    void createPath(Element element, S source, S target) throws ReadOnlyElementException;
+
+    /** Moves and resizes a shape; other symbols are left as they are. */
+    void reshape(S shape, Rectangle bounds) throws ReadOnlyElementException;
+
+    /**
+     * A swim‑lane frame with one vertical lane per partition, in order; the
+     * lanes are then found with {@link #find}.
+     *
+     * @return the frame
+     */
+    S createSwimlanes(List<ActivityPartition> lanes, D diagram) throws ReadOnlyElementException;
+
+    /* -------- diagrams -------- */
+
+    /** The symbol of {@code element} on {@code diagram}, or {@code null}. */
+    S find(D diagram, Element element);
+
+    Rectangle boundsOf(S shape);
+
+    void open(D diagram);
+}
@@ -0,0 +1,52 @@
+package com.example.csvactivityplugin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One instance of every actor, group and pin string of an import.
+ *
+ * The same actor and pin names repeat thousands of times in a large sheet.
+ * The parser passes every such cell through {@link #intern}, so each
+ * distinct string is kept once and rows share it; partitions, lanes and
+ * pins are then created from these instances, and comparing two of them
+ * ends at the identity check in {@link String#equals}. Pin cells are also
+ * split into name and type only once per distinct cell value.
+ *
+ * Scoped to one import: the parser creates it and the creator uses it for
+ * the rows of that parse.
+ */
+public final class NameDictionary {
+
+    private final Map<String,String>   strings  = new HashMap<>();
+    private final Map<String,String[]> pinSpecs = new HashMap<>();   // cell → {name, type}
+
+    /** The shared instance of {@code s}, trimmed. */
+    public String intern(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        String known = strings.putIfAbsent(t, t);
+        return (known != null) ? known : t;
+    }
+
+    /** Pin name of a cell value ("name : Type" → "name"), shared. */
+    public String pinName(String raw) {
+        return pinSpec(raw)[0];
+    }
+
+    /** Type part of a pin cell value, shared; {@code null} if it has none. */
+    public String typeName(String raw) {
+        return pinSpec(raw)[1];
+    }
+
+    private String[] pinSpec(String raw) {
+        String[] spec = pinSpecs.get(raw);
+        if (spec == null) {
+            String type = PinTypeResolver.typeName(raw);
+            spec = new String[] { intern(PinTypeResolver.pinName(raw)),
+                                  type == null ? null : intern(type) };
+            pinSpecs.put(raw, spec);
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ObjectFlow;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+
+import java.util.*;
+
+/**
+ * Wires object flows from output pins to the input pins of the same name.
+ *
+ * Each context (the Activity, and every structured node with sub‑actions)
+ * is handled in one pass over its nodes in flow order: output pins are
+ * indexed by name as they are seen, and every input pin looks up the most
+ * recent producer of its name – a hash join, so the cost is O(pins) rather
+ * than O(pins²). An input with no earlier producer takes the first later
+ * one (a feedback flow). Inside a structured node its own input pins feed
+ * the sub‑actions and its output pins collect from the last sub‑action
+ * producing them.
+ *
+ * Input pins that already have an incoming edge are left alone, so running
+ * it again (e.g. after a re‑import) only adds what is missing.
+ */
+public final class ObjectFlowBuilder {
+    private ObjectFlowBuilder() {}
+
+    /**
+     * Connects the pins of the whole Activity, nested structured nodes included.
+     *
+     * @return number of object flows created
+     */
+    public static int connect(ModelApi<?,?> api, Activity activity)
+            throws ReadOnlyElementException {
+
+        int created = 0;
+        Deque<Element> contexts = new ArrayDeque<>();
+        contexts.add(activity);
+
+        while (!contexts.isEmpty()) {
+            Element ctx = contexts.poll();
+            List<ActivityNode> nodes = nodesOf(ctx);
+            created += connectContext(api, ctx, nodes);
+
+            for (ActivityNode n : nodes)
+                if (n instanceof StructuredActivityNode san && !nodesOf(san).isEmpty())
+                    contexts.add(san);
+        }
+        return created;
+    }
+
+    /** Object flows owned directly by a context, for drawing paths. */
+    public static List<ObjectFlow> flowsOf(Element ctx) {
+        List<ObjectFlow> out = new ArrayList<>();
+        if (ctx instanceof Activity act) {
+            for (ActivityEdge e : act.getEdge())
+                if (e instanceof ObjectFlow of) out.add(of);
+        } else if (ctx instanceof StructuredActivityNode san) {
+            for (Element e : san.getOwnedElement())
+                if (e instanceof ObjectFlow of) out.add(of);
+        }
+        return out;
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static int connectContext(ModelApi<?,?> api, Element ctx, List<ActivityNode> nodes)
+            throws ReadOnlyElementException {
+
+        Map<String,Pin> latest = new HashMap<>();     // name → last producer seen so far
+        Map<String,Pin> first  = new HashMap<>();     // name → first producer overall
+        List<InputPin>  unmatched = new ArrayList<>();
+        int created = 0;
+
+        /* a structured node's own inputs are available to its sub‑actions */
+        if (ctx instanceof StructuredActivityNode san)
+            for (InputPin p : san.getStructuredNodeInput()) index(p, latest, first);
+
+        for (ActivityNode node : nodes) {
+            List<InputPin>  ins  = new ArrayList<>();
+            List<OutputPin> outs = new ArrayList<>();
+            collectPins(node, ins, outs);
+
+            for (InputPin in : ins) {
+                if (!in.getIncoming().isEmpty()) continue;
+                Pin src = latest.get(key(in));
+                if (src != null && src.getOwner() != node) {
+                    link(api, ctx, src, in);
+                    created++;
+                } else if (key(in) != null) {
+                    unmatched.add(in);
+                }
+            }
+            for (OutputPin out : outs) index(out, latest, first);
+        }
+
+        /* inputs produced only further down the flow */
+        for (InputPin in : unmatched) {
+            Pin src = first.get(key(in));
+            if (src != null && src.getOwner() != in.getOwner()) {
+                link(api, ctx, src, in);
+                created++;
+            }
+        }
+
+        /* a structured node's outputs come from its last producing sub‑action */
+        if (ctx instanceof StructuredActivityNode san) {
+            for (OutputPin out : san.getStructuredNodeOutput()) {
+                if (!out.getIncoming().isEmpty()) continue;
+                Pin src = latest.get(key(out));
+                if (src != null && src.getOwner() != san) {
+                    link(api, ctx, src, out);
+                    created++;
+                }
+            }
+        }
+        return created;
+    }
+
+    private static void index(Pin p, Map<String,Pin> latest, Map<String,Pin> first) {
+        String k = key(p);
+        if (k == null) return;
+        latest.put(k, p);
+        first.putIfAbsent(k, p);
+    }
+
+    private static String key(Pin p) {
+        String name = p.getName();
+        return (name == null || name.trim().isEmpty()) ? null : name.trim().toLowerCase();
+    }
+
+    private static void link(ModelApi<?,?> api, Element ctx, Pin src, Pin tgt)
+            throws ReadOnlyElementException {
+        ObjectFlow of = api.createObjectFlow();
+        of.setSource(src);
+        of.setTarget(tgt);
+        api.addElement(of, ctx);
+    }
+
+    private static List<ActivityNode> nodesOf(Element ctx) {
+        List<ActivityNode> l = new ArrayList<>();
+        if (ctx instanceof Activity act) {
+            l.addAll(act.getNode());
+        } else if (ctx instanceof StructuredActivityNode san) {
+            for (Element e : san.getOwnedElement())
+                if (e instanceof ActivityNode n && !(e instanceof Pin)) l.add(n);
+        }
+        return l;
+    }
+
+    /** the input and output pins of an action or structured node */
+    static void collectPins(ActivityNode node,
+                            List<InputPin> inPins,
+                            List<OutputPin> outPins) {
+        if (node instanceof OpaqueAction oa) {
+            oa.getInput().stream().filter(p -> p instanceof InputPin)
+                .map(p -> (InputPin)p).forEach(inPins::add);
+            oa.getOutput().stream().filter(p -> p instanceof OutputPin)
+                .map(p -> (OutputPin)p).forEach(outPins::add);
+        } else if (node instanceof CallBehaviorAction cba) {
+            cba.getArgument().stream().filter(p -> p instanceof InputPin)
+                .map(p -> (InputPin)p).forEach(inPins::add);
+            cba.getResult().stream().filter(p -> p instanceof OutputPin)
+                .map(p -> (OutputPin)p).forEach(outPins::add);
+        } else if (node instanceof StructuredActivityNode san) {
+            san.getStructuredNodeInput().stream().filter(p -> p instanceof InputPin)
+                .map(p -> (InputPin)p).forEach(inPins::add);
+            san.getStructuredNodeOutput().stream().filter(p -> p instanceof OutputPin)
+                .map(p -> (OutputPin)p).forEach(outPins::add);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.uml2.ext.jmi.helpers.StereotypesHelper;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Classifier;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Type;
+import com.nomagic.uml2.ext.magicdraw.mdprofiles.Profile;
+import com.nomagic.uml2.ext.magicdraw.mdprofiles.Stereotype;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the {@code Type} part of {@code name : Type} pin cells.
+ *
+ * The project is scanned once, when the resolver is created: every
+ * classifier (Blocks, ValueTypes, enumerations …) reachable through
+ * packages is indexed by qualified name and by simple name. After that a
+ * lookup is a map access, and each distinct type string is resolved only
+ * once per import however many pins use it.
+ *
+ * Simple names that occur more than once resolve to the first one found,
+ * primary model first, with a warning; a qualified name ({@code Pkg::Type})
+ * picks a specific one. Unknown types are created as Blocks in
+ * {@code createIn} when one is given, otherwise the pin stays untyped.
+ */
+public class PinTypeResolver {
+
+    /* "name : Type" – a single colon, so "Pkg::Type" stays in one piece */
+    private static final Pattern PIN_SPEC = Pattern.compile("^(.*?)(?<!:):(?!:)(.*)$");
+
+    private final Project project;
+    private final Package createIn;
+
+    private final Map<String,Type> byQualified = new HashMap<>();
+    private final Map<String,Type> bySuffix    = new HashMap<>();   // "Units::Mass" for "Model::Units::Mass"
+    private final Map<String,Type> bySimple    = new HashMap<>();
+    private final Set<String>      ambiguous   = new HashSet<>();
+    private final List<String>     warnings    = new ArrayList<>();
+
+    /** type string → result, misses included (stored as null) */
+    private final Map<String,Type> cache = new HashMap<>();
+
+    private int resolved, created, unresolved;
+
+    public PinTypeResolver(Project project, Package createIn) {
+        this.project  = project;
+        this.createIn = createIn;
+        buildIndex();
+    }
+
+    /* =============================================================
+                              PIN CELLS
+       ============================================================= */
+
+    /** Pin name of a cell value: everything before the type separator. */
+    public static String pinName(String raw) {
+        Matcher m = PIN_SPEC.matcher(raw);
+        return m.matches() ? m.group(1).trim() : raw.trim();
+    }
+
+    /** Type part of a cell value, or {@code null} if it has none. */
+    public static String typeName(String raw) {
+        Matcher m = PIN_SPEC.matcher(raw);
+        if (!m.matches()) return null;
+        String t = m.group(2).trim();
+        return t.isEmpty() ? null : t;
+    }
+
+    /* =============================================================
+                              RESOLUTION
+       ============================================================= */
+
+    /** Type for the type part of a pin cell; {@code null} if none or unknown. */
+    public Type resolveType(String name) throws ReadOnlyElementException {
+        if (name == null) return null;
+        if (cache.containsKey(name)) return cache.get(name);
+
+        Type t = lookup(name);
+        if (t == null && createIn != null) t = create(name);
+        if (t != null) resolved++; else unresolved++;
+
+        cache.put(name, t);
+        return t;
+    }
+
+    private Type lookup(String name) {
+        Type t = byQualified.get(name);
+        if (t != null) return t;
+
+        /* a qualified name relative to some package, e.g. "Units::Mass" */
+        if (name.contains("::")) return bySuffix.get(name);
+
+        t = bySimple.get(name);
+        if (t != null && ambiguous.contains(name))
+            warnings.add("Pin type '" + name + "' is ambiguous, using "
+                         + t.getQualifiedName() + " (qualify it to choose another)");
+        return t;
+    }
+
+    private Type create(String name) throws ReadOnlyElementException {
+        String simple = name.contains("::") ? name.substring(name.lastIndexOf("::") + 2) : name;
+
+        Class c = project.getElementsFactory().createClassInstance();
+        c.setName(simple);
+        ModelElementsManager.getInstance().addElement(c, createIn);
+
+        Profile sysml = StereotypesHelper.getProfile(project, "SysML");
+        Stereotype block = (sysml == null)
+                         ? null
+                         : StereotypesHelper.getStereotype(project, "Block", sysml);
+        if (block != null) StereotypesHelper.addStereotype(c, block);
+
+        index(c);
+        created++;
+        return c;
+    }
+
+    /** one line for the import log */
+    public String summary() {
+        return "Pin types: " + resolved + " resolved (" + created + " created), "
+               + unresolved + " unknown";
+    }
+
+    /** ambiguous simple names and the type each was given */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /* =============================================================
+                                 INDEX
+       ============================================================= */
+
+    private void buildIndex() {
+        List<Package> roots = new ArrayList<>();
+        roots.add(project.getPrimaryModel());                     // wins ambiguous names
+        for (Package m : project.getModels())
+            if (m != project.getPrimaryModel()) roots.add(m);
+
+        /* one root after the other, so the primary model is indexed completely first */
+        for (Package root : roots) {
+            Deque<Element> todo = new ArrayDeque<>();
+            todo.add(root);
+            while (!todo.isEmpty()) {
+                Element e = todo.poll();
+                if (e instanceof Classifier c) index(c);
+                for (Element child : e.getOwnedElement())
+                    if (child instanceof Package || child instanceof Classifier) todo.add(child);
+            }
+        }
+    }
+
+    private void index(Type t) {
+        String name = t.getName();
+        if (name == null || name.isEmpty()) return;
+        String qualified = t.getQualifiedName();
+        byQualified.putIfAbsent(qualified, t);
+        if (bySimple.putIfAbsent(name, t) != null) ambiguous.add(name);
+
+        /* every trailing part of two or more segments, for relative lookups */
+        for (int i = qualified.indexOf("::"); i >= 0; i = qualified.indexOf("::", i + 2)) {
+            String suffix = qualified.substring(i + 2);
+            if (suffix.contains("::")) bySuffix.putIfAbsent(suffix, t);
+        }
+    }
+}
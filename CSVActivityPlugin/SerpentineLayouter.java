@@ -0,0 +1,149 @@
+package com.example.csvactivityplugin;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Height‑bounded alternative to the one‑row‑per‑node layouts. The flow is
+ * cut into columns that each fit below {@code maxHeight}; every swimlane is
+ * split into that many sub‑columns, and the flow runs down the first
+ * column, up the second, down the third … so consecutive nodes always stay
+ * next to each other and the control flow reads as one serpentine line.
+ *
+ * Like {@link SubdiagramGridPlanner#plan} it only produces a
+ * {@link DiagramGeometry}; nothing here touches the model.
+ */
+public final class SerpentineLayouter {
+    private SerpentineLayouter() {}
+
+    /** one node of the flow, as far as the layout is concerned */
+    public static final class Slot {
+        final String  lane;        // null ⇒ first lane
+        final boolean action;
+        final int     ins, outs;
+
+        public Slot(String lane, boolean action, int ins, int outs) {
+            this.lane = lane;   this.action = action;
+            this.ins  = ins;    this.outs   = outs;
+        }
+
+        int width()  { return action ? ACTION_WIDTH : CONTROL_NODE_SIZE; }
+
+        int height() {
+            if (!action) return CONTROL_NODE_SIZE;
+            return (ins > 3 || outs > 3) ? ACTION_HEIGHT + (Math.max(ins, outs) - 3) * 25
+                                         : ACTION_HEIGHT;
+        }
+    }
+
+    /**
+     * @param laneOrder actor names, left to right
+     * @param slots     the flow, in order
+     * @param laneTopY  top edge of the swimlane wrapper
+     * @param startY    Y of the first node in every column
+     * @param yStep     vertical gap between nodes
+     * @param maxHeight tallest the lanes may get; a column always takes at
+     *                  least one node, so a single huge node can exceed it
+     */
+    public static DiagramGeometry plan(List<String> laneOrder,
+                                       List<Slot> slots,
+                                       int laneTopY,
+                                       int startY,
+                                       int yStep,
+                                       int maxHeight) {
+
+        ImportEvents.Layout event = ImportEvents.layout("Serpentine", slots.size(), laneOrder.size());
+
+        /* ---- cut the flow into columns ---- */
+        int limit = laneTopY + maxHeight - yStep;      // lowest bottom edge a node may have
+        int[] column = new int[slots.size()];
+        int[] offset = new int[slots.size()];          // top of the node below startY
+        int col = 0, y = 0, bandHeight = 0;
+
+        for (int i = 0; i < slots.size(); i++) {
+            int h = slots.get(i).height();
+            if (y > 0 && startY + y + h > limit) {     // column full ⇒ wrap
+                col++;
+                y = 0;
+            }
+            column[i] = col;
+            offset[i] = y;
+            y += h + yStep;
+            bandHeight = Math.max(bandHeight, y - yStep);
+        }
+        int columns = col + 1;
+
+        /* ---- lanes: every lane holds all columns ---- */
+        int laneWidth = Math.max(LANE_WIDTH, columns * COLUMN_WIDTH);
+        int colWidth  = laneWidth / columns;
+        int laneH     = (startY - laneTopY) + bandHeight + yStep;
+        int startX    = Math.max(0, (DIAGRAM_WIDTH - laneWidth * laneOrder.size()) / 2);
+
+        Map<String,Rectangle> laneBounds = new LinkedHashMap<>();
+        for (int i = 0; i < laneOrder.size(); i++)
+            laneBounds.put(laneOrder.get(i),
+                    new Rectangle(startX + i * laneWidth, laneTopY, laneWidth, laneH));
+        Rectangle frame = new Rectangle(startX, laneTopY,
+                                        laneWidth * Math.max(1, laneOrder.size()), laneH);
+
+        /* ---- nodes: odd columns run bottom‑up ---- */
+        String firstLane = laneOrder.isEmpty() ? null : laneOrder.get(0);
+        List<DiagramGeometry.NodeGeometry> nodes = new ArrayList<>(slots.size());
+
+        for (int i = 0; i < slots.size(); i++) {
+            Slot s = slots.get(i);
+            int w = s.width(), h = s.height();
+
+            Rectangle lane = laneBounds.get(s.lane != null ? s.lane : firstLane);
+            if (lane == null) lane = laneBounds.get(firstLane);
+            int laneX = (lane != null) ? lane.x : startX;
+
+            int x  = laneX + column[i] * colWidth + (colWidth - w) / 2;
+            int ny = (column[i] % 2 == 0)
+                   ? startY + offset[i]
+                   : startY + bandHeight - offset[i] - h;
+
+            Rectangle rect = new Rectangle(x, ny, w, h);
+            nodes.add(new DiagramGeometry.NodeGeometry(rect,
+                    s.action ? pinColumn(s.ins,  rect, true)  : List.of(),
+                    s.action ? pinColumn(s.outs, rect, false) : List.of()));
+        }
+
+        event.commit();
+        return new DiagramGeometry(new ArrayList<>(laneOrder), laneBounds, frame, nodes);
+    }
+
+    /** Slots for a sub‑diagram straight from its rows: Start, the rows, End. */
+    public static List<Slot> slotsOf(List<ActivityData> subRows,
+                                     Set<String> mainActors,
+                                     String firstLane) {
+        List<Slot> out = new ArrayList<>(subRows.size() + 2);
+        out.add(new Slot(firstLane, false, 0, 0));
+        String lastActor = firstLane;
+
+        for (ActivityData d : subRows) {
+            String actor = ActivityData.actorName(d.getActor());
+            if (!mainActors.contains(actor)) actor = firstLane;   // no partition ⇒ fall back
+            lastActor = actor;
+            out.add(new Slot(actor, true, d.getInputs().size(), d.getOutputs().size()));
+        }
+
+        out.add(new Slot(lastActor, false, 0, 0));
+        return out;
+    }
+
+    /* pins spaced evenly down the left or right edge of {@code action} */
+    static List<Rectangle> pinColumn(int count, Rectangle action, boolean left) {
+        final int pinW = PIN_SIZE, pinH = PIN_SIZE,
+                  pinGap = PIN_GAP;
+        List<Rectangle> out = new ArrayList<>(count);
+        int total  = count * pinH + Math.max(0, count - 1) * pinGap;
+        int startY = action.y + (action.height - total) / 2;
+        int px = left ? action.x - pinW / 2 : action.x + action.width - pinW / 2;
+        for (int i = 0; i < count; i++)
+            out.add(new Rectangle(px, startY + i * (pinH + pinGap), pinW, pinH));
+        return out;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.actions.AMConfigurator;
+import com.nomagic.actions.ActionsCategory;
+import com.nomagic.actions.ActionsManager;
+import com.nomagic.magicdraw.actions.BrowserContextAMConfigurator;
+import com.nomagic.magicdraw.actions.DiagramContextAMConfigurator;
+import com.nomagic.magicdraw.ui.browser.Node;
+import com.nomagic.magicdraw.ui.browser.Tree;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.magicdraw.uml.symbols.PresentationElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+
+/**
+ * Adds "Build Sub-Action Diagram" to the containment‑browser and diagram
+ * context menus of a node whose sub‑diagram was deferred by a lazy import.
+ */
+public class SubdiagramContextConfigurator
+        implements BrowserContextAMConfigurator, DiagramContextAMConfigurator {
+
+    /** Containment tree: right‑click on the node itself. */
+    @Override
+    public void configure(ActionsManager manager, Tree tree) {
+        Node node = tree.getSelectedNode();
+        addIfPending(manager, node != null ? node.getUserObject() : null);
+    }
+
+    /** Activity diagram: right‑click on the node's shape. */
+    @Override
+    public void configure(ActionsManager manager,
+                          DiagramPresentationElement diagram,
+                          PresentationElement[] selected,
+                          PresentationElement requestor) {
+        addIfPending(manager, requestor != null ? requestor.getElement() : null);
+    }
+
+    private void addIfPending(ActionsManager manager, Object selected) {
+        if (!(selected instanceof StructuredActivityNode san)
+                || !SubdiagramMaterializer.isPending(san)) return;
+
+        ActionsCategory category = new ActionsCategory(null, null);
+        manager.addCategory(category);
+        category.addAction(new MaterializeSubdiagramAction(san));
+    }
+
+    @Override
+    public int getPriority() {
+        return AMConfigurator.MEDIUM_PRIORITY;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.csvactivityplugin;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Grid geometry of a sub-activity diagram: one row per node, each action
+ * centred in its actor's swimlane. Pure Java, no model access; the result is
+ * a {@link DiagramGeometry} that {@link SubdiagramGridLayouter} applies.
+ */
+public final class SubdiagramGridPlanner {
+    private SubdiagramGridPlanner() {}
+
+    /**
+     * Computes the geometry of one sub-diagram from its parsed rows alone,
+     * without touching the model. Nodes are Start, one per sub-row, End –
+     * the same order createSubactionDiagram lays them out in.
+     *
+     * @param laneOrder  actor names of the sub-diagram's lanes, left to right
+     * @param mainActors actors that own a lane on the main diagram; sub-actions
+     *                   of any other actor have no partition and fall back to lane 0
+     * @param subRows    the sub-action rows of one parent
+     * @param laneTopY   top edge of the swimlane wrapper
+     * @param startY     Y of the first node
+     * @param yStep      vertical gap between nodes
+     */
+    public static DiagramGeometry plan(List<String> laneOrder,
+                                       Set<String> mainActors,
+                                       List<ActivityData> subRows,
+                                       int laneTopY,
+                                       int startY,
+                                       int yStep) {
+
+        ImportEvents.Layout event = ImportEvents.layout("Sub-diagram grid", subRows.size() + 2,
+                                                        laneOrder.size());
+
+        /* ---- swimlanes: rows per actor sizes each column ---- */
+        Map<String,Integer> actionsPerActor = new HashMap<>();
+        for (ActivityData d : subRows) {
+            String actor = ActivityData.actorName(d.getActor());
+            if (mainActors.contains(actor)) actionsPerActor.merge(actor, 1, Integer::sum);
+        }
+
+        int swimlaneStartX = (DIAGRAM_WIDTH - LANE_WIDTH * laneOrder.size()) / 2;
+        Map<String,Rectangle> laneBounds = new LinkedHashMap<>();
+        int maxRows = 1;
+        for (int i = 0; i < laneOrder.size(); i++) {
+            String actor = laneOrder.get(i);
+            int rows = actionsPerActor.getOrDefault(actor, 1);
+            maxRows = Math.max(maxRows, rows);
+            laneBounds.put(actor, new Rectangle(swimlaneStartX + i * LANE_WIDTH, laneTopY,
+                                                LANE_WIDTH, rows * (3 * ROW_HEIGHT)));
+        }
+        Rectangle frame = new Rectangle(swimlaneStartX, laneTopY,
+                                        LANE_WIDTH * laneOrder.size(),
+                                        maxRows * 3 * ROW_HEIGHT);
+
+        /* ---- nodes: Start, one per sub-row, End ---- */
+        String firstLane = laneOrder.isEmpty() ? null : laneOrder.get(0);
+        List<DiagramGeometry.NodeGeometry> nodes = new ArrayList<>(subRows.size() + 2);
+        int y = startY;
+
+        Rectangle start = controlNodeBounds(laneBounds.get(firstLane), y);
+        nodes.add(new DiagramGeometry.NodeGeometry(start, List.of(), List.of()));
+        y += start.height + yStep;
+        String lastActor = firstLane;
+
+        for (ActivityData d : subRows) {
+            String actor = ActivityData.actorName(d.getActor());
+            if (!mainActors.contains(actor)) actor = firstLane;   // no partition ⇒ fall back
+            lastActor = actor;
+
+            int ins  = d.getInputs().size();
+            int outs = d.getOutputs().size();
+            int height = ACTION_HEIGHT;
+            if (ins > 3 || outs > 3) height += (Math.max(ins, outs) - 3) * 25;
+
+            Rectangle lane = laneBounds.get(actor);
+            int nodeX = (lane != null)
+                      ? lane.x + (lane.width - ACTION_WIDTH) / 2
+                      : (DIAGRAM_WIDTH - ACTION_WIDTH) / 2;
+            Rectangle rect = new Rectangle(nodeX, y, ACTION_WIDTH, height);
+
+            nodes.add(new DiagramGeometry.NodeGeometry(rect,
+                    SerpentineLayouter.pinColumn(ins,  rect, true),
+                    SerpentineLayouter.pinColumn(outs, rect, false)));
+            y += height + yStep;
+        }
+
+        Rectangle end = controlNodeBounds(laneBounds.get(lastActor), y);
+        nodes.add(new DiagramGeometry.NodeGeometry(end, List.of(), List.of()));
+
+        event.commit();
+        return new DiagramGeometry(new ArrayList<>(laneOrder), laneBounds, frame, nodes);
+    }
+
+    private static Rectangle controlNodeBounds(Rectangle lane, int y) {
+        int x = (lane != null)
+              ? lane.x + (lane.width - CONTROL_NODE_SIZE) / 2
+              : (DIAGRAM_WIDTH - ACTION_WIDTH) / 2 + (ACTION_WIDTH - CONTROL_NODE_SIZE) / 2;
+        return new Rectangle(x, y, CONTROL_NODE_SIZE, CONTROL_NODE_SIZE);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.csvactivityplugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plans the geometry of every sub‑action diagram up front, straight from the
+ * parsed rows, on the fork/join pool. Nothing here touches the model, so it
+ * runs before the session is opened and scales with the number of cores;
+ * the session then only applies the pre‑computed rectangles.
+ */
+public final class SubdiagramLayoutPlanner {
+    private SubdiagramLayoutPlanner() {}
+
+    /** below this many sub‑diagrams a task plans serially instead of splitting */
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    /**
+     * @param rows     every parsed row (main and sub)
+     * @param laneTopY top edge of each swimlane wrapper
+     * @param startY   Y of the first node in each sub‑diagram
+     * @param yStep    vertical gap between nodes
+     * @return geometry of each sub‑diagram, indexed by the row ID of its
+     *         parent action (null for rows without sub‑actions)
+     */
+    public static DiagramGeometry[] planAll(List<ActivityData> rows,
+                                                      int laneTopY,
+                                                      int startY,
+                                                      int yStep) {
+        return planAll(rows, laneTopY, startY, yStep, 0);
+    }
+
+    /**
+     * As above; with {@code maxHeight > 0} every sub‑diagram is laid out by
+     * {@link SerpentineLayouter} so it is never taller than that.
+     */
+    public static DiagramGeometry[] planAll(List<ActivityData> rows,
+                                            int laneTopY,
+                                            int startY,
+                                            int yStep,
+                                            int maxHeight) {
+        DiagramGeometry[] out = new DiagramGeometry[ActivityData.idLimit(rows)];
+        planAll(rows, out, laneTopY, startY, yStep, maxHeight);
+        return out;
+    }
+
+    /**
+     * As above, into {@code out}, indexed by row ID; a group of a sheet
+     * fills only the slots of its own parent rows.
+     */
+    static void planAll(List<ActivityData> rows,
+                        DiagramGeometry[] out,
+                        int laneTopY,
+                        int startY,
+                        int yStep,
+                        int maxHeight) {
+
+        /* main‑diagram lane order, exactly as createActivityPartitions builds it */
+        Set<String> mainActors = new LinkedHashSet<>();
+        for (ActivityData d : rows)
+            if (!d.isSubAction()) mainActors.add(ActivityData.actorName(d.getActor()));
+
+        /* sub‑rows follow their parent, so each parent's rows are one run */
+        List<List<ActivityData>> work = new ArrayList<>();
+        List<ActivityData> run = null;
+        for (ActivityData d : rows) {
+            if (!d.isSubAction() || d.getParentRow() < 0) { run = null; continue; }
+            if (run == null || run.get(0).getParentRow() != d.getParentRow())
+                work.add(run = new ArrayList<>());
+            run.add(d);
+        }
+
+        /* every task writes its own slots, so a plain array will do */
+        ForkJoinPool.commonPool().invoke(
+                new PlanTask(work, 0, work.size(), mainActors, laneTopY, startY, yStep, maxHeight, out));
+    }
+
+    /**
+     * Sub‑diagram lanes: main‑diagram order first, then any actor that only
+     * appears in the sub‑rows, in row order.
+     */
+    static List<String> laneOrder(Set<String> mainActors, List<ActivityData> subRows) {
+        Set<String> needed = new LinkedHashSet<>();
+        for (ActivityData d : subRows) needed.add(ActivityData.actorName(d.getActor()));
+
+        List<String> order = new ArrayList<>(needed.size());
+        for (String actor : mainActors)
+            if (needed.remove(actor)) order.add(actor);
+        order.addAll(needed);
+        return order;
+    }
+
+    /** Geometry of one sub‑diagram (Start, {@code subRows}, End). */
+    static DiagramGeometry planOne(Set<String> mainActors, List<ActivityData> subRows,
+                                   int laneTopY, int startY, int yStep, int maxHeight) {
+        List<String> lanes = laneOrder(mainActors, subRows);
+        return maxHeight > 0
+             ? SerpentineLayouter.plan(lanes,
+                     SerpentineLayouter.slotsOf(subRows, mainActors,
+                                                lanes.isEmpty() ? null : lanes.get(0)),
+                     laneTopY, startY, yStep, maxHeight)
+             : SubdiagramGridPlanner.plan(lanes, mainActors, subRows,
+                                           laneTopY, startY, yStep);
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static final class PlanTask extends RecursiveAction {
+        private final List<List<ActivityData>> work;
+        private final int from, to;
+        private final Set<String> mainActors;
+        private final int laneTopY, startY, yStep, maxHeight;
+        private final DiagramGeometry[] out;
+
+        PlanTask(List<List<ActivityData>> work, int from, int to,
+                 Set<String> mainActors, int laneTopY, int startY, int yStep,
+                 int maxHeight, DiagramGeometry[] out) {
+            this.work = work;   this.from = from;   this.to = to;
+            this.mainActors = mainActors;
+            this.laneTopY = laneTopY;   this.startY = startY;   this.yStep = yStep;
+            this.maxHeight = maxHeight;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    List<ActivityData> subRows = work.get(i);
+                    out[subRows.get(0).getParentRow()] =
+                            planOne(mainActors, subRows, laneTopY, startY, yStep, maxHeight);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PlanTask(work, from, mid, mainActors, laneTopY, startY, yStep, maxHeight, out),
+                      new PlanTask(work, mid,  to,  mainActors, laneTopY, startY, yStep, maxHeight, out));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.SessionManager;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ActivityFinalNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.InitialNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.csvactivityplugin.LayoutConstants.*;
+
+/**
+ * Builds sub‑action diagrams on demand for imports run in lazy mode.
+ * The import only records a layout plan per parent node; the Diagram and
+ * its symbols are created the first time the user requests it.
+ * Plans are kept per project and dropped when it is closed – after the
+ * project is reopened the geometry is simply re‑planned from the model
+ * elements.
+ */
+public final class SubdiagramMaterializer {
+    private SubdiagramMaterializer() {}
+
+    /** project → parent node ID → geometry recorded at import time */
+    private static final Map<Project,Map<String,DiagramGeometry>> PLANS = new ConcurrentHashMap<>();
+
+    /** Records the plan for a parent whose diagram was deferred. */
+    public static void register(Project project, StructuredActivityNode parent,
+                                DiagramGeometry geometry) {
+        PLANS.computeIfAbsent(project, p -> new ConcurrentHashMap<>())
+             .put(parent.getID(), geometry);
+    }
+
+    /** Drops the plans of a project that is being closed. */
+    public static void forget(Project project) {
+        PLANS.remove(project);
+    }
+
+    /**
+     * true ⇢ the node was imported (its plan is registered, or its Activity
+     * carries an import manifest) and has sub‑actions, but no diagram has
+     * been built for them yet. Hand‑modelled nodes are left alone.
+     */
+    public static boolean isPending(Element e) {
+        if (!(e instanceof StructuredActivityNode san)) return false;
+        if (!san.getOwnedDiagram().isEmpty()) return false;
+        if (subActions(san).isEmpty()) return false;
+
+        Project project = Project.getProject(san);
+        if (project != null && PLANS.getOrDefault(project, Map.of()).containsKey(san.getID()))
+            return true;
+        return ImportManifest.isImported(ActivityBuilder.findOwningActivity(san));
+    }
+
+    /**
+     * Builds the sub‑action diagram of {@code parent} in its own session and
+     * opens it.
+     */
+    public static DiagramPresentationElement materialize(Project project,
+                                                         StructuredActivityNode parent)
+            throws Exception {
+
+        List<ActivityNode> subs = subActions(parent);
+        Map<String,DiagramGeometry> plans = PLANS.getOrDefault(project, Map.of());
+        DiagramGeometry geometry = plans.get(parent.getID());
+        if (geometry == null || geometry.getNodes().size() != subs.size() + 2)
+            geometry = replan(parent);
+
+        /* Start, the sub‑actions, End – less a Start or End the node does not have */
+        List<ActivityNode> nodes = new ArrayList<>(subs);
+        List<DiagramGeometry.NodeGeometry> placed =
+                new ArrayList<>(geometry.getNodes().subList(1, subs.size() + 1));
+        ActivityNode start = child(parent, InitialNode.class);
+        ActivityNode end   = child(parent, ActivityFinalNode.class);
+        if (start != null) {
+            nodes.add(0, start);
+            placed.add(0, geometry.getNodes().get(0));
+        }
+        if (end != null) {
+            nodes.add(end);
+            placed.add(geometry.getNodes().get(subs.size() + 1));
+        }
+        geometry = new DiagramGeometry(geometry.getLaneOrder(), geometry.getLaneBounds(),
+                                       geometry.getFrameBounds(), placed);
+
+        SessionManager sm = SessionManager.getInstance();
+        sm.createSession(project, "Build Sub-Action Diagram");
+        DiagramPresentationElement dpe;
+        try {
+            dpe = new ActivityDiagramCreator().builder(project)
+                    .buildSubactionDiagram(parent, nodes, geometry);
+            sm.closeSession(project);
+        } catch (Exception ex) {
+            sm.cancelSession(project);
+            throw ex;
+        }
+
+        plans.remove(parent.getID());
+        dpe.open();
+        return dpe;
+    }
+
+    /* -------------------------------------------------------------- */
+
+    /** the first child of {@code parent} of {@code type}, or {@code null} */
+    private static ActivityNode child(StructuredActivityNode parent, Class<? extends ActivityNode> type) {
+        for (Element child : parent.getOwnedElement())
+            if (type.isInstance(child)) return (ActivityNode) child;
+        return null;
+    }
+
+    private static List<ActivityNode> subActions(StructuredActivityNode parent) {
+        List<ActivityNode> out = new ArrayList<>();
+        for (Element child : parent.getOwnedElement())
+            if (child instanceof CallBehaviorAction || child instanceof StructuredActivityNode)
+                out.add((ActivityNode) child);
+        return out;
+    }
+
+    /** Re‑derives the rows of a sub‑diagram from the model and plans it again. */
+    private static DiagramGeometry replan(StructuredActivityNode parent) {
+        List<ActivityData> rows = new ArrayList<>();
+        Set<String> laneActors = new LinkedHashSet<>();
+
+        for (ActivityNode node : subActions(parent)) {
+            ActivityData d = new ActivityData();
+            d.setName(node.getName());
+            if (!node.getInPartition().isEmpty()) {
+                String actor = node.getInPartition().iterator().next().getName();
+                d.setActor(actor);
+                laneActors.add(actor);
+            }
+            if (node instanceof StructuredActivityNode san) {
+                san.getStructuredNodeInput().forEach(p -> d.addInput(p.getName()));
+                san.getStructuredNodeOutput().forEach(p -> d.addOutput(p.getName()));
+            } else if (node instanceof CallBehaviorAction cba) {
+                cba.getArgument().forEach(p -> d.addInput(p.getName()));
+                cba.getResult().forEach(p -> d.addOutput(p.getName()));
+            }
+            rows.add(d);
+        }
+
+        return SubdiagramGridPlanner.plan(SubdiagramLayoutPlanner.laneOrder(laneActors, rows),
+                                           laneActors, rows,
+                                           START_Y - 50, START_Y, Y_STEP);
+    }
+}
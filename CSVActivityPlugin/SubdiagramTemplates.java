@@ -0,0 +1,181 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.magicdraw.copypaste.CopyPasting;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.openapi.uml.ModelElementsManager;
+import com.nomagic.magicdraw.openapi.uml.PresentationElementsManager;
+import com.nomagic.magicdraw.openapi.uml.ReadOnlyElementException;
+import com.nomagic.magicdraw.uml.BaseElement;
+import com.nomagic.magicdraw.uml.symbols.DiagramPresentationElement;
+import com.nomagic.magicdraw.uml.symbols.PresentationElement;
+import com.nomagic.magicdraw.uml.symbols.shapes.ShapeElement;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Diagram;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+
+import java.awt.Rectangle;
+import java.util.*;
+
+/**
+ * Sub‑diagrams cloned from prototypes instead of built symbol by symbol.
+ *
+ * Sub‑diagrams with the same lanes at the same x positions share one
+ * prototype: an empty diagram holding just the swim‑lane frame, built once
+ * with its own partitions. Every such sub‑diagram is a copy of the diagram
+ * together with those partitions, so it gets partitions of its own, as a
+ * classic build does, for one copy instead of a diagram, a swim‑lane and a
+ * reshape per lane; only a different height still needs reshaping. The
+ * prototypes and their partitions are removed again by {@link #dispose()}.
+ *
+ * If copying fails the prototypes are removed at once and the caller builds
+ * the sub‑diagram the classic way.
+ */
+public class SubdiagramTemplates {
+
+    private static final class Prototype {
+        final Diagram                       diagram;
+        final Map<String,ActivityPartition> partitions;
+        final Rectangle                     frame;
+
+        Prototype(Diagram diagram, Map<String,ActivityPartition> partitions, Rectangle frame) {
+            this.diagram = diagram;  this.partitions = partitions;  this.frame = frame;
+        }
+    }
+
+    private final Project                                                         project;
+    private final ActivityBuilder<PresentationElement,DiagramPresentationElement> builder;
+    private final Map<String,Prototype>                                           byLanes = new HashMap<>();
+
+    private boolean broken;          // copying failed once ⇒ stop trying
+    private int     clones;
+
+    public SubdiagramTemplates(Project project,
+                               ActivityBuilder<PresentationElement,DiagramPresentationElement> builder) {
+        this.project = project;
+        this.builder = builder;
+    }
+
+    /**
+     * A new diagram for {@code parent} with the swim‑lane frame of
+     * {@code geometry}, copied from its prototype; the partitions copied
+     * with it are put in {@code partitions}.
+     *
+     * @return the diagram, or {@code null} if it has to be built the classic way
+     */
+    public DiagramPresentationElement instantiate(StructuredActivityNode parent,
+                                                  DiagramGeometry geometry,
+                                                  Map<String,ActivityPartition> partitions)
+            throws ReadOnlyElementException {
+        if (broken) return null;
+        Activity activity = ActivityBuilder.findOwningActivity(parent);
+        if (activity == null) return null;
+
+        String key = key(geometry);
+        Prototype proto = byLanes.get(key);
+        if (proto == null) {
+            proto = prototype(activity, geometry);
+            byLanes.put(key, proto);
+        }
+
+        /* diagram and partitions in one copy, so the copied lanes show the copied partitions */
+        List<BaseElement> originals = new ArrayList<>();
+        originals.add(proto.diagram);
+        originals.addAll(proto.partitions.values());
+
+        List<BaseElement> pasted = List.of();
+        Diagram copy = null;
+        Map<String,ActivityPartition> byName = new HashMap<>();
+        String why = "";
+        try {
+            pasted = CopyPasting.copyPasteElements(originals, activity);
+            for (BaseElement e : pasted) {
+                if (e instanceof Diagram d)                copy = d;
+                else if (e instanceof ActivityPartition p) byName.put(p.getName(), p);
+            }
+        } catch (RuntimeException ex) {
+            why = " (" + ex + ")";
+        }
+        if (copy == null || !byName.keySet().equals(proto.partitions.keySet())) {
+            Application.getInstance().getGUILog().log("Sub-diagram templates: copying failed" + why + ", building diagrams one by one");
+            ModelElementsManager mgr = ModelElementsManager.getInstance();
+            for (BaseElement e : pasted)
+                if (e instanceof Element el && el.getOwner() != null) mgr.removeElement(el);
+            broken = true;
+            dispose();
+            return null;
+        }
+
+        ModelElementsManager.getInstance().moveElement(copy, parent);
+        copy.setName(parent.getName());
+        /* pasted into the Activity, so its partitions already */
+        for (String lane : proto.partitions.keySet())
+            partitions.put(lane, byName.get(lane));
+        DiagramPresentationElement dpe = project.getDiagram(copy);
+
+        /* same lanes, maybe another height */
+        if (geometry.getFrameBounds().height != proto.frame.height)
+            resize(dpe, partitions, geometry);
+
+        clones++;
+        return dpe;
+    }
+
+    /** Removes the prototypes and their partitions; the copies have their own. */
+    public void dispose() throws ReadOnlyElementException {
+        ModelElementsManager mgr = ModelElementsManager.getInstance();
+        for (Prototype p : byLanes.values()) {
+            mgr.removeElement(p.diagram);
+            for (ActivityPartition part : p.partitions.values()) mgr.removeElement(part);
+        }
+        if (!byLanes.isEmpty())
+            Application.getInstance().getGUILog().log("Sub-diagram templates: " + clones + " diagrams from "
+                                                      + byLanes.size() + " prototypes");
+        byLanes.clear();
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    /** lanes and their x range; heights differ per diagram and are reshaped */
+    private static String key(DiagramGeometry g) {
+        StringBuilder sb = new StringBuilder();
+        for (String lane : g.getLaneOrder()) {
+            Rectangle r = g.getLaneBounds().get(lane);
+            sb.append(lane).append('\u0000').append(r.x).append(',').append(r.width).append('\u0000');
+        }
+        return sb.toString();
+    }
+
+    private Prototype prototype(Activity activity, DiagramGeometry geometry)
+            throws ReadOnlyElementException {
+        Map<String,ActivityPartition> parts =
+                builder.createPartitionsInMainOrder(activity, geometry.getLaneOrder());
+
+        Diagram d = ModelElementsManager.getInstance()
+                        .createDiagram("SysML Activity Diagram", activity);
+        d.setName("Sub-diagram template");
+        builder.placePlannedSwimlanes(project.getDiagram(d), parts, geometry, new HashMap<>());
+        return new Prototype(d, parts, geometry.getFrameBounds());
+    }
+
+    private static void resize(DiagramPresentationElement dpe,
+                               Map<String,ActivityPartition> parts,
+                               DiagramGeometry geometry)
+            throws ReadOnlyElementException {
+        PresentationElementsManager pem = PresentationElementsManager.getInstance();
+        Map<String,ShapeElement> lanes = new LinkedHashMap<>();
+        for (Map.Entry<String,ActivityPartition> e : parts.entrySet()) {
+            PresentationElement lane = dpe.findPresentationElement(e.getValue(), ShapeElement.class);
+            if (lane instanceof ShapeElement s) lanes.put(e.getKey(), s);
+        }
+        if (lanes.isEmpty()) return;
+
+        /* frame first, then the lanes inside it */
+        if (lanes.values().iterator().next().getParent() instanceof ShapeElement wrapper)
+            pem.reshapeShapeElement(wrapper, geometry.getFrameBounds());
+        for (Map.Entry<String,ShapeElement> e : lanes.entrySet())
+            pem.reshapeShapeElement(e.getValue(), geometry.getLaneBounds().get(e.getKey()));
+    }
+}
@@ -0,0 +1,4 @@
+package com.nomagic.magicdraw.openapi.uml;
+
+public class ReadOnlyElementException extends Exception {
+}
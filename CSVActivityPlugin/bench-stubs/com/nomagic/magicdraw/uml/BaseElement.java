@@ -0,0 +1,5 @@
+package com.nomagic.magicdraw.uml;
+
+public interface BaseElement {
+    String getID();
+}
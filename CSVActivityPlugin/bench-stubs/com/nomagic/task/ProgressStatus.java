@@ -0,0 +1,8 @@
+package com.nomagic.task;
+
+public interface ProgressStatus {
+    void init(String description, long min, long max);
+    void setDescription(String description);
+    void setCurrent(long current);
+    boolean isCancel();
+}
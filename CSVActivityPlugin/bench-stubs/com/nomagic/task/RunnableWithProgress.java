@@ -0,0 +1,5 @@
+package com.nomagic.task;
+
+public interface RunnableWithProgress {
+    void run(ProgressStatus progressStatus);
+}
@@ -0,0 +1,9 @@
+package com.nomagic.ui;
+
+import com.nomagic.task.RunnableWithProgress;
+
+public class ProgressStatusRunner {
+    public static void runWithProgressStatus(RunnableWithProgress runnable, String title, boolean allowCancel, long delay) {
+        throw new UnsupportedOperationException("stub");
+    }
+}
@@ -0,0 +1,10 @@
+package com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+
+import java.util.List;
+
+public interface Action extends ActivityNode {
+    List<InputPin> getInput();
+    List<OutputPin> getOutput();
+}
@@ -0,0 +1,7 @@
+package com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions;
+
+import java.util.List;
+
+public interface CallAction extends InvocationAction {
+    List<OutputPin> getResult();
+}
@@ -0,0 +1,7 @@
+package com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions;
+
+import java.util.List;
+
+public interface InvocationAction extends Action {
+    List<InputPin> getArgument();
+}
@@ -0,0 +1,4 @@
+package com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions;
+
+public interface OutputPin extends Pin {
+}
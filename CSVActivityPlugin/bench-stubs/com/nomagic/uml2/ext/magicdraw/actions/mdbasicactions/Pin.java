@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ObjectNode;
+
+public interface Pin extends ObjectNode {
+}
@@ -0,0 +1,4 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities;
+
+public interface FinalNode extends ControlNode {
+}
@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityEdge;
+
+public interface ObjectFlow extends ActivityEdge {
+}
@@ -0,0 +1,7 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.TypedElement;
+
+public interface ObjectNode extends ActivityNode, TypedElement {
+}
@@ -0,0 +1,12 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.commonbehaviors.mdbasicbehaviors.Behavior;
+
+import java.util.Collection;
+
+public interface Activity extends Behavior {
+    Collection<ActivityNode> getNode();
+    Collection<ActivityEdge> getEdge();
+    Collection<ActivityPartition> getPartition();
+}
@@ -0,0 +1,10 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.NamedElement;
+
+public interface ActivityEdge extends NamedElement {
+    ActivityNode getSource();
+    ActivityNode getTarget();
+    void setSource(ActivityNode source);
+    void setTarget(ActivityNode target);
+}
@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.NamedElement;
+
+public interface ActivityGroup extends NamedElement {
+}
@@ -0,0 +1,12 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.ActivityPartition;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.NamedElement;
+
+import java.util.Collection;
+
+public interface ActivityNode extends NamedElement {
+    Collection<ActivityPartition> getInPartition();
+    Collection<ActivityEdge> getOutgoing();
+    Collection<ActivityEdge> getIncoming();
+}
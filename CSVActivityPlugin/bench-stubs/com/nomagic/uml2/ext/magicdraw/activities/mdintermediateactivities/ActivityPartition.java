@@ -0,0 +1,11 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityGroup;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+
+import java.util.Collection;
+
+public interface ActivityPartition extends ActivityGroup {
+    Collection<ActivityNode> getNode();
+    void setDimension(boolean dimension);
+}
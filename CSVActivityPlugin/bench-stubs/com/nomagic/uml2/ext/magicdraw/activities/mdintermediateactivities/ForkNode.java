@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.ControlNode;
+
+public interface ForkNode extends ControlNode {
+}
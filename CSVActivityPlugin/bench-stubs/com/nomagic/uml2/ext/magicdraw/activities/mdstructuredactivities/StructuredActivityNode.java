@@ -0,0 +1,19 @@
+package com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities;
+
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.Action;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.InputPin;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.OutputPin;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityEdge;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityGroup;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StructuredActivityNode extends Action, Namespace, ActivityGroup {
+    List<InputPin> getStructuredNodeInput();
+    List<OutputPin> getStructuredNodeOutput();
+    Collection<ActivityNode> getNode();
+    Collection<ActivityEdge> getEdge();
+}
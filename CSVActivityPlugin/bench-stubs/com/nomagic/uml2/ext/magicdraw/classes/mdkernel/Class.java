@@ -0,0 +1,4 @@
+package com.nomagic.uml2.ext.magicdraw.classes.mdkernel;
+
+public interface Class extends Classifier {
+}
@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.classes.mdkernel;
+
+public interface NamedElement extends Element {
+    String getName();
+    void setName(String name);
+}
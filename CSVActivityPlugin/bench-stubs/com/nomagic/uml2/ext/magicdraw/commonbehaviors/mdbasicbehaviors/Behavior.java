@@ -0,0 +1,6 @@
+package com.nomagic.uml2.ext.magicdraw.commonbehaviors.mdbasicbehaviors;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+
+public interface Behavior extends Class {
+}
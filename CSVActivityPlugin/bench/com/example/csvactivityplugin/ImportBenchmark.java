@@ -0,0 +1,157 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.Activity;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.ActivityNode;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The import on synthetic sheets of 1k to 100k rows, without a running
+ * Cameo.
+ *
+ * {@link #plan} times {@link ImportPlanner} on its own. {@link #build}
+ * runs the build the importer runs – {@link ActivityBuilder} with the
+ * layouters and {@link ObjectFlowBuilder} – against {@link ModelStandIn}
+ * and reports, next to its own time, the API calls it made, the elements
+ * its scans visited and what those calls would take in Cameo. Visits per
+ * row that grow with the sheet are a scan gone quadratic.
+ *
+ * <pre>
+ *   gradle jmh
+ *   gradle jmh -PjmhArgs='build -p rows=10000'
+ * </pre>
+ * It needs neither Cameo nor its jars: the model interfaces come from the
+ * stubs in bench-stubs/.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportBenchmark {
+
+    /* shape of the synthetic sheets */
+    private static final int LANES          = 12;
+    private static final int SUBS_EVERY     = 4;     // every 4th main row has sub‑actions …
+    private static final int SUBS_PER_MAIN  = 5;     // … this many
+    private static final int BRANCH_EVERY   = 10;    // with dependencies: every 10th row also waits for the one before last
+
+    private static final ActionTypeChooser.ActionType[] NO_TYPES = new ActionTypeChooser.ActionType[0];
+
+    @Param({ "1000", "10000", "100000" })
+    public int rows;
+
+    /** chain: rows in sheet order on the grid; dependencies: a layered graph */
+    @Param({ "chain", "dependencies" })
+    public String flow;
+
+    private List<ActivityData> sheet;
+    private ImportOptions      options;
+    private ImportPlan         plan;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        boolean graph = flow.equals("dependencies");
+        sheet   = syntheticRows(rows, graph);
+        options = new ImportOptions();
+        options.setAutoObjectFlows(true);
+        options.setDependencyFlows(graph);
+        options.setLayeredLayout(graph);
+        plan    = ImportPlanner.compile(sheet, NO_TYPES, options);
+    }
+
+    @Benchmark
+    public ImportPlan plan() throws Exception {
+        return ImportPlanner.compile(sheet, NO_TYPES, options);
+    }
+
+    @Benchmark
+    public ModelStandIn build(Calls calls) throws Exception {
+        ModelStandIn model = new ModelStandIn();
+        ActivityBuilder<ModelStandIn.Symbol,ModelStandIn.DiagramSymbol> builder =
+                new ActivityBuilder<>(model, new ActivityBuilder.Decorations<>() {});
+
+        model.session();
+        Activity activity = builder.createActivity("Benchmark", model.createPackage("Imported"));
+        builder.build(activity, plan, options, new ActivityNode[sheet.size()], false,
+                      ImportProgress.silent(), null, new ImportReport());
+        calls.add(model);
+        return model;
+    }
+
+    /** what one build did; a single shot per iteration, so per build */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Calls {
+        /** calls through the model API */
+        public long calls;
+        /** elements visited by scans of model collections */
+        public long visits;
+        /** what the calls and visits would take in Cameo */
+        public long modelledMillis;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            calls = visits = modelledMillis = 0;
+        }
+
+        void add(ModelStandIn model) {
+            calls          += model.calls();
+            visits         += model.count(ModelStandIn.Call.VISIT);
+            modelledMillis += model.modelledNanos() / 1_000_000;
+        }
+    }
+
+    /* =============================================================
+                              SYNTHETIC SHEETS
+       ============================================================= */
+
+    /**
+     * {@code size} rows, main rows spread over {@link #LANES} actors with
+     * one typed output each and the previous row's output as their input,
+     * and a run of sub‑actions under every {@link #SUBS_EVERY}th main row. With {@code dependencies} main rows
+     * name their predecessor, and every {@link #BRANCH_EVERY}th one also the
+     * row before it, so the graph forks and joins.
+     */
+    static List<ActivityData> syntheticRows(int size, boolean dependencies) {
+        List<ActivityData> rows = new ArrayList<>(size);
+        List<String> mains = new ArrayList<>();
+        int main = -1;
+
+        while (rows.size() < size) {
+            int n = mains.size() + 1;
+            ActivityData d = new ActivityData();
+            d.setName(n + " Action " + n);
+            d.setActor("Actor " + (n % LANES));
+            d.addInput("item" + ((n - 1) % 50) + " : Data" + ((n - 1) % 7));
+            d.addOutput("item" + (n % 50) + " : Data" + (n % 7));
+            if (dependencies && !mains.isEmpty()) {
+                List<String> preds = new ArrayList<>();
+                preds.add(mains.get(mains.size() - 1));
+                if (n % BRANCH_EVERY == 0 && mains.size() > 1) preds.add(mains.get(mains.size() - 2));
+                d.setPredecessors(preds);
+            }
+            d.setRowId(rows.size());
+            main = d.getRowId();
+            rows.add(d);
+            mains.add(d.getName());
+
+            if (n % SUBS_EVERY != 0) continue;
+            for (int s = 1; s <= SUBS_PER_MAIN && rows.size() < size; s++) {
+                ActivityData sub = new ActivityData();
+                sub.setName(n + "." + s + " Action " + n + "." + s);
+                sub.setActor("Actor " + ((n + s) % LANES));
+                sub.setSubAction(true);
+                sub.setParentRow(main);
+                sub.setRowId(rows.size());
+                rows.add(sub);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.csvactivityplugin;
+
+import com.nomagic.uml2.ext.magicdraw.activities.mdbasicactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdfundamentalactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdintermediateactivities.*;
+import com.nomagic.uml2.ext.magicdraw.activities.mdstructuredactivities.StructuredActivityNode;
+import com.nomagic.uml2.ext.magicdraw.actions.mdbasicactions.*;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+
+import java.awt.Rectangle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * In‑memory stand‑in for Cameo behind {@link ModelApi}, so the real
+ * {@link ActivityBuilder} – and with it {@link DiagramGridLayouter},
+ * {@link SubdiagramGridLayouter} and {@link ObjectFlowBuilder} – runs
+ * without a tool or a licence.
+ *
+ * Elements are proxies of Cameo's model interfaces (as stubbed in
+ * bench-stubs/) holding their properties in a map; ownership, lane membership and edge ends are kept
+ * on both sides, as Cameo keeps them. Every call through the API is
+ * counted and given a modelled cost, and the model collections count the
+ * elements visited when the build scans them ({@code contains}, iteration),
+ * so a scan that turns quadratic shows up as visits per row growing with
+ * the sheet. The costs are rough per‑call figures for a local project;
+ * only their proportions matter when comparing two runs.
+ */
+public final class ModelStandIn implements ModelApi<ModelStandIn.Symbol, ModelStandIn.DiagramSymbol> {
+
+    /** the API calls of an import */
+    public enum Call {
+        CREATE  ("ElementsFactory.create*",                              2_000),
+        ADD     ("ModelElementsManager.addElement",                      6_000),
+        DIAGRAM ("ModelElementsManager.createDiagram",                 400_000),
+        SHAPE   ("PresentationElementsManager.createShapeElement",      25_000),
+        PATH    ("PresentationElementsManager.createPathElement",       30_000),
+        RESHAPE ("PresentationElementsManager.reshapeShapeElement",     12_000),
+        FIND    ("DiagramPresentationElement.findPresentationElement",   1_000),
+        VISIT   ("element visited by a scan of a model collection",         40),
+        SESSION ("SessionManager.createSession + closeSession",      2_000_000);
+
+        final String api;
+        final long   nanos;
+
+        Call(String api, long nanos) {
+            this.api   = api;
+            this.nanos = nanos;
+        }
+    }
+
+    /** a shape or path on a diagram */
+    public static class Symbol {
+        final Element       element;
+        final DiagramSymbol diagram;
+        Rectangle           bounds = new Rectangle();
+
+        Symbol(Element element, Symbol parent) {
+            this.element = element;
+            this.diagram = (parent == null) ? (DiagramSymbol) this : parent.diagram;
+        }
+    }
+
+    /** a diagram, with its symbols by element */
+    public static final class DiagramSymbol extends Symbol {
+        final Map<Element,Symbol> symbols = new HashMap<>();
+
+        DiagramSymbol() {
+            super(null, null);
+        }
+    }
+
+    private final long[] counts = new long[Call.values().length];
+    private int          ids;
+
+    /* =============================================================
+                              ELEMENTS FACTORY
+       ============================================================= */
+
+    @Override public Activity               createActivity()           { return create(Activity.class); }
+    @Override public ActivityPartition      createPartition()          { return create(ActivityPartition.class); }
+    @Override public StructuredActivityNode createStructuredNode()     { return create(StructuredActivityNode.class); }
+    @Override public CallBehaviorAction     createCallBehaviorAction() { return create(CallBehaviorAction.class); }
+    @Override public ControlFlow            createControlFlow()        { return create(ControlFlow.class); }
+    @Override public ObjectFlow             createObjectFlow()         { return create(ObjectFlow.class); }
+    @Override public InputPin               createInputPin()           { return create(InputPin.class); }
+    @Override public OutputPin              createOutputPin()          { return create(OutputPin.class); }
+
+    @Override
+    public ActivityNode createControlNode(ImportPlan.Kind kind) {
+        switch (kind) {
+            case INITIAL:  return create(InitialNode.class);
+            case FINAL:    return create(ActivityFinalNode.class);
+            case FORK:     return create(ForkNode.class);
+            case JOIN:     return create(JoinNode.class);
+            case DECISION: return create(DecisionNode.class);
+            case MERGE:    return create(MergeNode.class);
+            default:       throw new IllegalArgumentException("not a control node: " + kind);
+        }
+    }
+
+    /** A package to import into, standing in for the one the user picks. */
+    public Package createPackage(String name) {
+        Package p = create(Package.class);
+        p.setName(name);
+        return p;
+    }
+
+    /* =============================================================
+                           MODEL ELEMENTS MANAGER
+       ============================================================= */
+
+    @Override
+    public void addElement(Element element, Element owner) {
+        count(Call.ADD, 1);
+        properties(element).values.put("Owner", owner);
+        owner.getOwnedElement().add(element);
+        if (element instanceof ActivityNode n && !(element instanceof Pin)) {
+            if (owner instanceof Activity a)                    a.getNode().add(n);
+            else if (owner instanceof StructuredActivityNode s) s.getNode().add(n);
+        } else if (element instanceof ActivityEdge e) {
+            if (owner instanceof Activity a)                    a.getEdge().add(e);
+            else if (owner instanceof StructuredActivityNode s) s.getEdge().add(e);
+        }
+    }
+
+    @Override
+    public DiagramSymbol createDiagram(Namespace owner, String name) {
+        count(Call.DIAGRAM, 1);
+        return new DiagramSymbol();
+    }
+
+    /* =============================================================
+                        PRESENTATION ELEMENTS MANAGER
+       ============================================================= */
+
+    @Override
+    public Symbol createShape(Element element, Symbol parent) {
+        count(Call.SHAPE, 1);
+        Symbol s = new Symbol(element, parent);
+        parent.diagram.symbols.put(element, s);
+        return s;
+    }
+
+    @Override
+    public void createPath(Element element, Symbol source, Symbol target) {
+        count(Call.PATH, 1);
+        source.diagram.symbols.put(element, new Symbol(element, source.diagram));
+    }
+
+    @Override
+    public void reshape(Symbol shape, Rectangle bounds) {
+        count(Call.RESHAPE, 1);
+        shape.bounds = new Rectangle(bounds);
+    }
+
+    @Override
+    public Symbol createSwimlanes(List<ActivityPartition> lanes, DiagramSymbol diagram) {
+        count(Call.SHAPE, 1);
+        Symbol frame = new Symbol(null, diagram);
+        for (ActivityPartition lane : lanes) diagram.symbols.put(lane, new Symbol(lane, frame));
+        return frame;
+    }
+
+    @Override
+    public Symbol find(DiagramSymbol diagram, Element element) {
+        count(Call.FIND, 1);
+        return diagram.symbols.get(element);
+    }
+
+    @Override
+    public Rectangle boundsOf(Symbol shape) {
+        return shape.bounds;
+    }
+
+    @Override
+    public void open(DiagramSymbol diagram) {}
+
+    /* =============================================================
+                                  SESSION
+       ============================================================= */
+
+    /** One session opened and closed, or one batch of a bulk import. */
+    public void session() {
+        count(Call.SESSION, 1);
+    }
+
+    /* =============================================================
+                                  COUNTS
+       ============================================================= */
+
+    public long count(Call call) {
+        return counts[call.ordinal()];
+    }
+
+    /** calls through the API, lookups included, scans not */
+    public long calls() {
+        long total = 0;
+        for (Call c : Call.values()) if (c != Call.VISIT) total += counts[c.ordinal()];
+        return total;
+    }
+
+    public long modelledNanos() {
+        long total = 0;
+        for (Call c : Call.values()) total += counts[c.ordinal()] * c.nanos;
+        return total;
+    }
+
+    /** one line per call, with calls per row */
+    public String summary(int rows) {
+        StringBuilder sb = new StringBuilder();
+        for (Call c : Call.values())
+            sb.append(String.format("  %-52s %,14d  %10.1f / row%n",
+                                    c.api, counts[c.ordinal()],
+                                    (double) counts[c.ordinal()] / Math.max(1, rows)));
+        return sb.toString();
+    }
+
+    private void count(Call call, long n) {
+        counts[call.ordinal()] += n;
+    }
+
+    /* =============================================================
+                                 ELEMENTS
+       ============================================================= */
+
+    private <T extends Element> T create(Class<T> type) {
+        count(Call.CREATE, 1);
+        Properties p = new Properties(type);
+        p.values.put("ID", "_" + (++ids));
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, p));
+    }
+
+    private static Properties properties(Element e) {
+        return (Properties) Proxy.getInvocationHandler(e);
+    }
+
+    /** an element: getters and setters over a property map, collections on first use */
+    private final class Properties implements InvocationHandler {
+        final Class<?>           type;
+        final Map<String,Object> values = new HashMap<>();
+
+        Properties(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object invoke(Object self, Method m, Object[] args) {
+            String name = m.getName();
+            int    argc = (args == null) ? 0 : args.length;
+            switch (name) {
+                case "equals":   return argc == 1 && self == args[0];
+                case "hashCode": return System.identityHashCode(self);
+                case "toString": return type.getSimpleName() + " " + values.get("Name");
+                default:         break;
+            }
+            if (argc == 0 && name.startsWith("get")) {
+                String property = name.substring(3);
+                if (Collection.class.isAssignableFrom(m.getReturnType()))
+                    return values.computeIfAbsent(property, k -> members(self, k));
+                Object v = values.get(property);
+                return (v != null) ? v : zero(m.getReturnType());
+            }
+            if (argc == 0 && name.startsWith("is")) {
+                Object v = values.get(name.substring(2));
+                return (v != null) ? v : zero(m.getReturnType());
+            }
+            if (argc == 1 && name.startsWith("set")) {
+                set(self, name.substring(3), args[0]);
+                return null;
+            }
+            return zero(m.getReturnType());
+        }
+
+        private void set(Object self, String property, Object value) {
+            values.put(property, value);
+            if (!(self instanceof ActivityEdge edge) || !(value instanceof ActivityNode node)) return;
+            if (property.equals("Source")) node.getOutgoing().add(edge);
+            if (property.equals("Target")) node.getIncoming().add(edge);
+        }
+
+        /** a partition's nodes name the partition back */
+        private Members<Object> members(Object self, String property) {
+            if (self instanceof ActivityPartition lane && property.equals("Node"))
+                return new Members<>(n -> ((ActivityNode) n).getInPartition().add(lane));
+            return new Members<>(null);
+        }
+    }
+
+    private static Object zero(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class)     return 0;
+        if (type == long.class)    return 0L;
+        if (type == double.class)  return 0.0;
+        return null;
+    }
+
+    /** a model collection that counts the elements its scans visit */
+    @SuppressWarnings("serial")
+    private final class Members<E> extends ArrayList<E> {
+        private final Consumer<E> added;   // keeps the other end (null ⇒ none)
+
+        Members(Consumer<E> added) {
+            this.added = added;
+        }
+
+        @Override
+        public boolean add(E e) {
+            super.add(e);
+            if (added != null) added.accept(e);
+            return true;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            for (int i = 0; i < size(); i++)
+                if (get(i) == o) {
+                    count(Call.VISIT, i + 1);
+                    return i;
+                }
+            count(Call.VISIT, size());
+            return -1;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<E> it = super.iterator();
+            return new Iterator<>() {
+                @Override public boolean hasNext() { return it.hasNext(); }
+                @Override public E next()          { count(Call.VISIT, 1); return it.next(); }
+                @Override public void remove()     { it.remove(); }
+            };
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED);
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> action) {
+            for (E e : this) action.accept(e);
+        }
+    }
+}
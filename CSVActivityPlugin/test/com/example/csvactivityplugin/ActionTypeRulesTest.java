@@ -0,0 +1,122 @@
+package com.example.csvactivityplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.csvactivityplugin.ActionTypeChooser.ActionType.CALL_BEHAVIOR;
+import static com.example.csvactivityplugin.ActionTypeChooser.ActionType.STRUCTURED_ACTIVITY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Parsing and applying {@link ActionTypeRules}; presets are left alone. */
+class ActionTypeRulesTest {
+
+    @Test
+    void unmatchedRowsStayStructured() {
+        ActionTypeRules rules = ActionTypeRules.compile("# nothing but a comment\n\n");
+
+        assertTrue(rules.isEmpty());
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { STRUCTURED_ACTIVITY, STRUCTURED_ACTIVITY },
+                          rules.apply(rows(row("1 A", "X"), row("2 B", "Y"))));
+    }
+
+    @Test
+    void nameAndActorAreCaseInsensitiveRegularExpressions() {
+        ActionTypeRules rules = ActionTypeRules.compile("name: ^\\d+ call\\b -> call\n"
+                                                        + "actor: ^pil -> Call Behavior");
+
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { CALL_BEHAVIOR, CALL_BEHAVIOR, STRUCTURED_ACTIVITY },
+                          rules.apply(rows(row("1 Call tower", "Tower"),
+                                           row("2 Taxi", "Pilot"),
+                                           row("3 Recall", "Crew"))));
+    }
+
+    @Test
+    void conditionsOfARuleMustAllHoldAndTheFirstMatchingRuleWins() {
+        ActionTypeRules rules = ActionTypeRules.compile("level: 2 & actor: Pilot -> call\n"
+                                                        + "level: 2 -> structured\n"
+                                                        + "level: 1+ -> call");
+
+        ActivityData parent = row("1 Fly", "Pilot");
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { CALL_BEHAVIOR, CALL_BEHAVIOR, STRUCTURED_ACTIVITY },
+                          rules.apply(rows(parent, sub("1.1 Climb", "Pilot", 0), sub("1.2 Report", "Tower", 0))));
+    }
+
+    @Test
+    void levelCountsOutlineNumbersAndFallsBackToMainOrSub() {
+        ActionTypeRules rules = ActionTypeRules.compile("level: 3 -> call\nlevel: 2 -> call");
+
+        assertArrayEquals(new ActionTypeChooser.ActionType[] {
+                              STRUCTURED_ACTIVITY, CALL_BEHAVIOR, CALL_BEHAVIOR, STRUCTURED_ACTIVITY, CALL_BEHAVIOR },
+                          rules.apply(rows(row("1 Main", "A"), row("1.2.3 Deep", "A"), row("2.1 Shallow", "A"),
+                                           row("Unnumbered", "A"), sub("Unnumbered sub", "A", 0))));
+    }
+
+    @Test
+    void subsTellsParentsFromLeaves() {
+        ActionTypeRules rules = ActionTypeRules.compile("subs: yes -> structured\nsubs: no -> call");
+
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { STRUCTURED_ACTIVITY, CALL_BEHAVIOR, CALL_BEHAVIOR },
+                          rules.apply(rows(row("1 Parent", "A"), sub("1.1 Child", "A", 0), row("2 Leaf", "A"))));
+    }
+
+    @Test
+    void arrowMayAppearInsideAnExpression() {
+        ActionTypeRules rules = ActionTypeRules.compile("name: A->B -> call");
+
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { CALL_BEHAVIOR, STRUCTURED_ACTIVITY },
+                          rules.apply(rows(row("1 Map A->B", "X"), row("2 Map B", "X"))));
+    }
+
+    @Test
+    void escapedAmpersandIsPartOfTheExpression() {
+        ActionTypeRules rules = ActionTypeRules.compile("name: R\\&D & actor: Lab -> call");
+
+        assertArrayEquals(new ActionTypeChooser.ActionType[] { CALL_BEHAVIOR, STRUCTURED_ACTIVITY, STRUCTURED_ACTIVITY },
+                          rules.apply(rows(row("1 Fund R&D", "Lab"), row("2 Fund R&D", "Office"),
+                                           row("3 Fund RD", "Lab"))));
+    }
+
+    @Test
+    void errorsNameTheLineThatDoesNotParse() {
+        assertMessage("# ok\nname: x -> call\nname: x", "Rule line 3: expected");
+        assertMessage("color: red -> call", "Rule line 1: unknown condition");
+        assertMessage("name: x -> opaque", "Rule line 1: unknown action type");
+        assertMessage("level: two -> call", "Rule line 1: level takes a number");
+        assertMessage("subs: maybe -> call", "Rule line 1: subs takes yes or no");
+        assertMessage("name: ( -> call", "Rule line 1: Unclosed group");
+    }
+
+    @Test
+    void keepsItsTextForTheEditor() {
+        String text = "name: x -> call\n";
+        assertEquals(text, ActionTypeRules.compile(text).getText());
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static void assertMessage(String text, String start) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                                                   () -> ActionTypeRules.compile(text));
+        assertTrue(ex.getMessage().startsWith(start), ex.getMessage());
+    }
+
+    private static ActivityData row(String name, String actor) {
+        ActivityData d = new ActivityData();
+        d.setName(name);
+        d.setActor(actor);
+        return d;
+    }
+
+    private static ActivityData sub(String name, String actor, int parent) {
+        ActivityData d = row(name, actor);
+        d.setSubAction(true);
+        d.setParentRow(parent);
+        return d;
+    }
+
+    private static List<ActivityData> rows(ActivityData... rows) {
+        for (int i = 0; i < rows.length; i++) rows[i].setRowId(i);
+        return List.of(rows);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.csvactivityplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ImportPlanner} on small sheets: the nodes and control flows it
+ * plans, without Cameo.
+ */
+class ImportPlannerTest {
+
+    private static final ActionTypeChooser.ActionType[] NO_TYPES = new ActionTypeChooser.ActionType[0];
+
+    /* -------- main flow -------- */
+
+    @Test
+    void chainRunsFromStartThroughTheMainRowsToEnd() throws Exception {
+        List<ActivityData> rows = rows(main("1 Plan", "Pilot"), main("2 Fly", "Pilot"), main("3 Land", "Tower"));
+
+        ImportPlan plan = ImportPlanner.compile(rows, NO_TYPES, new ImportOptions());
+
+        assertEquals(List.of("Pilot", "Tower"), plan.getMainLanes());
+        assertEquals(List.of("Start", "1 Plan", "2 Fly", "3 Land", "End"), mainNames(plan));
+        assertEquals(List.of("Start→1 Plan", "1 Plan→2 Fly", "2 Fly→3 Land", "3 Land→End"),
+                     flows(plan, ImportPlan.ACTIVITY));
+        assertEquals("Tower", node(plan, "3 Land").getLane());
+        assertTrue(plan.getWarnings().isEmpty());
+    }
+
+    @Test
+    void dependenciesFanOutThroughForkAndBackInThroughJoin() throws Exception {
+        ActivityData a = main("1 Prepare", "Crew");
+        ActivityData b = main("2 Fuel", "Crew");
+        ActivityData c = main("3 Load", "Crew");
+        ActivityData d = main("4 Depart", "Crew");
+        b.setPredecessors(List.of("1"));
+        c.setPredecessors(List.of("1"));
+        d.setPredecessors(List.of("2 Fuel", "3 Load"));
+
+        ImportPlan plan = ImportPlanner.compile(rows(a, b, c, d), NO_TYPES, dependencies(false));
+
+        assertEquals(1, plan.count(ImportPlan.Kind.FORK));
+        assertEquals(1, plan.count(ImportPlan.Kind.JOIN));
+        assertEquals(0, plan.count(ImportPlan.Kind.DECISION));
+        assertEquals(Set.of("Start→1 Prepare", "1 Prepare→FORK", "FORK→2 Fuel", "FORK→3 Load",
+                            "2 Fuel→JOIN", "3 Load→JOIN", "JOIN→4 Depart", "4 Depart→End"),
+                     new HashSet<>(flows(plan, ImportPlan.ACTIVITY)));
+    }
+
+    @Test
+    void decisionBranchesUseDecisionAndMergeNodes() throws Exception {
+        ActivityData a = main("1 Inspect", "QA");
+        ActivityData b = main("2 Accept", "QA");
+        ActivityData c = main("3 Reject", "QA");
+        ActivityData d = main("4 File", "QA");
+        a.setSuccessors(List.of("2", "3"));
+        d.setPredecessors(List.of("2", "3"));
+
+        ImportPlan plan = ImportPlanner.compile(rows(a, b, c, d), NO_TYPES, dependencies(true));
+
+        assertEquals(0, plan.count(ImportPlan.Kind.FORK));
+        assertEquals(0, plan.count(ImportPlan.Kind.JOIN));
+        assertEquals(Set.of("Start→1 Inspect", "1 Inspect→DECISION", "DECISION→2 Accept",
+                            "DECISION→3 Reject", "2 Accept→MERGE", "3 Reject→MERGE",
+                            "MERGE→4 File", "4 File→End"),
+                     new HashSet<>(flows(plan, ImportPlan.ACTIVITY)));
+    }
+
+    @Test
+    void severalSourcesAndSinksShareStartAndEnd() throws Exception {
+        ActivityData a = main("1 Left", "X");
+        ActivityData b = main("2 Right", "X");
+        ActivityData c = main("3 Alone", "X");
+        c.setPredecessors(List.of("1"));
+
+        ImportPlan plan = ImportPlanner.compile(rows(a, b, c), NO_TYPES, dependencies(false));
+
+        assertEquals(Set.of("Start→FORK", "FORK→1 Left", "FORK→2 Right", "1 Left→3 Alone",
+                            "2 Right→JOIN", "3 Alone→JOIN", "JOIN→End"),
+                     new HashSet<>(flows(plan, ImportPlan.ACTIVITY)));
+    }
+
+    @Test
+    void cycleIsRejectedNamingItsRows() {
+        ActivityData a = main("1 Ask", "A");
+        ActivityData b = main("2 Answer", "B");
+        a.setPredecessors(List.of("2"));
+        b.setPredecessors(List.of("1"));
+
+        Exception ex = assertThrows(Exception.class,
+                () -> ImportPlanner.compile(rows(a, b), NO_TYPES, dependencies(false)));
+        assertTrue(ex.getMessage().contains("cycle"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("1 Ask") && ex.getMessage().contains("2 Answer"),
+                   ex.getMessage());
+    }
+
+    @Test
+    void unknownDependencyIsAWarning() throws Exception {
+        ActivityData a = main("1 Only", "A");
+        ActivityData b = main("2 Next", "A");
+        b.setPredecessors(List.of("1", "9 Missing"));
+
+        ImportPlan plan = ImportPlanner.compile(rows(a, b), NO_TYPES, dependencies(false));
+
+        assertEquals(1, plan.getWarnings().size());
+        assertTrue(plan.getWarnings().get(0).contains("9 Missing"));
+    }
+
+    /* -------- sub‑actions -------- */
+
+    @Test
+    void subActionsGetTheirOwnChainAndDiagram() throws Exception {
+        ActivityData parent = main("1 Build", "Shop");
+        List<ActivityData> rows = rows(parent, sub("1.1 Cut", "Shop", 0), sub("1.2 Weld", "Outside", 0),
+                                       main("2 Ship", "Dock"));
+        ActionTypeChooser.ActionType[] types = new ActionTypeChooser.ActionType[rows.size()];
+        types[2] = ActionTypeChooser.ActionType.CALL_BEHAVIOR;
+
+        ImportPlan plan = ImportPlanner.compile(rows, types, new ImportOptions());
+
+        int owner = node(plan, "1 Build").getId();
+        assertEquals(List.of("Start→1.1 Cut", "1.1 Cut→1.2 Weld", "1.2 Weld→End"), flows(plan, owner));
+        assertEquals(ImportPlan.Kind.STRUCTURED,    node(plan, "1.1 Cut").getKind());
+        assertEquals(ImportPlan.Kind.CALL_BEHAVIOR, node(plan, "1.2 Weld").getKind());
+        assertEquals("Shop", node(plan, "1.1 Cut").getLane());
+        assertNull(node(plan, "1.2 Weld").getLane(), "no main lane for that actor");
+
+        assertEquals(1, plan.getSubDiagrams().size());
+        ImportPlan.DiagramPlan sub = plan.getSubDiagrams().get(0);
+        assertEquals(owner, sub.getOwner());
+        assertEquals(4, sub.getNodes().size());
+        assertNotNull(sub.getGeometry());
+        assertEquals(4, sub.getGeometry().getNodes().size());
+        assertSame(sub.getGeometry(), plan.getSubLayouts().get(parent.getRowId()));
+        assertThrows(UnsupportedOperationException.class, () -> plan.getSubLayouts().set(0, null));
+    }
+
+    @Test
+    void orphanSubRowIsSkippedWithAWarning() throws Exception {
+        List<ActivityData> rows = rows(sub("0.1 Stray", "A", -1), main("1 Main", "A"));
+
+        ImportPlan plan = ImportPlanner.compile(rows, NO_TYPES, new ImportOptions());
+
+        assertEquals(1, plan.getWarnings().size());
+        assertTrue(plan.getWarnings().get(0).contains("0.1 Stray"));
+        assertTrue(plan.getNodes().stream().noneMatch(n -> "0.1 Stray".equals(n.getName())));
+        assertTrue(plan.getSubDiagrams().isEmpty());
+    }
+
+    /* -------- paging and geometry -------- */
+
+    @Test
+    void longMainFlowIsPagedWithoutMainGeometry() throws Exception {
+        ActivityData[] steps = new ActivityData[5];
+        for (int i = 0; i < steps.length; i++) steps[i] = main((i + 1) + " Step", "A");
+        ImportOptions options = new ImportOptions();
+        options.setPageSize(2);
+        options.setLayeredLayout(true);
+
+        ImportPlan plan = ImportPlanner.compile(rows(steps), NO_TYPES, options);
+
+        assertTrue(plan.isPaged());
+        assertNull(plan.getMainDiagram().getGeometry());
+    }
+
+    @Test
+    void layeredMainGeometryIsAlignedWithTheMainNodes() throws Exception {
+        ActivityData a = main("1 A", "L1");
+        ActivityData b = main("2 B", "L2");
+        b.setPredecessors(List.of("1"));
+
+        ImportPlan plan = ImportPlanner.compile(rows(a, b), NO_TYPES, dependencies(false));
+
+        DiagramGeometry g = plan.getMainDiagram().getGeometry();
+        assertNotNull(g);
+        assertEquals(plan.getMainDiagram().getNodes().size(), g.getNodes().size());
+        assertEquals(List.of("L1", "L2"), g.getLaneOrder());
+    }
+
+    /* ------------------------------------------------------------------ */
+
+    private static ImportOptions dependencies(boolean decisions) {
+        ImportOptions options = new ImportOptions();
+        options.setDependencyFlows(true);
+        options.setDecisionBranches(decisions);
+        options.setLayeredLayout(true);
+        return options;
+    }
+
+    private static ActivityData main(String name, String actor) {
+        ActivityData d = new ActivityData();
+        d.setName(name);
+        d.setActor(actor);
+        return d;
+    }
+
+    /** a sub‑action of the row at {@code parent} in the list given to {@link #rows} */
+    private static ActivityData sub(String name, String actor, int parent) {
+        ActivityData d = main(name, actor);
+        d.setSubAction(true);
+        d.setParentRow(parent);
+        return d;
+    }
+
+    /** the rows in sheet order, numbered as the parser numbers them */
+    private static List<ActivityData> rows(ActivityData... rows) {
+        for (int i = 0; i < rows.length; i++) rows[i].setRowId(i);
+        return List.of(rows);
+    }
+
+    private static List<String> mainNames(ImportPlan plan) {
+        List<String> out = new ArrayList<>();
+        for (int id : plan.getMainDiagram().getNodes()) out.add(label(plan.getNodes().get(id)));
+        return out;
+    }
+
+    private static ImportPlan.Node node(ImportPlan plan, String name) {
+        return plan.getNodes().stream().filter(n -> name.equals(n.getName())).findFirst().orElseThrow();
+    }
+
+    /** flows of {@code owner} as "source→target", control nodes by kind */
+    private static List<String> flows(ImportPlan plan, int owner) {
+        List<String> out = new ArrayList<>();
+        for (ImportPlan.Flow f : plan.getFlows())
+            if (f.getOwner() == owner)
+                out.add(label(plan.getNodes().get(f.getSource())) + "→"
+                        + label(plan.getNodes().get(f.getTarget())));
+        return out;
+    }
+
+    private static String label(ImportPlan.Node n) {
+        return n.getName() != null ? n.getName() : n.getKind().name();
+    }
+}